@@ -0,0 +1,83 @@
+package com.rudikershaw.gitbuildhook.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+
+/** Generates the fixture repositories the benchmarks run against, and removes them again afterwards. */
+final class Fixtures {
+
+    /** Private constructor for utility class. */
+    private Fixtures() {
+    }
+
+    /**
+     * Creates a new Git repository in a temporary directory.
+     *
+     * @return the work tree of the repository.
+     * @throws IOException if the repository could not be created.
+     */
+    static Path repository() throws IOException {
+        final Path workTree = Files.createTempDirectory("git-build-hook-benchmark");
+        try (Git git = Git.init().setDirectory(workTree.toFile()).call()) {
+            return workTree;
+        } catch (final GitAPIException e) {
+            throw new IOException("Could not create a fixture repository in " + workTree, e);
+        }
+    }
+
+    /**
+     * Creates a directory nested the provided number of levels below the work tree, like a deeply nested module.
+     *
+     * @param workTree the work tree of the repository.
+     * @param depth the number of directories between the work tree and the module.
+     * @return the module directory, containing an empty pom.xml.
+     * @throws IOException if the directory could not be created.
+     */
+    static File module(final Path workTree, final int depth) throws IOException {
+        Path module = workTree;
+        for (int i = 0; i < depth; i++) {
+            module = module.resolve("module-" + i);
+        }
+        Files.createDirectories(module);
+        return Files.write(module.resolve("pom.xml"), new byte[0]).toFile();
+    }
+
+    /**
+     * Creates hook scripts to install.
+     *
+     * @param directory the directory to create the scripts in.
+     * @param count the number of scripts.
+     * @return the scripts.
+     * @throws IOException if the scripts could not be written.
+     */
+    static Path[] hookScripts(final Path directory, final int count) throws IOException {
+        final Path[] scripts = new Path[count];
+        for (int i = 0; i < count; i++) {
+            final String content = "#!/bin/sh\n# Hook script " + i + "\necho \"Running hook " + i + "\"\nexit 0\n";
+            scripts[i] = Files.write(directory.resolve("hook-" + i + ".sh"), content.getBytes(StandardCharsets.UTF_8));
+        }
+        return scripts;
+    }
+
+    /**
+     * Deletes a fixture directory and everything in it.
+     *
+     * @param directory the directory to delete.
+     * @throws IOException if the directory could not be deleted.
+     */
+    static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (final Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
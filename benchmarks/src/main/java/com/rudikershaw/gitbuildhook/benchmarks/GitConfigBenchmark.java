@@ -0,0 +1,135 @@
+package com.rudikershaw.gitbuildhook.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.eclipse.jgit.errors.ConfigInvalidException;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.util.FS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rudikershaw.gitbuildhook.config.GitConfigDelta;
+import com.rudikershaw.gitbuildhook.config.GitConfigFiles;
+
+/**
+ * Benchmarks what the configure goal does with git config of varying size: parsing keys, comparing the required
+ * config with the repository's, and loading, updating and saving the repository's config file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GitConfigBenchmark {
+
+    /** The number of entries in the repository's config, all of which the build requires. */
+    @Param({"10", "100", "1000"})
+    private int configSize;
+
+    /** The work tree of the fixture repository. */
+    private Path workTree;
+
+    /** The repository's config file. */
+    private File configFile;
+
+    /** The config the build requires, by git config key. */
+    private Map<String, String> required;
+
+    /** The required config, already loaded from the repository. */
+    private FileBasedConfig loaded;
+
+    /** Alternates the value of the changed entry, so that every save writes a change. */
+    private boolean toggle;
+
+    /**
+     * Creates the fixture repository, with every required entry already set in its config.
+     *
+     * @throws Exception if the fixture could not be created.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        workTree = Fixtures.repository();
+        configFile = workTree.resolve(".git").resolve("config").toFile();
+        required = new LinkedHashMap<>();
+        for (int i = 0; i < configSize; i++) {
+            required.put(i % 2 == 0 ? "benchmark.key" + i : "benchmark.sub" + i + ".key", "value-" + i);
+        }
+        loaded = new FileBasedConfig(configFile, FS.DETECTED);
+        GitConfigFiles.load(loaded);
+        GitConfigDelta.compute(loaded, required).applyTo(loaded);
+        GitConfigFiles.save(loaded);
+    }
+
+    /**
+     * Removes the fixture repository.
+     *
+     * @throws IOException if the fixture could not be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Fixtures.delete(workTree);
+    }
+
+    /**
+     * Parses every required key into its section, subsection and name.
+     *
+     * @return the number of parsed parts, so that the parsing is not eliminated.
+     * @throws MojoFailureException if a key is invalid.
+     */
+    @Benchmark
+    public int parseKeys() throws MojoFailureException {
+        int parts = 0;
+        for (final String key : required.keySet()) {
+            parts += GitConfigDelta.stringToConfigArray(key).length;
+        }
+        return parts;
+    }
+
+    /**
+     * Compares the required config with the repository's, as every run of the configure goal does.
+     *
+     * @return the comparison, which finds nothing to change.
+     * @throws MojoFailureException if a key is invalid.
+     */
+    @Benchmark
+    public GitConfigDelta computeUnchanged() throws MojoFailureException {
+        return GitConfigDelta.compute(loaded, required);
+    }
+
+    /**
+     * Loads the repository's config, changes one entry and saves it again, as a run with changed config does.
+     *
+     * @return the saved config.
+     * @throws IOException if the config could not be read or written.
+     * @throws ConfigInvalidException if the config is invalid.
+     * @throws MojoFailureException if a key is invalid.
+     */
+    @Benchmark
+    public FileBasedConfig loadChangeAndSave() throws IOException, ConfigInvalidException, MojoFailureException {
+        final FileBasedConfig config = new FileBasedConfig(configFile, FS.DETECTED);
+        GitConfigFiles.load(config);
+        final Map<String, String> changed = new LinkedHashMap<>(required);
+        toggle = !toggle;
+        changed.put("benchmark.changed", Boolean.toString(toggle));
+        GitConfigDelta.compute(config, changed).applyTo(config);
+        GitConfigFiles.save(config);
+        return config;
+    }
+}
@@ -0,0 +1,141 @@
+package com.rudikershaw.gitbuildhook.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rudikershaw.gitbuildhook.hook.install.FileHookSource;
+import com.rudikershaw.gitbuildhook.hook.install.HookInstaller;
+import com.rudikershaw.gitbuildhook.hook.install.InstallStrategy;
+import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+
+/**
+ * Benchmarks what the install goal does when copying varying numbers of hooks into a repository: installing hooks
+ * that are already up to date, which is what almost every build does, and reinstalling every hook.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HookInstallBenchmark {
+
+    /** The log problems are reported to. */
+    private static final Log LOG = new SystemStreamLog();
+
+    /** The number of hooks installed, at most one of each type of hook. */
+    @Param({"1", "10", "24"})
+    private int hookCount;
+
+    /** The work tree of the fixture repository. */
+    private Path workTree;
+
+    /** The hooks directory of the fixture repository. */
+    private Path hooksDirectory;
+
+    /** The directory the install manifest is kept in. */
+    private Path manifestDirectory;
+
+    /** The names of the hooks to install. */
+    private String[] hookNames;
+
+    /** The sources of the hooks to install. */
+    private FileHookSource[] sources;
+
+    /**
+     * Creates the fixture repository and hook scripts, and installs the hooks once.
+     *
+     * @throws IOException if the fixtures could not be created.
+     * @throws IllegalStateException if more hooks are to be installed than there are types of hook.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        workTree = Fixtures.repository();
+        final Path gitDir = workTree.resolve(".git");
+        hooksDirectory = Files.createDirectories(gitDir.resolve("hooks"));
+        manifestDirectory = Files.createDirectories(gitDir.resolve("git-build-hook"));
+        final GitHookType[] types = GitHookType.values();
+        if (hookCount > types.length) {
+            throw new IllegalStateException("Cannot install " + hookCount + " hooks with distinct names, as there are "
+                + "only " + types.length + " types of hook.");
+        }
+        final Path scripts = Files.createDirectories(workTree.resolve("hooks"));
+        final Path[] files = Fixtures.hookScripts(scripts, hookCount);
+        hookNames = new String[hookCount];
+        sources = new FileHookSource[hookCount];
+        for (int i = 0; i < hookCount; i++) {
+            hookNames[i] = types[i].getHookFileName();
+            sources[i] = new FileHookSource("hooks/" + files[i].getFileName(), files[i]);
+        }
+        install(true);
+    }
+
+    /**
+     * Removes the fixture repository.
+     *
+     * @throws IOException if the fixture could not be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Fixtures.delete(workTree);
+    }
+
+    /**
+     * Installs hooks that are already installed and unchanged.
+     *
+     * @return the number of hooks written, which is none.
+     * @throws IOException if the hooks could not be installed.
+     */
+    @Benchmark
+    public int installUnchanged() throws IOException {
+        return install(false);
+    }
+
+    /**
+     * Reinstalls every hook, as a forced install or a first build does.
+     *
+     * @return the number of hooks written.
+     * @throws IOException if the hooks could not be installed.
+     */
+    @Benchmark
+    public int installForced() throws IOException {
+        return install(true);
+    }
+
+    /**
+     * Installs every hook by copying it, and saves the install manifest.
+     *
+     * @param force whether to reinstall hooks that are unchanged.
+     * @return the number of hooks written.
+     * @throws IOException if the hooks could not be installed.
+     */
+    private int install(final boolean force) throws IOException {
+        final HookInstaller installer = new HookInstaller(hooksDirectory, manifestDirectory, InstallStrategy.COPY,
+                                                          null, force, LOG);
+        int written = 0;
+        for (int i = 0; i < hookCount; i++) {
+            if (installer.install(hookNames[i], sources[i]) == HookInstaller.Outcome.WRITTEN) {
+                written++;
+            }
+        }
+        installer.saveManifest();
+        return written;
+    }
+}
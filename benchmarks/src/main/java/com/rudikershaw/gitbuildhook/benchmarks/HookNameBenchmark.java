@@ -0,0 +1,40 @@
+package com.rudikershaw.gitbuildhook.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+
+/** Benchmarks validating the names of configured hooks, done for every configured hook of every module. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HookNameBenchmark {
+
+    /** The name to validate: the first and last hooks Git knows of, and a name Git does not know. */
+    @Param({"pre-commit", "post-index-change", "not-a-hook"})
+    private String hookName;
+
+    /**
+     * Validates the hook name.
+     *
+     * @return whether the name is a valid hook name.
+     */
+    @Benchmark
+    public boolean isValidHookName() {
+        return GitHookType.isValidHookName(hookName);
+    }
+}
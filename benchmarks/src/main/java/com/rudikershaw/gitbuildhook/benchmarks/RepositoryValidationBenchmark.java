@@ -0,0 +1,101 @@
+package com.rudikershaw.gitbuildhook.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
+
+/**
+ * Benchmarks checking that a module is managed by a Git repository, which every goal does for every module. Modules
+ * are nested at varying depths below the work tree, so that the repository is found by walking up a varying number
+ * of directories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryValidationBenchmark {
+
+    /** The validator, using the default methods every mojo uses. */
+    private static final GitRepositoryValidator VALIDATOR = new GitRepositoryValidator() { };
+
+    /** The number of directories between the work tree and the module. */
+    @Param({"0", "4", "16"})
+    private int depth;
+
+    /** The work tree of the fixture repository. */
+    private Path workTree;
+
+    /** A module nested in the fixture repository. */
+    private MavenProject module;
+
+    /** A module outside of any repository. */
+    private MavenProject unmanaged;
+
+    /** The directory of the module outside of any repository. */
+    private Path unmanagedDirectory;
+
+    /**
+     * Creates the fixture repository and modules.
+     *
+     * @throws IOException if the fixtures could not be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        workTree = Fixtures.repository();
+        module = new MavenProject();
+        module.setFile(Fixtures.module(workTree, depth));
+        unmanagedDirectory = Files.createTempDirectory("git-build-hook-benchmark");
+        unmanaged = new MavenProject();
+        unmanaged.setFile(Fixtures.module(unmanagedDirectory, depth));
+    }
+
+    /**
+     * Removes the fixtures.
+     *
+     * @throws IOException if the fixtures could not be removed.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Fixtures.delete(workTree);
+        Fixtures.delete(unmanagedDirectory);
+    }
+
+    /**
+     * Checks a module managed by a repository, as every module of a reactor after the first does.
+     *
+     * @return whether the module is managed by a repository.
+     */
+    @Benchmark
+    public boolean managedModule() {
+        return VALIDATOR.isGitRepoInitialised(module);
+    }
+
+    /**
+     * Checks a module outside of any repository, which is never cached and so walks to the root every time.
+     *
+     * @return whether the module is managed by a repository.
+     */
+    @Benchmark
+    public boolean unmanagedModule() {
+        return VALIDATOR.isGitRepoInitialised(unmanaged);
+    }
+}
@@ -0,0 +1,2 @@
+/** Package containing JMH benchmarks of the hot paths of the plugin, run against generated fixture repositories. */
+package com.rudikershaw.gitbuildhook.benchmarks;
@@ -2,19 +2,29 @@ package com.rudikershaw.gitbuildhook;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
-import com.rudikershaw.gitbuildhook.threadsafety.ClassLock;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.lib.StoredConfig;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 
+import com.rudikershaw.gitbuildhook.config.ConfigConflictPolicy;
+import com.rudikershaw.gitbuildhook.config.GitConfigApplier;
+import com.rudikershaw.gitbuildhook.config.ReactorConfigMerge;
+import com.rudikershaw.gitbuildhook.reactor.ReactorRegistry;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.repository.GitRepositoryCache;
+import com.rudikershaw.gitbuildhook.timing.GoalTimer;
 import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
 
 /** Mojo for specifying a custom git config settings for your Git repository. */
@@ -25,6 +35,14 @@ public class GitConfigMojo extends AbstractMojo implements GitRepositoryValidato
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
 
+    /** Injected MavenSession, used to share git config between the modules of the reactor. */
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /** Injected MojoExecution, used to find the other modules of the reactor running this goal. */
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true, required = true)
+    private MojoExecution mojoExecution;
+
     /** The git config to set and the values to set them to. */
     @Parameter
     private Map<String, String> gitConfig;
@@ -33,63 +51,205 @@ public class GitConfigMojo extends AbstractMojo implements GitRepositoryValidato
     @Parameter(property = "gitbuildhook.gitconfig.skip", defaultValue = "false")
     private boolean skip;
 
+    /**
+     * Collect the git config of every module of the reactor and apply it to each repository once, after the last
+     * module configuring that repository has run, rather than saving the config once per module.
+     */
+    @Parameter(property = "gitbuildhook.gitconfig.atEnd", defaultValue = "false")
+    private boolean configureAtEnd;
+
+    /** When configuring at the end, what to do if modules configure different values for the same key. */
+    @Parameter(property = "gitbuildhook.gitconfig.conflictPolicy", defaultValue = "FAIL")
+    private ConfigConflictPolicy conflictPolicy;
+
+    /**
+     * Set the git config in the per-worktree config file, config.worktree, rather than in the config shared by every
+     * worktree of the repository. Enables extensions.worktreeConfig in the shared config so that Git reads it.
+     */
+    @Parameter(property = "gitbuildhook.gitconfig.worktree", defaultValue = "false")
+    private boolean worktreeConfig;
+
+    /**
+     * Write the git config to an include file of its own in the plugin's directory, which the repository's config
+     * includes, rather than setting it in the repository's config. The include file holds exactly the configured git
+     * config, so removing a value from the configuration removes it from the repository, and the repository's config
+     * is only changed once, to include the file.
+     */
+    @Parameter(property = "gitbuildhook.gitconfig.include", defaultValue = "false")
+    private boolean includeConfig;
+
+    /** How long to wait, in milliseconds, for other builds to finish modifying the repository. */
+    @Parameter(property = "gitbuildhook.lock.timeout", defaultValue = "60000")
+    private long lockTimeout;
+
+    /** Write a JSON summary of the time spent in each goal of the plugin, in total and by module, to this file. */
+    @Parameter(property = "gitbuildhook.timings.output")
+    private File timingsFile;
+
     @Override
     public void execute() throws MojoFailureException {
+        final GoalTimer timer = GoalTimer.start(session, project, "configure", timingsFile, getLog());
+        try {
+            configure();
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Sets the configured git config, unless skipped.
+     *
+     * @throws MojoFailureException if the git config could not be set.
+     */
+    private void configure() throws MojoFailureException {
         if (skip) {
             getLog().debug("Skipping");
+            final GitRepository repository = GitRepositoryCache.resolve(project.getBasedir());
+            if (configureAtEnd && repository != null) {
+                contributeAtEnd(repository, Collections.emptyMap());
+            }
             return;
         }
 
         // This goal requires the project to have a git repository initialized.
-        validateGitRepository(project);
+        final GitRepository repository = resolveGitRepository(project);
 
-        final FileRepositoryBuilder repoBuilder =  new FileRepositoryBuilder();
-        repoBuilder.findGitDir(project.getBasedir());
+        final Map<String, String> required = gitConfig == null ? Collections.emptyMap() : gitConfig;
+        if (configureAtEnd) {
+            contributeAtEnd(repository, required);
+        } else {
+            applyGitConfig(repository, required);
+        }
+    }
+
+    /**
+     * Adds the git config of this module to the config merged from every module of the reactor sharing the same
+     * repository. If this module is the last expected to contribute, the merged config is applied. Otherwise it is
+     * applied once the session ends, if any of the expected modules never contribute.
+     *
+     * @param repository the repository to configure.
+     * @param values the git config values of this module.
+     * @throws MojoFailureException if the values conflict with another module's, or the config could not be saved.
+     */
+    private void contributeAtEnd(final GitRepository repository, final Map<String, String> values)
+        throws MojoFailureException {
+        // Modules in different worktrees of the same repository share its config, unless configuring per worktree.
+        final File gitDir = configDirectory(repository);
+        final ReactorRegistry registry = ReactorRegistry.of(session);
+        final String key = "configure:" + gitDir.getAbsolutePath();
+        final ReactorConfigMerge merge = registry.getShared(
+            key,
+            ReactorConfigMerge.class,
+            () -> new ReactorConfigMerge(expectedContributors(gitDir))
+        );
+        registry.atSessionEnd(session, key, () -> applyAtSessionEnd(repository, merge));
 
-        final String worktreePath = ".git" + File.separator + "worktrees" + File.separator;
-        if (repoBuilder.getGitDir().getAbsolutePath().contains(worktreePath)) {
-            getLog().warn(
-    "The plugin appears to be running in a Git worktree. "
-                + "No configuration changes made."
-            );
+        final String moduleId = ReactorRegistry.moduleId(project);
+        if (merge.contribute(moduleId, session.getProjects().indexOf(project), values, conflictPolicy)) {
+            for (final String conflict : merge.getConflicts()) {
+                getLog().warn(conflict);
+            }
+            getLog().info("Applying git config merged from every module of the reactor.");
+            applyGitConfig(repository, merge.getMerged());
+        } else {
+            getLog().info("Git config will be applied at the end of the reactor, waiting for "
+                + merge.getPendingCount() + " more module(s).");
+        }
+    }
+
+    /**
+     * Applies the merged git config if the session has ended before every module expected to contribute has done so,
+     * warning which modules never did. Failing to apply it is logged as an error, as the build can no longer fail.
+     *
+     * @param repository the repository to configure.
+     * @param merge the merged git config.
+     */
+    private void applyAtSessionEnd(final GitRepository repository, final ReactorConfigMerge merge) {
+        final Set<String> missing = merge.completeWithoutPending();
+        if (missing.isEmpty()) {
             return;
         }
+        getLog().warn("Applying git config merged from the reactor at the end of the session, without the git config "
+            + "of " + missing.size() + " module(s) that did not run the configure goal: " + String.join(", ", missing)
+            + ".");
+        for (final String conflict : merge.getConflicts()) {
+            getLog().warn(conflict);
+        }
+        try {
+            applyGitConfig(repository, merge.getMerged());
+        } catch (final MojoFailureException e) {
+            getLog().error("Could not apply the git config merged from the reactor.", e);
+        }
+    }
 
-        synchronized (ClassLock.class) {
-            try (Git git = Git.open(repoBuilder.getGitDir())) {
-                final StoredConfig config = git.getRepository().getConfig();
-                for (final Map.Entry<String, String> entry : gitConfig.entrySet()) {
-                    final String[] conf = stringToConfigArray(entry.getKey());
-                    config.setString(conf[0], conf[1], conf[2], entry.getValue());
-                    getLog().info("Git config '" + entry.getKey() + "' set to - " + entry.getValue());
-                }
-                config.save();
-            } catch (final IOException ioe) {
-                failBuildBecauseRepoCouldNotBeFound(ioe);
+    /**
+     * Finds the modules of the reactor that will run this goal against the provided git directory, and so are
+     * expected to contribute their git config before the merged config is applied.
+     *
+     * @param gitDir the git directory being configured, as returned by {@link #configDirectory(GitRepository)}.
+     * @return the ids of the modules expected to contribute.
+     */
+    private Set<String> expectedContributors(final File gitDir) {
+        final String pluginKey = mojoExecution.getMojoDescriptor().getPluginDescriptor().getPluginLookupKey();
+        final boolean fromCommandLine = mojoExecution.getSource() == MojoExecution.Source.CLI;
+        final Set<String> expected = new HashSet<>();
+        expected.add(ReactorRegistry.moduleId(project));
+        for (final MavenProject reactorProject : session.getProjects()) {
+            final GitRepository repository = GitRepositoryCache.resolve(reactorProject.getBasedir());
+            if (repository != null
+                && configDirectory(repository).equals(gitDir)
+                && (fromCommandLine || bindsGoal(reactorProject, pluginKey))) {
+                expected.add(ReactorRegistry.moduleId(reactorProject));
             }
         }
+        return expected;
     }
 
     /**
-     * Takes a git config key string (e.g. core.hooksPath) and splits it into section, subsection, and name.
-     * The former two are set to null is missing from the provided string.
+     * Gets the git directory whose config is written for the provided repository: the git directory of its worktree
+     * when configuring per worktree, or the common git directory shared by every worktree otherwise.
      *
-     * @param string a git config key string.
-     * @return an array representing git config key section, subsection, and name respectively.
+     * @param repository the repository.
+     * @return the git directory the config is written to.
+     */
+    private File configDirectory(final GitRepository repository) {
+        return worktreeConfig ? repository.getGitDir() : repository.getCommonDir();
+    }
+
+    /**
+     * Returns true if the provided project binds this goal of this plugin in any of its executions.
      *
-     * @throws MojoFailureException if the git config key string is invalid.
+     * @param reactorProject the project to check.
+     * @param pluginKey the group and artifact id of this plugin.
+     * @return whether the project runs this goal.
      */
-    private String[] stringToConfigArray(final String string) throws MojoFailureException {
-        final String[] split = string.split("\\.");
-        final byte sections = 3;
-        if (split.length > sections || split.length < 2) {
-            throw new MojoFailureException("Git config '" + string + "' must include 1-2 sections separated by stops.");
+    private boolean bindsGoal(final MavenProject reactorProject, final String pluginKey) {
+        final String goal = mojoExecution.getMojoDescriptor().getGoal();
+        for (final Plugin plugin : reactorProject.getBuildPlugins()) {
+            if (pluginKey.equals(plugin.getKey())) {
+                for (final PluginExecution execution : plugin.getExecutions()) {
+                    if (execution.getGoals().contains(goal)) {
+                        return true;
+                    }
+                }
+            }
         }
+        return false;
+    }
 
-        final String name = split[split.length - 1];
-        final String subsection = split.length == sections ? split[1] : null;
-        final String section = split[0];
-
-        return new String[]{section, subsection, name};
+    /**
+     * Applies git config values to the repository, saving the config only if any value has changed.
+     *
+     * @param repository the repository to configure.
+     * @param required the required values by git config key.
+     * @throws MojoFailureException if the config could not be read or saved.
+     */
+    private void applyGitConfig(final GitRepository repository, final Map<String, String> required)
+        throws MojoFailureException {
+        try {
+            new GitConfigApplier(worktreeConfig, includeConfig, lockTimeout, getLog()).apply(repository, required);
+        } catch (final IOException ioe) {
+            failBuildBecauseRepoCouldNotBeFound(ioe);
+        }
     }
 }
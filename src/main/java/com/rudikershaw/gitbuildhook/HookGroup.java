@@ -0,0 +1,125 @@
+package com.rudikershaw.gitbuildhook;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A group of scripts installed as a single Git hook. A generated dispatcher is installed as the hook, which runs each
+ * of the scripts, several at a time, and prints the output of each script separately once it has finished.
+ */
+public class HookGroup {
+
+    /** The default number of scripts run at the same time. */
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    /** The name of the hook, such as pre-commit. */
+    private String hook;
+
+    /** The locations of the scripts to run, on the file system or the class path. */
+    private List<String> scripts = new ArrayList<>();
+
+    /** The largest number of scripts run at the same time. */
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    /** How long, in seconds, each script may run before it is stopped and fails, or zero for no limit. */
+    private int timeout;
+
+    /** Whether to stop running further scripts as soon as a script fails. */
+    private boolean failFast;
+
+    /**
+     * Gets the name of the hook.
+     *
+     * @return the name of the hook, such as pre-commit.
+     */
+    public String getHook() {
+        return hook;
+    }
+
+    /**
+     * Sets the name of the hook.
+     *
+     * @param hookName the name of the hook, such as pre-commit.
+     */
+    public void setHook(final String hookName) {
+        hook = hookName;
+    }
+
+    /**
+     * Gets the locations of the scripts to run.
+     *
+     * @return the script locations, in the order they are run.
+     */
+    public List<String> getScripts() {
+        return Collections.unmodifiableList(scripts);
+    }
+
+    /**
+     * Sets the locations of the scripts to run.
+     *
+     * @param scriptLocations the script locations, in the order they are run.
+     */
+    public void setScripts(final List<String> scriptLocations) {
+        scripts = new ArrayList<>(scriptLocations);
+    }
+
+    /**
+     * Gets the largest number of scripts run at the same time.
+     *
+     * @return the parallelism.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the largest number of scripts run at the same time.
+     *
+     * @param maxParallel the parallelism.
+     */
+    public void setParallelism(final int maxParallel) {
+        parallelism = maxParallel;
+    }
+
+    /**
+     * Gets how long each script may run before it is stopped.
+     *
+     * @return the timeout in seconds, or zero for no limit.
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets how long each script may run before it is stopped.
+     *
+     * @param timeoutSeconds the timeout in seconds, or zero for no limit.
+     */
+    public void setTimeout(final int timeoutSeconds) {
+        timeout = timeoutSeconds;
+    }
+
+    /**
+     * Returns true if no further scripts are run once a script fails.
+     *
+     * @return whether to fail fast.
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    /**
+     * Sets whether to stop running further scripts as soon as a script fails.
+     *
+     * @param stopOnFailure whether to fail fast.
+     */
+    public void setFailFast(final boolean stopOnFailure) {
+        failFast = stopOnFailure;
+    }
+
+    @Override
+    public String toString() {
+        return hook + scripts + "[parallelism=" + parallelism + ", timeout=" + timeout + ", failFast=" + failFast + "]";
+    }
+}
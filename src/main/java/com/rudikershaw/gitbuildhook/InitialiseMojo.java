@@ -1,15 +1,21 @@
 package com.rudikershaw.gitbuildhook;
 
-import com.rudikershaw.gitbuildhook.threadsafety.ClassLock;
+import java.io.File;
+import java.io.IOException;
+
+import com.rudikershaw.gitbuildhook.repository.GitRepositoryCache;
+import com.rudikershaw.gitbuildhook.repository.GitRepositoryInitialiser;
+import com.rudikershaw.gitbuildhook.threadsafety.RepositoryLock;
+import com.rudikershaw.gitbuildhook.timing.GoalTimer;
 import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
 
 /** Mojo for initializing a Git repository if one does not already exist. */
 @Mojo(name = "initialize", defaultPhase = LifecyclePhase.INITIALIZE, threadSafe = true)
@@ -19,40 +25,73 @@ public class InitialiseMojo extends AbstractMojo implements GitRepositoryValidat
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
 
+    /** Injected MavenSession, used to share the timing summary between the modules of the reactor. */
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
     /** Skip initialising the git repo. */
     @Parameter(property = "gitbuildhook.init.skip", defaultValue = "false")
     private boolean skip;
 
+    /** How long to wait, in milliseconds, for other builds to finish modifying the repository. */
+    @Parameter(property = "gitbuildhook.lock.timeout", defaultValue = "60000")
+    private long lockTimeout;
+
+    /** Write a JSON summary of the time spent in each goal of the plugin, in total and by module, to this file. */
+    @Parameter(property = "gitbuildhook.timings.output")
+    private File timingsFile;
+
     @Override
     public void execute() throws MojoFailureException {
+        final GoalTimer timer = GoalTimer.start(session, project, "initialize", timingsFile, getLog());
+        try {
+            initialise();
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Initialises a Git repository if there is none, unless skipped.
+     *
+     * @throws MojoFailureException to fail the build and with details of the failure.
+     */
+    private void initialise() throws MojoFailureException {
         if (skip) {
             getLog().debug("Skipping");
             return;
         }
 
         if (!isGitRepoInitialised(project)) {
-            initialiseGitRepository();
+            initialiseGitRepository(project.getBasedir(), lockTimeout, getLog());
         } else {
             getLog().info("A Git repository is already initialized.");
         }
     }
 
     /**
-     * Initialise a new git repository in the Maven project base directory.
+     * Initialise a new git repository in the provided base directory. Failing to do so only fails the build if no
+     * repository exists afterwards, as when another build has initialised the repository in the meantime.
      *
+     * @param basedir the base directory of the Maven project.
+     * @param lockTimeout how long to wait, in milliseconds, for other builds to finish modifying the repository.
+     * @param log the log to report an existing repository to.
      * @throws MojoFailureException to fail the build and with details of the failure.
      */
-    private void initialiseGitRepository() throws MojoFailureException {
+    static void initialiseGitRepository(final File basedir, final long lockTimeout, final Log log)
+        throws MojoFailureException {
+        final File gitDir = new File(basedir, ".git");
+        final RepositoryLock lock = RepositoryLock.acquire(gitDir, lockTimeout, log);
         try {
-            synchronized (ClassLock.class) {
-                Git.init().setDirectory(project.getBasedir()).call();
-            }
-        } catch (final GitAPIException e) {
-            if (!isGitRepoInitialised(project)) {
+            GitRepositoryInitialiser.init(basedir);
+        } catch (final IOException e) {
+            if (GitRepositoryCache.resolve(basedir) == null) {
                 throw new MojoFailureException("Could not initialise a local git repository.", e);
             } else {
-                getLog().warn("Tried to initialize a Git repository, but a repository already exists.");
+                log.warn("Tried to initialize a Git repository, but a repository already exists.");
             }
+        } finally {
+            lock.close();
         }
     }
 }
@@ -1,136 +1,1060 @@
 package com.rudikershaw.gitbuildhook;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
 
-import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+import com.rudikershaw.gitbuildhook.config.GitConfigFiles;
+import com.rudikershaw.gitbuildhook.files.ContentDigest;
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+import com.rudikershaw.gitbuildhook.hook.install.ArtifactHookCache;
+import com.rudikershaw.gitbuildhook.hook.install.ArtifactHookLocation;
+import com.rudikershaw.gitbuildhook.hook.install.HookAssembly;
+import com.rudikershaw.gitbuildhook.hook.install.HookBundle;
+import com.rudikershaw.gitbuildhook.hook.install.HookInstaller;
+import com.rudikershaw.gitbuildhook.hook.install.HookManifest;
+import com.rudikershaw.gitbuildhook.hook.install.HookSource;
+import com.rudikershaw.gitbuildhook.hook.install.HookSources;
+import com.rudikershaw.gitbuildhook.hook.install.InstallStrategy;
+import com.rudikershaw.gitbuildhook.reactor.ReactorRegistry;
+import com.rudikershaw.gitbuildhook.repository.AppliedState;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.staged.StagedFiles;
+import com.rudikershaw.gitbuildhook.threadsafety.RepositoryLock;
+import com.rudikershaw.gitbuildhook.timing.GoalTimer;
 import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
 
 /** Mojo for installing Git hooks. */
-@Mojo(name = "install", defaultPhase = LifecyclePhase.PROCESS_SOURCES)
+@Mojo(name = "install", defaultPhase = LifecyclePhase.PROCESS_SOURCES, threadSafe = true)
 public class InstallMojo extends AbstractMojo implements GitRepositoryValidator {
 
-    /** The location of git hooks to install into the default hooks directory. */
+    /** The git config key of the hooks directory used by Git. */
+    private static final String HOOKS_PATH = "core.hooksPath";
+
+    /**
+     * The location of git hooks to install into the default hooks directory. Each is a file, a resource on the plugin's
+     * class path, or a path within a Maven artifact given as groupId:artifactId:version[:classifier]!/path.
+     */
     @Parameter
     private final Map<String, String> installHooks = new HashMap<>();
 
+    /**
+     * A directory, or zip or jar archive, of hooks and the helper files they use, every entry of which is copied into
+     * the hooks directory in a single pass. Top level entries named after a Git hook are installed as hooks.
+     */
+    @Parameter(property = "gitbuildhook.install.bundle")
+    private File hookBundle;
+
+    /**
+     * Groups of scripts to install as a single hook. Each group installs a generated dispatcher as the hook, which runs
+     * the group's scripts in parallel.
+     */
+    @Parameter
+    private final List<HookGroup> hookGroups = new ArrayList<>();
+
+    /**
+     * Maven goals to run as hooks, by hook name, such as checkstyle:check for pre-commit. Each hook runs its goals in
+     * the warm runner started by the runner goal if one is running, or with a new Maven process otherwise.
+     */
+    @Parameter
+    private final Map<String, String> runnerHooks = new HashMap<>();
+
+    /**
+     * Wrap each installed hook so that every time it runs, how long it took and its exit code are appended to
+     * metrics.log in the plugin's directory within the git directory. The metrics goal summarises them.
+     */
+    @Parameter(property = "gitbuildhook.install.metrics", defaultValue = "false")
+    private boolean recordMetrics;
+
+    /**
+     * The git config set by the configure goal. Only read to check that it does not set core.hooksPath when the
+     * hooksPath install strategy sets it too.
+     */
+    @Parameter
+    private Map<String, String> gitConfig;
+
     /** Injected MavenProject containing project related information such as base directory. */
     @Parameter(defaultValue = "${project}", readonly = true, required = true)
     private MavenProject project;
 
+    /** Injected MavenSession, used to share work between the modules of the reactor. */
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
     /** Skip installing hooks. */
     @Parameter(property = "gitbuildhook.install.skip", defaultValue = "false")
     private boolean skip;
 
+    /** Reinstall every hook, even those the install manifest records as unchanged. */
+    @Parameter(property = "gitbuildhook.install.force", defaultValue = "false")
+    private boolean forceReinstall;
+
+    /**
+     * How hooks are installed: copy each hook into the hooks directory, symlink each hook in the hooks directory to
+     * its source file, generate a directory of hooks running their source files and set core.hooksPath to it, or hard
+     * link each hook to its content in a store shared between repositories.
+     */
+    @Parameter(property = "gitbuildhook.install.strategy", defaultValue = "copy")
+    private String installStrategy;
+
+    /** The content-addressed store, shared between repositories, that the hardlink install strategy links hooks to. */
+    @Parameter(property = "gitbuildhook.install.store",
+        defaultValue = "${settings.localRepository}/.cache/git-build-hook/hooks")
+    private File hookStore;
+
+    /**
+     * The directory hooks configured as groupId:artifactId:version[:classifier]!/path are extracted into, by the
+     * checksum of their artifact, shared between repositories.
+     */
+    @Parameter(property = "gitbuildhook.install.artifactCache",
+        defaultValue = "${settings.localRepository}/.cache/git-build-hook/artifacts")
+    private File artifactCache;
+
+    /** Injected repository system, used to resolve hooks configured as Maven artifact coordinates. */
+    @Component
+    private RepositorySystem repositorySystem;
+
+    /** Injected repository session, used to resolve hooks configured as Maven artifact coordinates. */
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
+    private RepositorySystemSession repositorySession;
+
+    /** Injected remote repositories of the project, from which hook artifacts not already local are downloaded. */
+    @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true, required = true)
+    private List<RemoteRepository> remoteRepositories;
+
+    /** The hooks of this execution extracted from Maven artifacts, by configured location. */
+    private Map<String, HookSource> artifactHooks = Collections.emptyMap();
+
+    /** Install hooks concurrently, which is faster on file systems where each file operation is slow. */
+    @Parameter(property = "gitbuildhook.install.parallel", defaultValue = "false")
+    private boolean parallelInstall;
+
+    /** The number of threads hooks are installed with when installing in parallel. */
+    @Parameter(property = "gitbuildhook.install.threads", defaultValue = "4")
+    private int installThreads;
+
+    /** How long to wait, in milliseconds, for other builds to finish modifying the repository. */
+    @Parameter(property = "gitbuildhook.lock.timeout", defaultValue = "60000")
+    private long lockTimeout;
+
+    /** Write a JSON summary of the time spent in each goal of the plugin, in total and by module, to this file. */
+    @Parameter(property = "gitbuildhook.timings.output")
+    private File timingsFile;
+
     @Override
     public void execute() throws MojoFailureException {
+        final GoalTimer timer = GoalTimer.start(session, project, "install", timingsFile, getLog());
+        try {
+            install();
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Gets the Maven project the goal is executing for.
+     *
+     * @return the Maven project.
+     */
+    MavenProject getProject() {
+        return project;
+    }
+
+    /**
+     * Gets the current Maven session.
+     *
+     * @return the Maven session.
+     */
+    MavenSession getSession() {
+        return session;
+    }
+
+    /**
+     * Returns true if installing hooks is skipped.
+     *
+     * @return whether installing hooks is skipped.
+     */
+    boolean isSkip() {
+        return skip;
+    }
+
+    /**
+     * Gets the configured git config.
+     *
+     * @return the git config values by key, or null if none is configured.
+     */
+    Map<String, String> getGitConfig() {
+        return gitConfig;
+    }
+
+    /**
+     * Gets how long to wait, in milliseconds, for other builds to finish modifying the repository.
+     *
+     * @return the lock timeout in milliseconds.
+     */
+    long getLockTimeout() {
+        return lockTimeout;
+    }
+
+    /**
+     * Gets the file the JSON timing summary is written to.
+     *
+     * @return the timing summary file, or null if no summary is written.
+     */
+    File getTimingsFile() {
+        return timingsFile;
+    }
+
+    /**
+     * Installs the configured hooks, unless skipped.
+     *
+     * @throws MojoFailureException if any of the configured hooks could not be installed.
+     */
+    private void install() throws MojoFailureException {
         if (skip) {
             getLog().debug("Skipping");
             return;
         }
 
         // This goal requires the project to have a git repository initialized.
-        validateGitRepository(project);
-        ensureGitHooksDirectoryExists();
+        installHooks(resolveGitRepository(project));
+    }
+
+    /**
+     * Installs the configured hooks into the provided repository, unless another module of the reactor has already
+     * installed the same hooks into it.
+     *
+     * @param repository the repository to install hooks into.
+     * @throws MojoFailureException if any of the configured hooks could not be installed.
+     */
+    void installHooks(final GitRepository repository) throws MojoFailureException {
+        final InstallStrategy strategy = InstallStrategy.fromName(installStrategy);
 
-        final FileRepositoryBuilder repoBuilder =  new FileRepositoryBuilder();
-        repoBuilder.findGitDir(project.getBasedir());
-        final String hooksDirectory = repoBuilder.getGitDir().toString() + File.separator + "hooks";
+        // Hooks are shared by every worktree of the repository, so they, and the plugin's record of them, are kept in
+        // the common git directory.
+        final File gitDir = repository.getCommonDir();
+
+        // Modules of the same reactor sharing a repository and hook configuration only need to install once.
+        final ReactorRegistry registry = ReactorRegistry.of(session);
+        final String installKey = "install:" + gitDir.getAbsolutePath() + ":" + strategy.getConfigName() + ":"
+            + new TreeMap<>(installHooks) + ":" + hookGroups + ":" + new TreeMap<>(runnerHooks) + ":" + recordMetrics
+            + ":" + (hookBundle == null ? "" : hookBundle.getAbsolutePath());
+        final String moduleId = ReactorRegistry.moduleId(project);
+        if (!claimInstall(registry, installKey, moduleId, gitDir)) {
+            return;
+        }
+
+        boolean installed = false;
+        try {
+            final Path hooksDirectory = hooksDirectory(gitDir, strategy);
+            final HookAssembly assembly = assembleHooks(gitDir);
+            final Map<String, String> hooks = assembly.getHooks();
+            final Map<String, HookSource> generated = assembly.getGenerated();
 
-        for (final Map.Entry<String, String> hook : installHooks.entrySet()) {
-            final String hookName = hook.getKey();
-            if (GitHookType.isValidHookName(hookName)) {
-                installGitHook(hookName, hook.getValue(), hooksDirectory);
+            // A build in this or a sibling worktree may already have installed exactly these hooks, which is checked
+            // without resolving any artifacts or reading any hook whose fingerprint is unchanged.
+            final AppliedState applied = AppliedState.of(gitDir);
+            final String appliedKey = "install:" + hooksDirectory.toAbsolutePath();
+            final String sourceDigest = forceReinstall ? null : sourceDigest(installKey, gitDir, hooks, generated);
+            if (applied.isApplied(appliedKey, installDigest(sourceDigest, gitDir, hooksDirectory, hooks, generated))) {
+                final long unchanged = hooks.values().stream().filter(Objects::nonNull).count() + generated.size();
+                getLog().info("Installed 0 hook(s), skipped " + unchanged + " unchanged hook(s).");
+                installed = true;
+                return;
+            }
+            artifactHooks = resolveArtifactHooks(hooks.values());
+
+            final RepositoryLock lock = RepositoryLock.acquire(gitDir, lockTimeout, getLog());
+            try {
+                ensureGitHooksDirectoryExists(hooksDirectory);
+                final boolean complete = installConfiguredHooks(gitDir, hooksDirectory, strategy, assembly);
+                updateHooksPath(gitDir, strategy == InstallStrategy.HOOKS_PATH);
+                if (complete) {
+                    final String installedSources = sourceDigest != null
+                        ? sourceDigest
+                        : sourceDigest(installKey, gitDir, hooks, generated);
+                    recordApplied(applied, appliedKey, installDigest(installedSources, gitDir, hooksDirectory, hooks,
+                        generated));
+                }
+                installed = true;
+            } finally {
+                lock.close();
+            }
+        } finally {
+            if (installed) {
+                registry.complete(installKey, moduleId);
             } else {
-                throw new MojoFailureException("'" + hookName + "' is not a valid hook file name.");
+                registry.release(installKey, moduleId);
+            }
+        }
+    }
+
+    /**
+     * Claims installing the hooks for this module. If another module of the reactor has claimed it, waits for that
+     * module to finish, and claims it again if that module failed.
+     *
+     * @param registry the registry of the reactor.
+     * @param installKey identifies the hooks to install.
+     * @param moduleId the id of this module.
+     * @param gitDir the common git directory the hooks are installed into.
+     * @return true if this module must install the hooks, or false if another module has installed them.
+     * @throws MojoFailureException if interrupted, or the other module did not finish in time.
+     */
+    private boolean claimInstall(final ReactorRegistry registry, final String installKey, final String moduleId,
+                                 final File gitDir) throws MojoFailureException {
+        String installedBy = registry.claim(installKey, moduleId);
+        while (installedBy != null) {
+            getLog().debug("Waiting for module " + installedBy + " to install hooks into " + gitDir);
+            try {
+                if (registry.await(installKey, lockTimeout)) {
+                    getLog().info("Hooks already installed into " + gitDir + " by module " + installedBy + ".");
+                    return false;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoFailureException("Interrupted while waiting for module " + installedBy
+                    + " to install hooks.", e);
+            } catch (final TimeoutException e) {
+                throw new MojoFailureException("Timed out after " + lockTimeout + " ms waiting for module "
+                    + installedBy + " to install hooks into " + gitDir + ".", e);
+            }
+            installedBy = registry.claim(installKey, moduleId);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the files on the file system the configured hooks and hook group scripts are installed from, leaving out
+     * hooks installed from the class path or from Maven artifacts.
+     *
+     * @return the absolute paths of the hook source files.
+     */
+    Set<Path> hookSourceFiles() {
+        final List<String> locations = new ArrayList<>(installHooks.values());
+        for (final HookGroup group : hookGroups) {
+            locations.addAll(group.getScripts());
+        }
+        final Set<Path> files = new TreeSet<>();
+        for (final String location : locations) {
+            if (location != null && Files.isRegularFile(Paths.get(location))) {
+                files.add(Paths.get(location).toAbsolutePath().normalize());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Gets the configured hook bundle directory or archive.
+     *
+     * @return the hook bundle, or null if none is configured.
+     */
+    File getHookBundle() {
+        return hookBundle;
+    }
+
+    /**
+     * Reinstalls only the configured hooks and hook group scripts installed from the changed files, and the entries of
+     * the hook bundle if it is among or contains any of the changed files. Generated hooks, the git config and the
+     * plugin's record of the applied install are left as they are, so the next full install checks every hook again.
+     *
+     * @param repository the repository the hooks are installed into.
+     * @param changed the absolute paths of the changed files.
+     * @return the number of hooks and bundle entries written.
+     * @throws MojoFailureException if the hook configuration or the hook bundle is not valid.
+     */
+    int reinstallChangedHooks(final GitRepository repository, final Set<Path> changed) throws MojoFailureException {
+        final InstallStrategy strategy = InstallStrategy.fromName(installStrategy);
+        final File gitDir = repository.getCommonDir();
+        final Path hooksDirectory = hooksDirectory(gitDir, strategy);
+        final HookAssembly assembly = assembleHooks(gitDir);
+        final Map<String, String> hooks = assembly.getHooks();
+        final Set<String> generated = assembly.getGenerated().keySet();
+
+        final Map<String, String> changedHooks = new TreeMap<>();
+        for (final Map.Entry<String, String> hook : hooks.entrySet()) {
+            if (hook.getValue() != null && changed.contains(Paths.get(hook.getValue()).toAbsolutePath().normalize())) {
+                changedHooks.put(hook.getKey(), hook.getValue());
             }
         }
+        final Path bundle = hookBundle == null ? null : hookBundle.toPath().toAbsolutePath().normalize();
+        final boolean bundleChanged = bundle != null && changed.stream().anyMatch(path -> path.startsWith(bundle));
+        if (changedHooks.isEmpty() && !bundleChanged) {
+            return 0;
+        }
+
+        final RepositoryLock lock = RepositoryLock.acquire(gitDir, lockTimeout, getLog());
+        try {
+            ensureGitHooksDirectoryExists(hooksDirectory);
+            final HookInstaller installer = new HookInstaller(hooksDirectory,
+                gitDir.toPath().resolve(GitRepository.PLUGIN_DIRECTORY), strategy,
+                hookStore == null ? null : hookStore.toPath(), false, getLog());
+            final List<HookResult> results = installSequentially(installer, changedHooks);
+            if (bundleChanged) {
+                installBundle(installer, hooks.keySet(), generated, results);
+            }
+
+            int written = 0;
+            for (final HookResult result : results) {
+                if (result.outcome == HookInstaller.Outcome.WRITTEN) {
+                    getLog().info("Reinstalled '" + result.location + "' as " + result.hookName + ".");
+                    written++;
+                } else if (result.failure != null) {
+                    getLog().warn(result.failure, result.cause);
+                }
+            }
+            try {
+                installer.saveManifest();
+            } catch (final IOException e) {
+                getLog().warn("Could not save the hook install manifest", e);
+            }
+            return written;
+        } finally {
+            lock.close();
+        }
     }
 
     /**
-     * Create .git/hooks directory if one does not already exist.
+     * Installs each of the hooks into the provided hooks directory. Hooks are reported in the order of their names,
+     * whether or not they were installed in parallel.
      *
+     * @param gitDir the common git directory.
+     * @param hooksDirectory the directory to install hooks into.
+     * @param strategy how hooks are installed.
+     * @param assembly the hooks to install.
+     * @return whether every hook was installed or was already up to date.
+     * @throws MojoFailureException if installing in parallel and any of the hooks could not be installed.
+     */
+    private boolean installConfiguredHooks(final File gitDir, final Path hooksDirectory, final InstallStrategy strategy,
+                                           final HookAssembly assembly) throws MojoFailureException {
+        if (strategy == InstallStrategy.HARDLINK && hookStore == null) {
+            throw new MojoFailureException("The hardlink install strategy requires a hook store directory.");
+        }
+        final HookInstaller installer = new HookInstaller(hooksDirectory,
+            gitDir.toPath().resolve(GitRepository.PLUGIN_DIRECTORY), strategy,
+            hookStore == null ? null : hookStore.toPath(), forceReinstall, getLog());
+        final Map<String, String> hooks = assembly.getHooks();
+        final Map<String, HookSource> generated = assembly.getGenerated();
+        prepareScriptDirectories(installer, hooksDirectory, hooks, assembly.getGroups());
+        if (!recordMetrics) {
+            assembly.removeWrappedHooks(installer, hooksDirectory);
+        }
+        final boolean parallel = parallelInstall && installThreads > 1 && hooks.size() > 1;
+        final List<HookResult> results = parallel
+            ? installInParallel(installer, hooks)
+            : installSequentially(installer, hooks);
+        for (final Map.Entry<String, HookSource> hook : generated.entrySet()) {
+            results.add(installGeneratedHook(installer, hook.getKey(), hook.getValue()));
+        }
+        if (hookBundle != null) {
+            installBundle(installer, hooks.keySet(), generated.keySet(), results);
+        }
+
+        int written = 0;
+        int skipped = 0;
+        final List<String> failures = new ArrayList<>();
+        for (final HookResult result : results) {
+            if (result.outcome == HookInstaller.Outcome.WRITTEN) {
+                getLog().debug("Installed '" + result.location + "' as the " + result.hookName + " hook");
+                written++;
+            } else if (result.outcome == HookInstaller.Outcome.SKIPPED) {
+                skipped++;
+            } else if (result.failure != null) {
+                getLog().warn(result.failure, result.cause);
+                failures.add(result.hookName + ": " + result.failure);
+            }
+        }
+
+        try {
+            installer.saveManifest();
+        } catch (final IOException e) {
+            getLog().warn("Could not save the hook install manifest", e);
+        }
+        getLog().info("Installed " + written + " hook(s), skipped " + skipped + " unchanged hook(s).");
+        if (parallel && !failures.isEmpty()) {
+            throw new MojoFailureException(failures.size() + " hook(s) could not be installed:"
+                + System.lineSeparator() + String.join(System.lineSeparator(), failures));
+        }
+        return failures.isEmpty();
+    }
+
+    /**
+     * Computes a digest of the configuration and the content of each hook to install. The content of a hook is
+     * identified by the digest recorded in the install manifest while its fingerprint is unchanged, so only hooks that
+     * have changed are read, and a hook within a Maven artifact by the size and modification time of the artifact's jar
+     * in the local repository, so no artifact is resolved.
+     *
+     * @param installKey the configuration of the hooks to install.
+     * @param gitDir the common git directory.
+     * @param hooks the locations of the hooks to install, by hook name.
+     * @param generated the generated hooks to install, by hook name.
+     * @return the digest, or null if any hook could not be read or is within an artifact that must be resolved.
+     */
+    private String sourceDigest(final String installKey, final File gitDir, final Map<String, String> hooks,
+                                final Map<String, HookSource> generated) {
+        final List<String> parts = new ArrayList<>();
+        parts.add(installKey);
+        try {
+            final HookManifest manifest = HookManifest.load(gitDir.toPath().resolve(GitRepository.PLUGIN_DIRECTORY));
+            for (final Map.Entry<String, String> hook : hooks.entrySet()) {
+                if (hook.getValue() == null) {
+                    continue;
+                }
+                final ArtifactHookLocation artifact = ArtifactHookLocation.parse(hook.getValue());
+                final HookSource source = artifact == null ? resolveHookSource(hook.getValue()) : null;
+                final String part = artifact != null
+                    ? localArtifactFingerprint(artifact)
+                    : source == null ? null : contentDigest(manifest, hook.getKey(), source);
+                if (part == null) {
+                    return null;
+                }
+                parts.add(hook.getKey());
+                parts.add(part);
+            }
+            for (final Map.Entry<String, HookSource> hook : generated.entrySet()) {
+                parts.add(hook.getKey());
+                parts.add(contentDigest(manifest, hook.getKey(), hook.getValue()));
+            }
+        } catch (final IOException e) {
+            getLog().debug("Could not compute the digest of the hooks to install", e);
+            return null;
+        }
+        return ContentDigest.of(parts);
+    }
+
+    /**
+     * Gets the digest of the content of a hook, as recorded in the install manifest if its fingerprint is unchanged,
+     * or by reading it otherwise.
+     *
+     * @param manifest the install manifest.
+     * @param hookName the name of the hook.
+     * @param source the content of the hook.
+     * @return the digest of the content.
+     * @throws IOException if the hook could not be read.
+     */
+    private static String contentDigest(final HookManifest manifest, final String hookName, final HookSource source)
+        throws IOException {
+        final String recorded = manifest.getDigest(hookName, source.getLocation(), source.getFingerprint());
+        if (recorded != null) {
+            return recorded;
+        }
+        try (InputStream in = source.open()) {
+            return ContentDigest.of(in);
+        }
+    }
+
+    /**
+     * Gets the size and modification time of the jar of a released artifact in the local repository, without
+     * resolving it. Snapshots may be updated remotely, so are always resolved.
+     *
+     * @param location the location of a hook within the artifact.
+     * @return the fingerprint of the local jar, or null if it is a snapshot or is not in the local repository.
+     * @throws IOException if the jar could not be read.
+     */
+    private String localArtifactFingerprint(final ArtifactHookLocation location) throws IOException {
+        final DefaultArtifact jar;
+        try {
+            jar = new DefaultArtifact(location.getJarCoordinates());
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+        if (jar.isSnapshot()) {
+            return null;
+        }
+        final File file = new File(repositorySession.getLocalRepository().getBasedir(),
+            repositorySession.getLocalRepositoryManager().getPathForLocalArtifact(jar));
+        return FileFingerprint.of(file.toPath());
+    }
+
+    /**
+     * Computes a digest of everything installing the hooks depends on: the digest of the configuration and content of
+     * the hooks, the size and modification time of each installed hook, and the git config, which may point
+     * core.hooksPath at the hooks. A build in any worktree of the repository computing the same digest as the last
+     * install has nothing to do.
+     *
+     * @param sourceDigest the digest of the configuration and content of the hooks, or null if it is unknown.
+     * @param gitDir the common git directory.
+     * @param hooksDirectory the directory hooks are installed into.
+     * @param hooks the locations of the hooks to install, by hook name.
+     * @param generated the generated hooks to install, by hook name.
+     * @return the digest, or null if it could not be computed.
+     */
+    private String installDigest(final String sourceDigest, final File gitDir, final Path hooksDirectory,
+                                 final Map<String, String> hooks, final Map<String, HookSource> generated) {
+        if (sourceDigest == null) {
+            return null;
+        }
+        final List<String> parts = new ArrayList<>();
+        parts.add(sourceDigest);
+        try {
+            parts.add(FileFingerprint.of(new File(gitDir, "config").toPath()));
+            for (final Map.Entry<String, String> hook : hooks.entrySet()) {
+                if (hook.getValue() != null) {
+                    parts.add(FileFingerprint.of(hooksDirectory.resolve(hook.getKey())));
+                }
+            }
+            for (final String hookName : generated.keySet()) {
+                parts.add(FileFingerprint.of(hooksDirectory.resolve(hookName)));
+            }
+            if (hookBundle != null) {
+                new HookBundle(hookBundle.toPath()).addFingerprints(hooksDirectory, parts);
+            }
+        } catch (final IOException e) {
+            getLog().debug("Could not compute the digest of the installed hooks", e);
+            return null;
+        }
+        return ContentDigest.of(parts);
+    }
+
+    /**
+     * Records the digest of the hooks just installed, warning rather than failing if it cannot be recorded.
+     *
+     * @param applied the applied state of the repository.
+     * @param key identifies the installed hooks.
+     * @param digest the digest of the installed hooks, or null if it could not be computed.
+     */
+    private void recordApplied(final AppliedState applied, final String key, final String digest) {
+        if (digest == null) {
+            return;
+        }
+        try {
+            applied.save(key, digest);
+        } catch (final IOException e) {
+            getLog().warn("Could not record the installed hooks, they will be checked again by the next build", e);
+        }
+    }
+
+    /**
+     * Assembles the hooks to install from the configured hooks, hook groups and runner hooks, wrapping each hook Git
+     * runs when recording metrics.
+     *
+     * @param gitDir the common git directory.
+     * @return the hooks to install.
+     * @throws MojoFailureException if a hook has an invalid hook name, a runner hook has no goals, or a hook is
+     *                              configured more than once.
+     */
+    private HookAssembly assembleHooks(final File gitDir) throws MojoFailureException {
+        final HookAssembly assembly = new HookAssembly(gitDir, installHooks);
+        for (final HookGroup group : hookGroups) {
+            assembly.addGroup(group.getHook(), group.getScripts(), group.getParallelism(), group.getTimeout(),
+                group.isFailFast());
+        }
+        if (!runnerHooks.isEmpty()) {
+            // Hooks are shared by every worktree, so build the POM at the same place in whichever worktree runs it.
+            final Path pom = project.getFile().toPath().toAbsolutePath();
+            final File workTree = StagedFiles.findWorkTree(project.getBasedir());
+            final Path runnerPom = workTree != null && pom.startsWith(workTree.toPath().toAbsolutePath())
+                ? workTree.toPath().toAbsolutePath().relativize(pom)
+                : pom;
+            assembly.addRunnerHooks(runnerHooks, runnerPom, RunnerMojo.mavenExecutable());
+        }
+        if (recordMetrics) {
+            assembly.wrapForMetrics();
+        }
+        return assembly;
+    }
+
+    /**
+     * Creates the script directory of each hook group, and removes any scripts installed there by a previous build
+     * that are no longer configured.
+     *
+     * @param installer the installer hooks are installed with.
+     * @param hooksDirectory the directory hooks are installed into.
+     * @param hooks the locations of the hooks to install, by hook name.
+     * @param groups the names of the hooks installed as groups.
+     * @throws MojoFailureException if a script directory could not be created or cleaned.
+     */
+    private void prepareScriptDirectories(final HookInstaller installer, final Path hooksDirectory,
+                                          final Map<String, String> hooks, final Set<String> groups)
+        throws MojoFailureException {
+        for (final String group : groups) {
+            final String directoryName = group + HookAssembly.SCRIPTS_SUFFIX;
+            final Path directory = hooksDirectory.resolve(directoryName);
+            ensureGitHooksDirectoryExists(directory);
+            try (DirectoryStream<Path> installed = Files.newDirectoryStream(directory)) {
+                for (final Path script : installed) {
+                    final String name = directoryName + "/" + script.getFileName();
+                    if (!hooks.containsKey(name)) {
+                        getLog().debug("Removing " + name + ", which is no longer configured");
+                        installer.uninstall(name);
+                    }
+                }
+            } catch (final IOException e) {
+                throw new MojoFailureException("Could not clean up " + directory + " directory.", e);
+            }
+        }
+    }
+
+    /**
+     * Installs each hook in turn.
+     *
+     * @param installer the installer to install hooks with.
+     * @param hooks the locations of the hooks to install, by hook name.
+     * @return the result of installing each hook, in the order of the provided hooks.
+     */
+    private List<HookResult> installSequentially(final HookInstaller installer, final Map<String, String> hooks) {
+        final List<HookResult> results = new ArrayList<>();
+        for (final Map.Entry<String, String> hook : hooks.entrySet()) {
+            results.add(installGitHook(installer, hook.getKey(), hook.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Installs the hooks concurrently on a bounded pool of threads.
+     *
+     * @param installer the installer to install hooks with.
+     * @param hooks the locations of the hooks to install, by hook name.
+     * @return the result of installing each hook, in the order of the provided hooks.
+     * @throws MojoFailureException if interrupted while waiting for the hooks to be installed.
+     */
+    private List<HookResult> installInParallel(final HookInstaller installer, final Map<String, String> hooks)
+        throws MojoFailureException {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(installThreads, hooks.size()));
+        try {
+            final List<Future<HookResult>> futures = new ArrayList<>();
+            for (final Map.Entry<String, String> hook : hooks.entrySet()) {
+                futures.add(executor.submit(() -> installGitHook(installer, hook.getKey(), hook.getValue())));
+            }
+            final List<HookResult> results = new ArrayList<>();
+            for (final Future<HookResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Interrupted while installing hooks.", e);
+        } catch (final ExecutionException e) {
+            throw new MojoFailureException("Could not install hooks.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolves the jars of the Maven artifacts containing any of the provided hook locations, concurrently, and gets
+     * the hooks within them from the artifact hook cache. A hook that cannot be resolved is left out, so that it is
+     * reported as not found along with any other missing hook.
+     *
+     * @param locations the configured hook locations.
+     * @return the hooks within Maven artifacts by configured location.
+     * @throws MojoFailureException if interrupted while resolving artifacts.
+     */
+    private Map<String, HookSource> resolveArtifactHooks(final Collection<String> locations)
+        throws MojoFailureException {
+        final Map<String, List<ArtifactHookLocation>> byArtifact = new TreeMap<>();
+        for (final String location : locations) {
+            final ArtifactHookLocation parsed = location == null ? null : ArtifactHookLocation.parse(location);
+            if (parsed != null) {
+                byArtifact.computeIfAbsent(parsed.getArtifact(), artifact -> new ArrayList<>()).add(parsed);
+            }
+        }
+        if (byArtifact.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final ArtifactHookCache cache = new ArtifactHookCache(artifactCache.toPath());
+        final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(Math.max(installThreads, 1), byArtifact.size()));
+        try {
+            final List<Future<Map<String, HookSource>>> futures = new ArrayList<>();
+            for (final List<ArtifactHookLocation> artifactLocations : byArtifact.values()) {
+                futures.add(executor.submit(() -> resolveArtifactHooks(cache, artifactLocations)));
+            }
+            final Map<String, HookSource> resolved = new HashMap<>();
+            for (final Future<Map<String, HookSource>> future : futures) {
+                resolved.putAll(future.get());
+            }
+            return resolved;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Interrupted while resolving hook artifacts.", e);
+        } catch (final ExecutionException e) {
+            throw new MojoFailureException("Could not resolve hook artifacts.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Resolves the jar of a single Maven artifact and gets the hooks at the provided locations within it.
+     *
+     * @param cache the cache hooks are extracted into.
+     * @param locations the locations of hooks within the artifact.
+     * @return the hooks by configured location, or none if the artifact could not be resolved.
+     */
+    private Map<String, HookSource> resolveArtifactHooks(final ArtifactHookCache cache,
+                                                         final List<ArtifactHookLocation> locations) {
+        final String artifact = locations.get(0).getArtifact();
+        try {
+            final ArtifactRequest request = new ArtifactRequest(
+                new DefaultArtifact(locations.get(0).getJarCoordinates()), remoteRepositories, null);
+            final File jar = repositorySystem.resolveArtifact(repositorySession, request).getArtifact().getFile();
+            return cache.extract(jar.toPath(), locations);
+        } catch (final ArtifactResolutionException | IOException | IllegalArgumentException e) {
+            getLog().warn("Could not resolve hooks from the artifact " + artifact, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Resolves a configured hook location to the source of its content, whether a hook extracted from a Maven
+     * artifact, a file on the file system or a resource on the plugin's class path.
+     *
+     * @param location the configured location of the hook.
+     * @return the source of the hook, or null if the location could not be found.
+     * @throws IOException if the class path could not be searched.
+     */
+    private HookSource resolveHookSource(final String location) throws IOException {
+        final HookSource artifactHook = artifactHooks.get(location);
+        return artifactHook != null ? artifactHook : HookSources.resolve(location, this.getClass().getClassLoader());
+    }
+
+    /**
+     * Create the hooks directory if one does not already exist.
+     *
+     * @param hooksDirectory the hooks directory.
      * @throws MojoFailureException if the hooks directory could not be created.
      */
-    private void ensureGitHooksDirectoryExists() throws MojoFailureException {
-        final FileRepositoryBuilder repoBuilder =  new FileRepositoryBuilder();
-        repoBuilder.findGitDir(project.getBasedir());
-        final String hooksDirPath = repoBuilder.getGitDir().toString()
-            + File.separator
-            + "hooks";
-        final File hooksDirFile = new File(hooksDirPath);
+    private void ensureGitHooksDirectoryExists(final Path hooksDirectory) throws MojoFailureException {
+        final File hooksDirFile = hooksDirectory.toFile();
         if (!hooksDirFile.exists() && !hooksDirFile.mkdirs()) {
-            throw new MojoFailureException("Could not create .git/hooks directory.");
+            throw new MojoFailureException("Could not create " + hooksDirectory + " directory.");
+        }
+    }
+
+    /**
+     * Gets the directory hooks are installed into by the provided install strategy.
+     *
+     * @param gitDir the common git directory.
+     * @param strategy how hooks are installed.
+     * @return the hooks directory.
+     */
+    private Path hooksDirectory(final File gitDir, final InstallStrategy strategy) {
+        return strategy == InstallStrategy.HOOKS_PATH
+            ? generatedHooksDirectory(gitDir)
+            : gitDir.toPath().resolve("hooks");
+    }
+
+    /**
+     * Gets the directory of generated hooks that core.hooksPath is pointed at by the hooksPath install strategy.
+     *
+     * @param gitDir the common git directory.
+     * @return the generated hooks directory.
+     */
+    private Path generatedHooksDirectory(final File gitDir) {
+        return gitDir.toPath().toAbsolutePath().resolve(GitRepository.PLUGIN_DIRECTORY).resolve("hooks");
+    }
+
+    /**
+     * Gets the git config the configured install strategy sets, which is core.hooksPath pointing at the generated hooks
+     * directory for the hooksPath install strategy, and nothing otherwise.
+     *
+     * @param repository the repository hooks are installed into.
+     * @return the git config values by key.
+     * @throws MojoFailureException if the install strategy is not known.
+     */
+    Map<String, String> hooksPathConfig(final GitRepository repository) throws MojoFailureException {
+        if (InstallStrategy.fromName(installStrategy) != InstallStrategy.HOOKS_PATH) {
+            return Collections.emptyMap();
+        }
+        final String generated = generatedHooksDirectory(repository.getCommonDir()).toString().replace('\\', '/');
+        checkHooksPathNotConfigured(gitConfig == null ? null : gitConfig.get(HOOKS_PATH), generated, "configured");
+        return Collections.singletonMap(HOOKS_PATH, generated);
+    }
+
+    /**
+     * Fails the build if core.hooksPath is set to a directory other than the generated hooks directory, rather than
+     * overwriting it with the hooksPath install strategy and having each build switch it back and forth.
+     *
+     * @param hooksPath the value of core.hooksPath, or null if it is not set.
+     * @param generated the generated hooks directory the hooksPath install strategy sets core.hooksPath to.
+     * @param where where core.hooksPath is set, for the failure message.
+     * @throws MojoFailureException if core.hooksPath is set to another directory.
+     */
+    private static void checkHooksPathNotConfigured(final String hooksPath, final String generated, final String where)
+        throws MojoFailureException {
+        if (hooksPath != null && !hooksPath.equals(generated)) {
+            throw new MojoFailureException("Git config '" + HOOKS_PATH + "' is " + where + " as '" + hooksPath
+                + "', which conflicts with the hooksPath install strategy setting it to '" + generated + "'. Remove "
+                + HOOKS_PATH + " from the git config, or use another install strategy.");
         }
     }
 
     /**
-     * Take the file in the provided location and install it as a Git hook of the provided type.
+     * Points core.hooksPath at the generated hooks directory, or if hooks are no longer installed there, removes a
+     * core.hooksPath previously set by the plugin so that Git uses the default hooks directory again. The git config is
+     * only saved if it changes.
      *
+     * @param gitDir the common git directory.
+     * @param useGeneratedHooks whether core.hooksPath should point at the generated hooks directory.
+     * @throws MojoFailureException if the git config could not be read or saved, or sets core.hooksPath elsewhere.
+     */
+    private void updateHooksPath(final File gitDir, final boolean useGeneratedHooks) throws MojoFailureException {
+        final String generated = generatedHooksDirectory(gitDir).toString().replace('\\', '/');
+        final File configFile = new File(gitDir, "config");
+        try {
+            if (useGeneratedHooks) {
+                checkHooksPathNotConfigured(gitConfig == null ? null : gitConfig.get(HOOKS_PATH), generated,
+                    "configured");
+                checkHooksPathNotConfigured(GitConfigFiles.get(configFile, HOOKS_PATH), generated,
+                    "set in " + configFile);
+                if (!GitConfigFiles.apply(configFile, Collections.singletonMap(HOOKS_PATH, generated)).isEmpty()) {
+                    getLog().info("Git config '" + HOOKS_PATH + "' set to - " + generated);
+                }
+            } else if (GitConfigFiles.unsetIfEqual(configFile, HOOKS_PATH, generated)) {
+                getLog().info("Git config '" + HOOKS_PATH + "' unset, hooks are installed into .git/hooks.");
+            }
+        } catch (final IOException ioe) {
+            failBuildBecauseRepoCouldNotBeFound(ioe);
+        }
+    }
+
+    /**
+     * Take the file in the provided location, on the file system or the class path, and install it as a Git hook of
+     * the provided type, unless the install manifest shows that the same content is already installed. Nothing is
+     * logged, so that hooks installed in parallel can be reported in order.
+     *
+     * @param installer the installer to install the hook with.
      * @param hookName the type of hook to install.
      * @param filePath the location of the file to install as a hook.
-     * @param hooksDirectory the directory in which to install the hook.
+     * @return the result of installing the hook.
      */
-    private void installGitHook(final String hookName, final String filePath, final String hooksDirectory) {
-        if (Objects.nonNull(filePath)) {
-            final String gitHookPathStr = hooksDirectory + File.separator + hookName;
-            if (Paths.get(filePath).toFile().isFile()) {
-                copyFromFile(filePath, gitHookPathStr);
-            } else {
-                copyFromClasspath(filePath, gitHookPathStr);
+    private HookResult installGitHook(final HookInstaller installer, final String hookName, final String filePath) {
+        if (Objects.isNull(filePath)) {
+            return new HookResult(hookName, null, null, null, null);
+        }
+        try {
+            final HookSource source = resolveHookSource(filePath);
+            if (Objects.isNull(source)) {
+                return new HookResult(hookName, filePath, null, "Could not find file on filesystem or classpath", null);
             }
+            return new HookResult(hookName, filePath, installer.install(hookName, source), null, null);
+        } catch (final IOException e) {
+            return new HookResult(hookName, filePath, null,
+                "Could not install '" + filePath + "' into .git/hooks directory", e);
         }
     }
 
     /**
-     * Copies the specified file from the file system into the default hooks directory.
+     * Copies every entry of the hook bundle into the hooks directory in a single pass, skipping those whose content is
+     * already installed. An entry with the same name as a configured hook is reported as a failure rather than
+     * installed.
      *
-     * @param filePath path to the file to use as the hook.
-     * @param gitHookPathStr the location to move the file to.
+     * @param installer the installer to install the entries with.
+     * @param configured the names of the configured hooks and hook group scripts.
+     * @param generated the names of the generated hooks.
+     * @param results the results of installing hooks, to which the result of each entry is added.
+     * @throws MojoFailureException if the bundle could not be read or has an entry with an invalid name.
      */
-    private void copyFromFile(final String filePath, final String gitHookPathStr) {
+    private void installBundle(final HookInstaller installer, final Set<String> configured,
+                               final Set<String> generated, final List<HookResult> results)
+        throws MojoFailureException {
         try {
-            Files.copy(Paths.get(filePath), Paths.get(gitHookPathStr), StandardCopyOption.REPLACE_EXISTING);
+            new HookBundle(hookBundle.toPath()).forEachEntry((name, source, executable) -> {
+                if (configured.contains(name) || generated.contains(name)) {
+                    results.add(new HookResult(name, source.getLocation(), null,
+                        "The " + name + " hook is configured more than once.", null));
+                    return;
+                }
+                try {
+                    results.add(new HookResult(name, source.getLocation(), installer.copy(name, source, executable),
+                        null, null));
+                } catch (final IOException e) {
+                    results.add(new HookResult(name, source.getLocation(), null,
+                        "Could not install '" + source.getLocation() + "' into the hooks directory", e));
+                }
+            });
         } catch (final IOException e) {
-            getLog().warn("Could not move file into .git/hooks directory", e);
+            throw new MojoFailureException("Could not install the hook bundle " + hookBundle + ".", e);
         }
     }
 
     /**
-     * Copies the specified file from the classpath into the the default hooks directory.
+     * Installs a generated hook, such as the dispatcher of a hook group, unless the same content is already installed.
      *
-     * @param filePath path to the file to use as the hook.
-     * @param gitHookPathStr the location to move the file to.
+     * @param installer the installer to install the hook with.
+     * @param hookName the type of hook to install.
+     * @param source the generated hook.
+     * @return the result of installing the hook.
      */
-    private void copyFromClasspath(final String filePath, final String gitHookPathStr) {
-        final URL resource = this.getClass().getClassLoader().getResource(filePath);
-        if (Objects.isNull(resource)) {
-            getLog().warn("Could not find file on filesystem or classpath");
-        } else {
-            try {
-                final File gitHookFile = Paths.get(gitHookPathStr).toFile();
-                IOUtils.copy(resource.openStream(), new FileOutputStream(gitHookFile));
-                gitHookFile.setExecutable(true);
-            } catch (final IOException e) {
-                getLog().warn("Could not move file from classpath into .git/hooks directory", e);
-            }
+    private HookResult installGeneratedHook(final HookInstaller installer, final String hookName,
+                                            final HookSource source) {
+        try {
+            return new HookResult(hookName, source.getLocation(), installer.install(hookName, source), null, null);
+        } catch (final IOException e) {
+            return new HookResult(hookName, source.getLocation(), null,
+                "Could not install the generated " + hookName + " hook", e);
+        }
+    }
+
+    /** The result of installing a single hook. */
+    private static final class HookResult {
+
+        /** The name of the hook. */
+        private final String hookName;
+
+        /** The configured location of the hook. */
+        private final String location;
+
+        /** The outcome of installing the hook, or null if it was not installed. */
+        private final HookInstaller.Outcome outcome;
+
+        /** Why the hook could not be installed, or null if it was installed or not configured. */
+        private final String failure;
+
+        /** The exception that prevented the hook being installed, if any. */
+        private final Exception cause;
+
+        /**
+         * Constructor.
+         *
+         * @param name the name of the hook.
+         * @param configuredLocation the configured location of the hook.
+         * @param installOutcome the outcome of installing the hook, or null if it was not installed.
+         * @param failureMessage why the hook could not be installed, or null.
+         * @param failureCause the exception that prevented the hook being installed, if any.
+         */
+        HookResult(final String name, final String configuredLocation, final HookInstaller.Outcome installOutcome,
+                   final String failureMessage, final Exception failureCause) {
+            hookName = name;
+            location = configuredLocation;
+            outcome = installOutcome;
+            failure = failureMessage;
+            cause = failureCause;
         }
     }
 }
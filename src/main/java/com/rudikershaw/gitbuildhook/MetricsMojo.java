@@ -0,0 +1,80 @@
+package com.rudikershaw.gitbuildhook;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+import com.rudikershaw.gitbuildhook.metrics.HookMetrics;
+import com.rudikershaw.gitbuildhook.metrics.HookTimings;
+import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
+
+/**
+ * Mojo for summarising the runs of hooks installed with metrics enabled. Logs the median, 95th percentile and longest
+ * duration of each type of hook, and writes them in the Prometheus text format for the node exporter's textfile
+ * collector.
+ */
+@Mojo(name = "metrics", aggregator = true, threadSafe = true)
+public class MetricsMojo extends AbstractMojo implements GitRepositoryValidator {
+
+    /** The format of each row of the logged summary. */
+    private static final String ROW = "%-24s %8s %8s %10s %10s %10s";
+
+    /** Injected MavenProject containing project related information such as base directory. */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /** The file the summary is written to in the Prometheus text format. */
+    @Parameter(property = "gitbuildhook.metrics.output",
+        defaultValue = "${project.build.directory}/git-build-hook/hook-metrics.prom")
+    private File outputFile;
+
+    @Override
+    public void execute() throws MojoFailureException {
+        final File gitDir = resolveGitRepository(project).getCommonDir();
+        final Path metricsFile = HookMetrics.locate(gitDir);
+        final Map<GitHookType, HookTimings> timings;
+        try {
+            timings = HookMetrics.summarise(metricsFile);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Could not read " + metricsFile + ".", e);
+        }
+        if (timings.isEmpty()) {
+            getLog().info("No hook runs have been recorded in " + metricsFile
+                + ". Install hooks with -Dgitbuildhook.install.metrics=true to record them.");
+        } else {
+            getLog().info(String.format(Locale.ROOT, ROW, "Hook", "Runs", "Failed", "p50", "p95", "max"));
+            for (final Map.Entry<GitHookType, HookTimings> entry : timings.entrySet()) {
+                final HookTimings timing = entry.getValue();
+                getLog().info(String.format(Locale.ROOT, ROW, entry.getKey().getHookFileName(), timing.getCount(),
+                    timing.getFailures(), seconds(timing.getPercentileMillis(HookMetrics.P50)),
+                    seconds(timing.getPercentileMillis(HookMetrics.P95)), seconds(timing.getMaxMillis())));
+            }
+        }
+
+        try {
+            HookMetrics.writePrometheus(timings, outputFile.toPath());
+        } catch (final IOException e) {
+            throw new MojoFailureException("Could not write the hook metrics to " + outputFile + ".", e);
+        }
+        getLog().info("Wrote the hook metrics to " + outputFile + ".");
+    }
+
+    /**
+     * Formats a duration for the logged summary.
+     *
+     * @param millis the duration in milliseconds.
+     * @return the duration in seconds.
+     */
+    private static String seconds(final long millis) {
+        return HookMetrics.seconds(millis) + "s";
+    }
+}
@@ -0,0 +1,254 @@
+package com.rudikershaw.gitbuildhook;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.Maven;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.LegacySupport;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.runner.RunnerClient;
+import com.rudikershaw.gitbuildhook.runner.RunnerFile;
+import com.rudikershaw.gitbuildhook.runner.RunnerRequest;
+import com.rudikershaw.gitbuildhook.runner.RunnerServer;
+import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
+
+/**
+ * Mojo for starting a long-lived runner, which runs the builds of hooks installed with runnerHooks in a warm JVM
+ * rather than starting a new Maven process for every hook.
+ */
+@Mojo(name = "runner", aggregator = true, threadSafe = true)
+public class RunnerMojo extends AbstractMojo implements GitRepositoryValidator {
+
+    /** The prefix of the user properties configuring the runner, which are not passed on to the builds it runs. */
+    private static final String PROPERTY_PREFIX = "gitbuildhook.runner.";
+
+    /** How long, in milliseconds, to wait for a forked runner to start listening. */
+    private static final long START_TIMEOUT_MILLIS = 120000;
+
+    /** How long, in milliseconds, to wait between checks on whether a forked runner has started listening. */
+    private static final long START_POLL_MILLIS = 100;
+
+    /** Injected MavenProject containing project related information such as base directory. */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /** Injected MavenSession, from which the builds run by the runner are configured. */
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /** Injected descriptor of this plugin, used to run the runner goal in a forked Maven process. */
+    @Parameter(defaultValue = "${plugin}", readonly = true, required = true)
+    private PluginDescriptor plugin;
+
+    /** Runs the builds of hooks within the runner. */
+    @Component
+    private Maven maven;
+
+    /** Restored to the runner's own session after each build the runner runs. */
+    @Component
+    private LegacySupport legacySupport;
+
+    /** How long, in seconds, the runner waits for a hook to run before stopping. Zero waits forever. */
+    @Parameter(property = "gitbuildhook.runner.idleTimeout", defaultValue = "1800")
+    private int idleTimeout;
+
+    /**
+     * Start the runner in a new Maven process in the background, writing its output to runner.log in the plugin's
+     * directory within the git directory. Otherwise the runner runs in this build until it stops.
+     */
+    @Parameter(property = "gitbuildhook.runner.fork", defaultValue = "true")
+    private boolean fork;
+
+    /** Stop the runner listening for hooks of this repository, rather than starting one. */
+    @Parameter(property = "gitbuildhook.runner.stop", defaultValue = "false")
+    private boolean stop;
+
+    /** The file the runner's output is written to, which is streamed back to hooks. Set by a forking runner. */
+    @Parameter(property = "gitbuildhook.runner.log")
+    private File logFile;
+
+    @Override
+    public void execute() throws MojoFailureException {
+        final File gitDir = resolveGitRepository(project).getCommonDir();
+        final Path runnerFile = RunnerFile.locate(gitDir);
+        if (stop) {
+            if (RunnerClient.stop(runnerFile)) {
+                getLog().info("Stopped the runner for " + gitDir + ".");
+            } else {
+                getLog().info("No runner is running for " + gitDir + ".");
+            }
+            return;
+        }
+        if (RunnerClient.ping(runnerFile)) {
+            getLog().info("A runner is already running for " + gitDir + ".");
+            return;
+        }
+
+        if (fork) {
+            forkRunner(gitDir, runnerFile);
+        } else {
+            serve(gitDir, runnerFile);
+        }
+    }
+
+    /**
+     * Starts the runner in a new Maven process, and waits for it to start listening for hooks.
+     *
+     * @param gitDir the git directory.
+     * @param runnerFile the location of the runner file.
+     * @throws MojoFailureException if the runner could not be started.
+     */
+    private void forkRunner(final File gitDir, final Path runnerFile) throws MojoFailureException {
+        final Path pluginDirectory = gitDir.toPath().toAbsolutePath().resolve(GitRepository.PLUGIN_DIRECTORY);
+        final Path output = pluginDirectory.resolve("runner.log");
+        final List<String> command = new ArrayList<>();
+        command.add(mavenExecutable());
+        command.add("-B");
+        command.add("-f");
+        command.add(project.getFile().getAbsolutePath());
+        final MavenExecutionRequest request = session.getRequest();
+        if (request.isOffline()) {
+            command.add("-o");
+        }
+        if (request.getLocalRepositoryPath() != null) {
+            command.add("-Dmaven.repo.local=" + request.getLocalRepositoryPath().getAbsolutePath());
+        }
+        if (request.getUserSettingsFile() != null && request.getUserSettingsFile().isFile()) {
+            command.add("-s");
+            command.add(request.getUserSettingsFile().getAbsolutePath());
+        }
+        if (!request.getActiveProfiles().isEmpty()) {
+            command.add("-P");
+            command.add(String.join(",", request.getActiveProfiles()));
+        }
+        command.add(plugin.getGroupId() + ":" + plugin.getArtifactId() + ":" + plugin.getVersion() + ":runner");
+        command.add("-D" + PROPERTY_PREFIX + "fork=false");
+        command.add("-D" + PROPERTY_PREFIX + "idleTimeout=" + idleTimeout);
+        command.add("-D" + PROPERTY_PREFIX + "log=" + output);
+
+        try {
+            Files.createDirectories(pluginDirectory);
+            final Process process = new ProcessBuilder(command)
+                .directory(project.getBasedir())
+                .redirectErrorStream(true)
+                .redirectOutput(output.toFile())
+                .start();
+            process.getOutputStream().close();
+            final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(START_TIMEOUT_MILLIS);
+            while (!RunnerClient.ping(runnerFile)) {
+                if (!process.isAlive() || System.nanoTime() - deadline > 0) {
+                    process.destroy();
+                    throw new MojoFailureException("The runner could not be started, see " + output + ".");
+                }
+                Thread.sleep(START_POLL_MILLIS);
+            }
+        } catch (final IOException e) {
+            throw new MojoFailureException("The runner could not be started with " + command.get(0) + ".", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Interrupted while starting the runner.", e);
+        }
+        getLog().info("Started the runner for " + gitDir + ", writing its output to " + output + ".");
+    }
+
+    /**
+     * Runs the runner in this build, serving hooks until it stops.
+     *
+     * @param gitDir the git directory.
+     * @param runnerFile the location of the runner file.
+     * @throws MojoFailureException if the runner could not listen for hooks.
+     */
+    private void serve(final File gitDir, final Path runnerFile) throws MojoFailureException {
+        final Path output = logFile == null ? null : logFile.toPath();
+        try (RunnerServer server = RunnerServer.start(runnerFile, output, this::runHookBuild, getLog())) {
+            getLog().info("The runner for " + gitDir + " is listening on port " + server.getPort() + ".");
+            server.serve(TimeUnit.SECONDS.toMillis(idleTimeout));
+        } catch (final IOException e) {
+            throw new MojoFailureException("The runner could not listen for hooks.", e);
+        }
+    }
+
+    /**
+     * Runs the build requested by a hook within this JVM, as a new build configured like the runner's own.
+     *
+     * @param hook the request of the hook.
+     * @return the exit code of the build, which is 1 if it failed.
+     */
+    private int runHookBuild(final RunnerRequest hook) {
+        final MavenExecutionRequest request = DefaultMavenExecutionRequest.copy(session.getRequest());
+        final Properties userProperties = new Properties();
+        for (final String name : session.getRequest().getUserProperties().stringPropertyNames()) {
+            if (!name.startsWith(PROPERTY_PREFIX)) {
+                userProperties.setProperty(name, session.getRequest().getUserProperties().getProperty(name));
+            }
+        }
+        final List<String> goals = new ArrayList<>();
+        for (final String goal : hook.getGoals()) {
+            if (goal.startsWith("-D")) {
+                final int equals = goal.indexOf('=');
+                userProperties.setProperty(equals < 0 ? goal.substring(2) : goal.substring(2, equals),
+                    equals < 0 ? "true" : goal.substring(equals + 1));
+            } else {
+                goals.add(goal);
+            }
+        }
+        userProperties.setProperty("gitbuildhook.hook.name", hook.getHookName());
+        userProperties.setProperty("gitbuildhook.hook.args", String.join(" ", hook.getArgs()));
+        for (int i = 0; i < hook.getArgs().size(); i++) {
+            userProperties.setProperty("gitbuildhook.hook.arg." + (i + 1), hook.getArgs().get(i));
+        }
+        userProperties.setProperty("gitbuildhook.hook.stdin", new String(hook.getStdin(), StandardCharsets.UTF_8));
+
+        final File pom = new File(hook.getPom());
+        request.setGoals(goals);
+        request.setUserProperties(userProperties);
+        request.setPom(pom);
+        request.setBaseDirectory(pom.getAbsoluteFile().getParentFile());
+        request.setStartTime(new Date());
+        getLog().info("Running " + String.join(" ", hook.getGoals()) + " for the " + hook.getHookName() + " hook.");
+        try {
+            final MavenExecutionResult result = maven.execute(request);
+            return result.hasExceptions() ? 1 : 0;
+        } finally {
+            legacySupport.setSession(session);
+        }
+    }
+
+    /**
+     * Gets the Maven executable of the installation running this build.
+     *
+     * @return the path of the Maven executable, or mvn if the installation is unknown.
+     */
+    static String mavenExecutable() {
+        final String mavenHome = System.getProperty("maven.home");
+        final boolean windows = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+        if (mavenHome != null) {
+            final File executable = new File(mavenHome, "bin/" + (windows ? "mvn.cmd" : "mvn"));
+            if (executable.isFile()) {
+                return executable.getAbsolutePath();
+            }
+        }
+        return "mvn";
+    }
+}
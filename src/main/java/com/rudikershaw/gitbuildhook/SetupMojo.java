@@ -0,0 +1,111 @@
+package com.rudikershaw.gitbuildhook;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.rudikershaw.gitbuildhook.config.GitConfigApplier;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.threadsafety.RepositoryLock;
+import com.rudikershaw.gitbuildhook.timing.GoalTimer;
+
+/**
+ * Mojo initialising a Git repository if one does not already exist, setting the configured git config and installing
+ * the configured hooks, as the initialize, configure and install goals do, in a single pass over the repository. The
+ * repository is resolved once and locked once for the whole pass, and for the hooksPath install strategy core.hooksPath
+ * is set along with the rest of the git config, so that the git config is saved at most once. Each step is skipped by
+ * the same property that skips its own goal.
+ */
+@Mojo(name = "setup", defaultPhase = LifecyclePhase.INITIALIZE, threadSafe = true)
+public class SetupMojo extends InstallMojo {
+
+    /**
+     * Set the git config in the per-worktree config file, config.worktree, rather than in the config shared by every
+     * worktree of the repository. Enables extensions.worktreeConfig in the shared config so that Git reads it.
+     */
+    @Parameter(property = "gitbuildhook.gitconfig.worktree", defaultValue = "false")
+    private boolean worktreeConfig;
+
+    /**
+     * Write the git config to an include file of its own in the plugin's directory, which the repository's config
+     * includes, rather than setting it in the repository's config. The include file holds exactly the configured git
+     * config, so removing a value from the configuration removes it from the repository, and the repository's config
+     * is only changed once, to include the file.
+     */
+    @Parameter(property = "gitbuildhook.gitconfig.include", defaultValue = "false")
+    private boolean includeConfig;
+
+    /** Skip initialising the git repo. */
+    @Parameter(property = "gitbuildhook.init.skip", defaultValue = "false")
+    private boolean skipInitialise;
+
+    /** Skip specifying custom git config settings. */
+    @Parameter(property = "gitbuildhook.gitconfig.skip", defaultValue = "false")
+    private boolean skipConfigure;
+
+    @Override
+    public void execute() throws MojoFailureException {
+        final GoalTimer timer = GoalTimer.start(getSession(), getProject(), "setup", getTimingsFile(), getLog());
+        try {
+            setup();
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Initialises the repository, sets the git config and installs the hooks, skipping any step that is skipped.
+     *
+     * @throws MojoFailureException if the repository could not be initialised or configured, or hooks installed.
+     */
+    private void setup() throws MojoFailureException {
+        if (!skipInitialise && !isGitRepoInitialised(getProject())) {
+            InitialiseMojo.initialiseGitRepository(getProject().getBasedir(), getLockTimeout(), getLog());
+        }
+        if (skipConfigure && isSkip()) {
+            getLog().debug("Skipping");
+            return;
+        }
+
+        // Configuring and installing require the project to have a git repository initialized.
+        final GitRepository repository = resolveGitRepository(getProject());
+        final RepositoryLock lock = RepositoryLock.acquire(repository.getCommonDir(), getLockTimeout(), getLog());
+        try {
+            if (!skipConfigure) {
+                configure(repository);
+            }
+            if (!isSkip()) {
+                installHooks(repository);
+            }
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Applies the configured git config to the repository, along with any git config the install strategy sets when
+     * it is kept in the same config file.
+     *
+     * @param repository the repository to configure.
+     * @throws MojoFailureException if the config could not be read or saved.
+     */
+    private void configure(final GitRepository repository) throws MojoFailureException {
+        final Map<String, String> required = new TreeMap<>();
+        if (getGitConfig() != null) {
+            required.putAll(getGitConfig());
+        }
+        if (!isSkip() && !worktreeConfig) {
+            required.putAll(hooksPathConfig(repository));
+        }
+        try {
+            new GitConfigApplier(worktreeConfig, includeConfig, getLockTimeout(), getLog()).apply(repository, required);
+        } catch (final IOException ioe) {
+            failBuildBecauseRepoCouldNotBeFound(ioe);
+        }
+    }
+}
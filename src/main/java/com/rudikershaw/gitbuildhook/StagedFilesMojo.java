@@ -0,0 +1,127 @@
+package com.rudikershaw.gitbuildhook;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import com.rudikershaw.gitbuildhook.reactor.ReactorRegistry;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.staged.StagedFiles;
+import com.rudikershaw.gitbuildhook.timing.GoalTimer;
+import com.rudikershaw.gitbuildhook.validation.GitRepositoryValidator;
+
+/**
+ * Mojo for publishing the files staged in the Git index within each module, so that other plugins run by a hook build
+ * can process only the files being committed. The index is read once per repository and shared by every module.
+ */
+@Mojo(name = "staged-files", defaultPhase = LifecyclePhase.INITIALIZE, threadSafe = true)
+public class StagedFilesMojo extends AbstractMojo implements GitRepositoryValidator {
+
+    /** Injected MavenProject containing project related information such as base directory. */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /** Injected MavenSession, used to share the staged files between the modules of the reactor. */
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    /** Skip publishing the staged files. */
+    @Parameter(property = "gitbuildhook.stagedFiles.skip", defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * The project property the module's staged files are published as, separated by commas and relative to the
+     * module's base directory. Their number is published as the same property with a .count suffix.
+     */
+    @Parameter(property = "gitbuildhook.stagedFiles.property", defaultValue = "gitbuildhook.stagedFiles")
+    private String propertyName;
+
+    /** The file the absolute paths of the module's staged files are written to, one per line. */
+    @Parameter(property = "gitbuildhook.stagedFiles.output",
+        defaultValue = "${project.build.directory}/git-build-hook/staged-files.txt")
+    private File outputFile;
+
+    /** Include files whose deletion is staged, which no longer exist in the work tree. */
+    @Parameter(property = "gitbuildhook.stagedFiles.includeDeleted", defaultValue = "false")
+    private boolean includeDeleted;
+
+    /** Write a JSON summary of the time spent in each goal of the plugin, in total and by module, to this file. */
+    @Parameter(property = "gitbuildhook.timings.output")
+    private File timingsFile;
+
+    @Override
+    public void execute() throws MojoFailureException {
+        final GoalTimer timer = GoalTimer.start(session, project, "staged-files", timingsFile, getLog());
+        try {
+            publish();
+        } finally {
+            timer.close();
+        }
+    }
+
+    /**
+     * Publishes the staged files of the module, unless skipped.
+     *
+     * @throws MojoFailureException if the staged files could not be read or written.
+     */
+    private void publish() throws MojoFailureException {
+        if (skip) {
+            getLog().debug("Skipping");
+            return;
+        }
+
+        final GitRepository repository = resolveGitRepository(project);
+        final File gitDir = repository.getGitDir();
+        final File indexFile = repository.getIndexFile();
+        final File workTree = StagedFiles.findWorkTree(project.getBasedir());
+        if (workTree == null) {
+            throw new MojoFailureException("Could not find the work tree containing " + project.getBasedir() + ".");
+        }
+
+        final StagedFiles staged;
+        try {
+            staged = ReactorRegistry.of(session).getShared(
+                "staged:" + indexFile.getAbsolutePath() + ":" + includeDeleted, StagedFiles.class, () -> {
+                    try {
+                        return StagedFiles.read(gitDir, repository.getCommonDir(), indexFile, workTree,
+                            includeDeleted);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        } catch (final UncheckedIOException e) {
+            throw new MojoFailureException("Could not read the files staged in " + gitDir + ".", e.getCause());
+        }
+
+        final List<String> paths = staged.within(project.getBasedir());
+        project.getProperties().setProperty(propertyName, String.join(",", paths));
+        project.getProperties().setProperty(propertyName + ".count", Integer.toString(paths.size()));
+
+        final List<String> lines = new ArrayList<>(paths.size());
+        for (final String path : paths) {
+            lines.add(new File(project.getBasedir(), path).getAbsolutePath());
+        }
+        try {
+            final File outputDirectory = outputFile.getAbsoluteFile().getParentFile();
+            if (outputDirectory != null) {
+                Files.createDirectories(outputDirectory.toPath());
+            }
+            Files.write(outputFile.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Could not write the staged files to " + outputFile + ".", e);
+        }
+        getLog().info(paths.size() + " of " + staged.size() + " staged file(s) are in this module.");
+    }
+}
@@ -0,0 +1,101 @@
+package com.rudikershaw.gitbuildhook;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import com.rudikershaw.gitbuildhook.hook.install.HookSourceWatcher;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+
+/**
+ * Mojo installing the configured hooks, as the install goal does, then watching the files they are installed from and
+ * reinstalling only the hooks whose files change, until the build is stopped. Hooks installed from the class path or
+ * from Maven artifacts are not watched. Changes to the POM, such as to the configured hooks or git config, are only
+ * applied by restarting the goal.
+ */
+@Mojo(name = "watch", threadSafe = true)
+public class WatchMojo extends InstallMojo {
+
+    /** How long, in milliseconds, to wait for a burst of changes, such as an editor saving a file, to settle. */
+    @Parameter(property = "gitbuildhook.watch.debounce", defaultValue = "100")
+    private long debounce;
+
+    /** How long, in seconds, to watch for changes before stopping. Zero watches until the build is stopped. */
+    @Parameter(property = "gitbuildhook.watch.timeout", defaultValue = "0")
+    private int timeout;
+
+    @Override
+    public void execute() throws MojoFailureException {
+        if (isSkip()) {
+            getLog().debug("Skipping");
+            return;
+        }
+
+        // This goal requires the project to have a git repository initialized.
+        final GitRepository repository = resolveGitRepository(getProject());
+        installHooks(repository);
+        try (HookSourceWatcher watcher = new HookSourceWatcher(debounce)) {
+            final Set<Path> sources = hookSourceFiles();
+            for (final Path source : sources) {
+                watcher.watchFile(source);
+            }
+            final File bundle = getHookBundle();
+            if (bundle != null && bundle.isDirectory()) {
+                watcher.watchTree(bundle.toPath());
+            } else if (bundle != null) {
+                watcher.watchFile(bundle.toPath());
+            }
+            final Path pom = getProject().getFile().toPath().toAbsolutePath().normalize();
+            watcher.watchFile(pom);
+            getLog().info("Watching " + sources.size() + " hook file(s)" + (bundle == null ? "" : " and " + bundle)
+                + " for changes.");
+            watch(repository, watcher, pom);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Could not watch the hook files for changes.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            getLog().info("Stopped watching the hook files for changes.");
+        }
+    }
+
+    /**
+     * Reinstalls the hooks whose files change, until the timeout if there is one.
+     *
+     * @param repository the repository the hooks are installed into.
+     * @param watcher the watcher of the hook files.
+     * @param pom the POM of the project, which is watched to warn that changes to it require a restart.
+     * @throws IOException if the hook files could not be watched.
+     * @throws InterruptedException if interrupted while waiting for changes.
+     */
+    private void watch(final GitRepository repository, final HookSourceWatcher watcher, final Path pom)
+        throws IOException, InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        while (true) {
+            final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (timeout > 0 && remaining <= 0) {
+                getLog().info("Stopped watching the hook files for changes after " + timeout + " second(s).");
+                return;
+            }
+            final Set<Path> changed = watcher.awaitChanges(timeout > 0 ? remaining : 0);
+            if (changed.remove(pom)) {
+                getLog().warn(pom + " has changed, restart the watch goal to apply changes to its configuration.");
+            }
+            if (!changed.isEmpty()) {
+                final long start = System.nanoTime();
+                try {
+                    final int written = reinstallChangedHooks(repository, changed);
+                    getLog().info("Reinstalled " + written + " hook(s) in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+                } catch (final MojoFailureException e) {
+                    getLog().warn(e.getMessage(), e.getCause());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.rudikershaw.gitbuildhook.config;
+
+/** What to do when modules of the same reactor configure different values for the same git config key. */
+public enum ConfigConflictPolicy {
+
+    /** Fail the build. */
+    FAIL,
+
+    /** Warn, and use the value from the module that comes first in the reactor build order. */
+    WARN
+}
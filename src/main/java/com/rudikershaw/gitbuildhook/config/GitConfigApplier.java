@@ -0,0 +1,226 @@
+package com.rudikershaw.gitbuildhook.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+import com.rudikershaw.gitbuildhook.files.ContentDigest;
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+import com.rudikershaw.gitbuildhook.repository.AppliedState;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.threadsafety.RepositoryLock;
+
+/**
+ * Applies git config values to a repository, saving the config only if any value has changed. The config shared by
+ * every worktree is kept in the common git directory, so a build in a sibling worktree that has already applied the
+ * same values is recognised from the repository's applied state without reading the config. Values are either set in
+ * the repository's config itself, or written to an include file of their own that the repository's config includes.
+ */
+public final class GitConfigApplier {
+
+    /** The path of the include file, relative to the directory of the config file including it. */
+    public static final String INCLUDE_PATH = GitRepository.PLUGIN_DIRECTORY + "/gitconfig";
+
+    /**
+     * The path of the file recording the values set in the config itself, relative to the directory of the config
+     * file, so that they can be removed from it once written to the include file instead.
+     */
+    private static final String RECORD_PATH = GitRepository.PLUGIN_DIRECTORY + "/applied-gitconfig";
+
+    /** Whether values are set in the worktree's own config.worktree file rather than the shared config. */
+    private final boolean worktreeConfig;
+
+    /** Whether values are written to an include file rather than set in the config itself. */
+    private final boolean includeConfig;
+
+    /** How long to wait, in milliseconds, for other builds to finish modifying the repository. */
+    private final long lockTimeout;
+
+    /** The log to report changed values to. */
+    private final Log log;
+
+    /**
+     * Constructor.
+     *
+     * @param perWorktree whether to set values in the worktree's own config.worktree file.
+     * @param include whether to write values to an include file rather than set them in the config itself.
+     * @param lockTimeoutMillis how long to wait, in milliseconds, for the repository lock.
+     * @param applierLog the log to report changed values to.
+     */
+    public GitConfigApplier(final boolean perWorktree, final boolean include, final long lockTimeoutMillis,
+                            final Log applierLog) {
+        worktreeConfig = perWorktree;
+        includeConfig = include;
+        lockTimeout = lockTimeoutMillis;
+        log = applierLog;
+    }
+
+    /**
+     * Applies git config values to the repository, unless the repository's applied state shows the same values were
+     * applied to the same config files already. When writing an include file, the file holds exactly the provided
+     * values, so any value no longer provided is removed, and the config is only changed to include the file once.
+     * Values set in the config itself by previous builds are then removed from it, unless changed since. Otherwise any
+     * include file left by a previous build is no longer included, and the values set are recorded.
+     *
+     * @param repository the repository to configure.
+     * @param required the required values by git config key.
+     * @throws IOException if the config could not be read or saved.
+     * @throws MojoFailureException if the config is invalid or the repository could not be locked.
+     */
+    public void apply(final GitRepository repository, final Map<String, String> required)
+        throws IOException, MojoFailureException {
+        final File commonDir = repository.getCommonDir();
+        final File configFile = worktreeConfig
+            ? new File(repository.getGitDir(), "config.worktree")
+            : new File(commonDir, "config");
+        final File includeFile = new File(configFile.getParentFile(), INCLUDE_PATH);
+        final File recordFile = new File(configFile.getParentFile(), RECORD_PATH);
+        final AppliedState applied = AppliedState.of(commonDir);
+        final String appliedKey = "configure:" + configFile.getAbsolutePath();
+        if (applied.isApplied(appliedKey, configDigest(commonDir, configFile, includeFile, required))) {
+            log.info("Git config 0 value(s) changed, " + required.size() + " unchanged.");
+            return;
+        }
+
+        final RepositoryLock lock = RepositoryLock.acquire(commonDir, lockTimeout, log);
+        try {
+            if (worktreeConfig) {
+                enableWorktreeConfig(commonDir);
+            }
+            final GitConfigDelta delta;
+            if (includeConfig) {
+                // Write the include file first, so that Git never includes a file that does not exist yet.
+                delta = GitConfigFiles.replace(includeFile, required);
+                removeRecordedValues(configFile, recordFile);
+                if (GitConfigFiles.addInclude(configFile, INCLUDE_PATH)) {
+                    log.info("Git config 'include.path' set to - " + INCLUDE_PATH);
+                }
+            } else {
+                // Stop including the include file first, so that its values are not mistaken for values already set.
+                removeIncludeFile(configFile, includeFile);
+                delta = GitConfigFiles.apply(configFile, required);
+                Files.createDirectories(recordFile.getParentFile().toPath());
+                GitConfigFiles.apply(recordFile, required);
+            }
+            for (final Map.Entry<String, String> entry : delta.getChanged().entrySet()) {
+                log.info("Git config '" + entry.getKey() + "' set to - " + entry.getValue());
+            }
+            for (final String key : delta.getRemoved()) {
+                log.info("Git config '" + key + "' removed.");
+            }
+            log.info("Git config " + delta.getChanged().size() + " value(s) changed, "
+                + delta.getUnchangedCount() + " unchanged.");
+            recordApplied(applied, appliedKey, configDigest(commonDir, configFile, includeFile, required));
+        } finally {
+            lock.close();
+        }
+    }
+
+    /**
+     * Stops including the include file written by a previous build, if it is included, and deletes it.
+     *
+     * @param configFile the config file the include file was included by.
+     * @param includeFile the include file.
+     * @throws IOException if the config could not be read or saved, or the include file deleted.
+     * @throws MojoFailureException if the config is invalid.
+     */
+    private void removeIncludeFile(final File configFile, final File includeFile)
+        throws IOException, MojoFailureException {
+        if (!includeFile.exists()) {
+            return;
+        }
+        if (GitConfigFiles.removeInclude(configFile, INCLUDE_PATH)) {
+            log.info("Git config 'include.path' " + INCLUDE_PATH + " removed.");
+        }
+        Files.delete(includeFile.toPath());
+    }
+
+    /**
+     * Removes the values set in the config itself by previous builds, unless changed since, and the record of them, so
+     * that values no longer required do not outlive the switch to an include file.
+     *
+     * @param configFile the config file the values were set in.
+     * @param recordFile the file recording the values set.
+     * @throws IOException if the config could not be read or saved, or the record deleted.
+     * @throws MojoFailureException if the config or the record is invalid.
+     */
+    private void removeRecordedValues(final File configFile, final File recordFile)
+        throws IOException, MojoFailureException {
+        if (!recordFile.exists()) {
+            return;
+        }
+        for (final String key : GitConfigFiles.unsetRecorded(configFile, recordFile)) {
+            log.info("Git config '" + key + "' removed from " + configFile.getName() + ", it is now included.");
+        }
+        Files.delete(recordFile.toPath());
+    }
+
+    /**
+     * Enables extensions.worktreeConfig in the config shared by every worktree, unless already enabled, so that Git
+     * reads the config.worktree file of each worktree.
+     *
+     * @param commonDir the common git directory.
+     * @throws IOException if the shared config could not be read or saved.
+     * @throws MojoFailureException if the shared config is invalid.
+     */
+    private void enableWorktreeConfig(final File commonDir) throws IOException, MojoFailureException {
+        if (GitConfigFiles.enable(new File(commonDir, "config"), "extensions.worktreeConfig")) {
+            log.info("Git config 'extensions.worktreeConfig' set to - true");
+        }
+    }
+
+    /**
+     * Computes a digest of the required values, whether they are written to an include file, and the size and
+     * modification time of the config files they are applied to. A build in any worktree computing the same digest as
+     * was recorded after config was last applied has nothing to do.
+     *
+     * @param commonDir the common git directory.
+     * @param configFile the config file the values are set in, or that includes the include file.
+     * @param includeFile the include file.
+     * @param required the required values by git config key.
+     * @return the digest, or null if the config files could not be read.
+     */
+    private String configDigest(final File commonDir, final File configFile, final File includeFile,
+                                final Map<String, String> required) {
+        final List<String> parts = new ArrayList<>();
+        try {
+            parts.add(FileFingerprint.of(configFile.toPath()));
+            parts.add(worktreeConfig ? FileFingerprint.of(new File(commonDir, "config").toPath()) : null);
+            parts.add(String.valueOf(includeConfig));
+            parts.add(FileFingerprint.of(includeFile.toPath()));
+        } catch (final IOException e) {
+            log.debug("Could not read the git config files", e);
+            return null;
+        }
+        for (final Map.Entry<String, String> entry : new TreeMap<>(required).entrySet()) {
+            parts.add(entry.getKey());
+            parts.add(entry.getValue());
+        }
+        return ContentDigest.of(parts);
+    }
+
+    /**
+     * Records the digest of the config just applied, warning rather than failing if it cannot be recorded.
+     *
+     * @param applied the applied state of the repository.
+     * @param key identifies the config file.
+     * @param digest the digest of the applied config, or null if it could not be computed.
+     */
+    private void recordApplied(final AppliedState applied, final String key, final String digest) {
+        if (digest == null) {
+            return;
+        }
+        try {
+            applied.save(key, digest);
+        } catch (final IOException e) {
+            log.warn("Could not record the applied git config, it will be checked again by the next build", e);
+        }
+    }
+}
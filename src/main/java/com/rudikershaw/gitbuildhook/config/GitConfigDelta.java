@@ -0,0 +1,196 @@
+package com.rudikershaw.gitbuildhook.config;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.eclipse.jgit.lib.Config;
+
+/**
+ * The difference between the git config values a build requires and those already set in a repository's config.
+ * Applying only the difference means an unchanged config file need never be rewritten.
+ */
+public final class GitConfigDelta {
+
+    /** The entries whose value needs to change, by git config key. */
+    private final Map<String, String> changed;
+
+    /** The number of entries already set to the required value. */
+    private final int unchanged;
+
+    /** The keys set in the current config that are not required, when the config is replaced as a whole. */
+    private final Set<String> removed;
+
+    /**
+     * Constructor.
+     *
+     * @param changedEntries the entries whose value needs to change.
+     * @param unchangedCount the number of entries already set to the required value.
+     * @param removedKeys the keys that need to be removed.
+     */
+    private GitConfigDelta(final Map<String, String> changedEntries, final int unchangedCount,
+                           final Set<String> removedKeys) {
+        changed = changedEntries;
+        unchanged = unchangedCount;
+        removed = removedKeys;
+    }
+
+    /**
+     * Compares the required git config values against the current config.
+     *
+     * @param current the current config.
+     * @param required the required values by git config key, such as core.hooksPath.
+     * @return the difference between the two.
+     * @throws MojoFailureException if any of the git config keys are invalid.
+     */
+    public static GitConfigDelta compute(final Config current, final Map<String, String> required)
+        throws MojoFailureException {
+        final Map<String, String> changedEntries = new LinkedHashMap<>();
+        int unchangedCount = 0;
+        for (final Map.Entry<String, String> entry : required.entrySet()) {
+            final String[] conf = stringToConfigArray(entry.getKey());
+            if (Objects.equals(current.getString(conf[0], conf[1], conf[2]), entry.getValue())) {
+                unchangedCount++;
+            } else {
+                changedEntries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return new GitConfigDelta(changedEntries, unchangedCount, Collections.emptySet());
+    }
+
+    /**
+     * Compares the required git config values against the current content of a config file that is to be replaced
+     * by exactly the required values, so that any other key set in it is removed.
+     *
+     * @param current the current config.
+     * @param required the required values by git config key, such as core.hooksPath.
+     * @return the difference between the two.
+     * @throws MojoFailureException if any of the git config keys are invalid.
+     */
+    public static GitConfigDelta computeReplacement(final Config current, final Map<String, String> required)
+        throws MojoFailureException {
+        final GitConfigDelta delta = compute(current, required);
+        final Set<String> requiredKeys = new HashSet<>();
+        for (final String key : required.keySet()) {
+            final String[] conf = stringToConfigArray(key);
+            requiredKeys.add(normalise(conf[0], conf[1], conf[2]));
+        }
+        final Set<String> removedKeys = new TreeSet<>();
+        for (final String section : current.getSections()) {
+            addRemovedKeys(current, section, null, requiredKeys, removedKeys);
+            for (final String subsection : current.getSubsections(section)) {
+                addRemovedKeys(current, section, subsection, requiredKeys, removedKeys);
+            }
+        }
+        return new GitConfigDelta(delta.changed, delta.unchanged, removedKeys);
+    }
+
+    /**
+     * Adds the keys of a section or subsection of the current config that are not required to the removed keys.
+     *
+     * @param current the current config.
+     * @param section the section.
+     * @param subsection the subsection, or null for the section itself.
+     * @param requiredKeys the normalised required keys.
+     * @param removedKeys the removed keys, to which any key that is not required is added.
+     */
+    private static void addRemovedKeys(final Config current, final String section, final String subsection,
+                                       final Set<String> requiredKeys, final Set<String> removedKeys) {
+        for (final String name : current.getNames(section, subsection)) {
+            if (!requiredKeys.contains(normalise(section, subsection, name))) {
+                removedKeys.add(section + (subsection == null ? "" : "." + subsection) + "." + name);
+            }
+        }
+    }
+
+    /**
+     * Normalises a git config key, whose section and name are case insensitive but whose subsection is not.
+     *
+     * @param section the section.
+     * @param subsection the subsection, or null.
+     * @param name the name.
+     * @return the normalised key.
+     */
+    private static String normalise(final String section, final String subsection, final String name) {
+        return section.toLowerCase(Locale.ROOT) + "\n" + subsection + "\n" + name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Sets each of the changed values in the provided config. The config is not saved.
+     *
+     * @param config the config to update.
+     * @throws MojoFailureException if any of the git config keys are invalid.
+     */
+    public void applyTo(final Config config) throws MojoFailureException {
+        for (final Map.Entry<String, String> entry : changed.entrySet()) {
+            final String[] conf = stringToConfigArray(entry.getKey());
+            config.setString(conf[0], conf[1], conf[2], entry.getValue());
+        }
+    }
+
+    /**
+     * Gets the entries whose value needs to change.
+     *
+     * @return the changed values by git config key.
+     */
+    public Map<String, String> getChanged() {
+        return Collections.unmodifiableMap(changed);
+    }
+
+    /**
+     * Gets the keys that need to be removed, which are only found when a config is replaced as a whole.
+     *
+     * @return the removed git config keys.
+     */
+    public Set<String> getRemoved() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * Gets the number of entries already set to the required value.
+     *
+     * @return the number of unchanged entries.
+     */
+    public int getUnchangedCount() {
+        return unchanged;
+    }
+
+    /**
+     * Returns true if every required value is already set and nothing needs to be removed, so there is nothing to
+     * save.
+     *
+     * @return whether the config is already up to date.
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Takes a git config key string (e.g. core.hooksPath) and splits it into section, subsection, and name.
+     * The former two are set to null is missing from the provided string.
+     *
+     * @param string a git config key string.
+     * @return an array representing git config key section, subsection, and name respectively.
+     *
+     * @throws MojoFailureException if the git config key string is invalid.
+     */
+    public static String[] stringToConfigArray(final String string) throws MojoFailureException {
+        final String[] split = string.split("\\.");
+        final byte sections = 3;
+        if (split.length > sections || split.length < 2) {
+            throw new MojoFailureException("Git config '" + string + "' must include 1-2 sections separated by stops.");
+        }
+
+        final String name = split[split.length - 1];
+        final String subsection = split.length == sections ? split[1] : null;
+        final String section = split[0];
+
+        return new String[]{section, subsection, name};
+    }
+}
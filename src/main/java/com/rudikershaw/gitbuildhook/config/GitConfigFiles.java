@@ -0,0 +1,284 @@
+package com.rudikershaw.gitbuildhook.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.eclipse.jgit.errors.ConfigInvalidException;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.util.FS;
+
+import com.rudikershaw.gitbuildhook.timing.EventKind;
+import com.rudikershaw.gitbuildhook.timing.PluginEvents;
+import com.rudikershaw.gitbuildhook.timing.Span;
+
+/**
+ * Reads and writes git config files, recording Flight Recorder events for each. Goals only refer to JGit through this
+ * class, so that JGit is neither loaded nor initialised by builds that have no git config to change.
+ */
+public final class GitConfigFiles {
+
+    /** The section of the git config including other config files. */
+    private static final String INCLUDE = "include";
+
+    /** The name of the git config values holding the paths of included config files. */
+    private static final String PATH = "path";
+
+    /** Private constructor for utility class. */
+    private GitConfigFiles() {
+    }
+
+    /**
+     * Reads a git config file.
+     *
+     * @param config the config to read.
+     * @throws IOException if the file could not be read.
+     * @throws ConfigInvalidException if the file is not valid git config.
+     */
+    public static void load(final FileBasedConfig config) throws IOException, ConfigInvalidException {
+        final Span span = PluginEvents.begin(EventKind.CONFIG_LOAD, config.getFile().toString());
+        try {
+            config.load();
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Writes a git config file.
+     *
+     * @param config the config to write.
+     * @throws IOException if the file could not be written.
+     */
+    public static void save(final FileBasedConfig config) throws IOException {
+        try (Span span = PluginEvents.begin(EventKind.CONFIG_SAVE, config.getFile().toString())) {
+            config.save();
+            if (span.isRecording()) {
+                span.setBytes(config.getFile().length());
+            }
+        }
+    }
+
+    /**
+     * Applies git config values to a config file, saving it only if any value has changed.
+     *
+     * @param file the config file.
+     * @param required the required values by git config key.
+     * @return the values that were changed and the number already set.
+     * @throws IOException if the file could not be read or written.
+     * @throws MojoFailureException if the file is not valid git config or any git config key is invalid.
+     */
+    public static GitConfigDelta apply(final File file, final Map<String, String> required)
+        throws IOException, MojoFailureException {
+        final FileBasedConfig config = open(file);
+        final GitConfigDelta delta = GitConfigDelta.compute(config, required);
+        if (!delta.isEmpty()) {
+            delta.applyTo(config);
+            save(config);
+        }
+        return delta;
+    }
+
+    /**
+     * Replaces the content of a config file written only by the plugin with exactly the required values, so that any
+     * other value set in it is removed. The file is only rewritten if any value has changed, and is created if it does
+     * not exist.
+     *
+     * @param file the config file.
+     * @param required the required values by git config key.
+     * @return the values that were changed or removed and the number already set.
+     * @throws IOException if the file could not be read or written.
+     * @throws MojoFailureException if the file is not valid git config or any git config key is invalid.
+     */
+    public static GitConfigDelta replace(final File file, final Map<String, String> required)
+        throws IOException, MojoFailureException {
+        final GitConfigDelta delta = GitConfigDelta.computeReplacement(open(file), required);
+        if (!delta.isEmpty()) {
+            final FileBasedConfig config = new FileBasedConfig(file, FS.DETECTED);
+            for (final Map.Entry<String, String> entry : new TreeMap<>(required).entrySet()) {
+                final String[] conf = GitConfigDelta.stringToConfigArray(entry.getKey());
+                config.setString(conf[0], conf[1], conf[2], entry.getValue());
+            }
+            final Path directory = file.getAbsoluteFile().toPath().getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            save(config);
+        }
+        return delta;
+    }
+
+    /**
+     * Adds a path to the include.path values of a config file, unless it is already included.
+     *
+     * @param file the config file.
+     * @param path the path of the file to include, which if relative is relative to the config file's directory.
+     * @return whether the path was added.
+     * @throws IOException if the file could not be read or written.
+     * @throws MojoFailureException if the file is not valid git config.
+     */
+    public static boolean addInclude(final File file, final String path) throws IOException, MojoFailureException {
+        final FileBasedConfig config = open(file);
+        final List<String> paths = new ArrayList<>(Arrays.asList(config.getStringList(INCLUDE, null, PATH)));
+        if (paths.contains(path)) {
+            return false;
+        }
+        paths.add(path);
+        config.setStringList(INCLUDE, null, PATH, paths);
+        save(config);
+        return true;
+    }
+
+    /**
+     * Removes a path from the include.path values of a config file, if it is included.
+     *
+     * @param file the config file.
+     * @param path the included path.
+     * @return whether the path was removed.
+     * @throws IOException if the file could not be read or written.
+     * @throws MojoFailureException if the file is not valid git config.
+     */
+    public static boolean removeInclude(final File file, final String path) throws IOException, MojoFailureException {
+        final FileBasedConfig config = open(file);
+        final List<String> paths = new ArrayList<>(Arrays.asList(config.getStringList(INCLUDE, null, PATH)));
+        if (!paths.remove(path)) {
+            return false;
+        }
+        if (paths.isEmpty()) {
+            config.unset(INCLUDE, null, PATH);
+        } else {
+            config.setStringList(INCLUDE, null, PATH, paths);
+        }
+        save(config);
+        return true;
+    }
+
+    /**
+     * Reads a value from a config file, including the config files it includes.
+     *
+     * @param file the config file.
+     * @param key the git config key, such as core.hooksPath.
+     * @return the value, or null if it is not set.
+     * @throws IOException if the file could not be read.
+     * @throws MojoFailureException if the file is not valid git config or the git config key is invalid.
+     */
+    public static String get(final File file, final String key) throws IOException, MojoFailureException {
+        final String[] conf = GitConfigDelta.stringToConfigArray(key);
+        return open(file).getString(conf[0], conf[1], conf[2]);
+    }
+
+    /**
+     * Removes a value from a config file, but only if it is set to the expected value.
+     *
+     * @param file the config file.
+     * @param key the git config key, such as core.hooksPath.
+     * @param expected the value the key must be set to for it to be removed.
+     * @return whether the value was removed.
+     * @throws IOException if the file could not be read or written.
+     * @throws MojoFailureException if the file is not valid git config or the git config key is invalid.
+     */
+    public static boolean unsetIfEqual(final File file, final String key, final String expected)
+        throws IOException, MojoFailureException {
+        final String[] conf = GitConfigDelta.stringToConfigArray(key);
+        final FileBasedConfig config = open(file);
+        if (!Objects.equals(expected, config.getString(conf[0], conf[1], conf[2]))) {
+            return false;
+        }
+        config.unset(conf[0], conf[1], conf[2]);
+        save(config);
+        return true;
+    }
+
+    /**
+     * Removes from a config file each value still set to the value recorded for it in another config file, so that
+     * values previously set by the plugin are removed but values changed since are kept.
+     *
+     * @param file the config file.
+     * @param recordFile the config file recording the values to remove.
+     * @return the keys of the values removed.
+     * @throws IOException if either file could not be read, or the config file written.
+     * @throws MojoFailureException if either file is not valid git config.
+     */
+    public static List<String> unsetRecorded(final File file, final File recordFile)
+        throws IOException, MojoFailureException {
+        final FileBasedConfig recorded = open(recordFile);
+        final FileBasedConfig config = open(file);
+        final List<String> removed = new ArrayList<>();
+        for (final String section : recorded.getSections()) {
+            unsetRecorded(config, recorded, section, null, removed);
+            for (final String subsection : recorded.getSubsections(section)) {
+                unsetRecorded(config, recorded, section, subsection, removed);
+            }
+        }
+        if (!removed.isEmpty()) {
+            save(config);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the values of a section or subsection of the record from the config, if set to the recorded value.
+     *
+     * @param config the config to remove values from. The config is not saved.
+     * @param recorded the recorded values.
+     * @param section the section.
+     * @param subsection the subsection, or null for the section itself.
+     * @param removed the removed keys, to which each key removed is added.
+     */
+    private static void unsetRecorded(final FileBasedConfig config, final FileBasedConfig recorded,
+                                      final String section, final String subsection, final List<String> removed) {
+        for (final String name : recorded.getNames(section, subsection)) {
+            if (Objects.equals(recorded.getString(section, subsection, name),
+                               config.getString(section, subsection, name))) {
+                config.unset(section, subsection, name);
+                removed.add(section + (subsection == null ? "" : "." + subsection) + "." + name);
+            }
+        }
+    }
+
+    /**
+     * Sets a boolean value in a config file to true, unless it is already true.
+     *
+     * @param file the config file.
+     * @param key the git config key, such as extensions.worktreeConfig.
+     * @return whether the value was changed.
+     * @throws IOException if the file could not be read or written.
+     * @throws MojoFailureException if the file is not valid git config or the git config key is invalid.
+     */
+    public static boolean enable(final File file, final String key) throws IOException, MojoFailureException {
+        final String[] conf = GitConfigDelta.stringToConfigArray(key);
+        final FileBasedConfig config = open(file);
+        if (config.getBoolean(conf[0], conf[1], conf[2], false)) {
+            return false;
+        }
+        config.setBoolean(conf[0], conf[1], conf[2], true);
+        save(config);
+        return true;
+    }
+
+    /**
+     * Reads a git config file, failing the build if it is not valid git config.
+     *
+     * @param file the config file.
+     * @return the config read from the file, which is empty if the file does not exist.
+     * @throws IOException if the file could not be read.
+     * @throws MojoFailureException if the file is not valid git config.
+     */
+    private static FileBasedConfig open(final File file) throws IOException, MojoFailureException {
+        final FileBasedConfig config = new FileBasedConfig(file, FS.DETECTED);
+        try {
+            load(config);
+        } catch (final ConfigInvalidException e) {
+            throw new MojoFailureException("Could not read the existing git config.", e);
+        }
+        return config;
+    }
+}
@@ -0,0 +1,153 @@
+package com.rudikershaw.gitbuildhook.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * The git config contributed by each module of a reactor sharing one repository, merged so that it can be applied to
+ * the repository in a single transaction once every module expected to contribute has done so, or once the session
+ * ends without some of them having done so.
+ */
+public final class ReactorConfigMerge {
+
+    /** The modules that are expected to contribute but have not yet done so. */
+    private final Set<String> pending;
+
+    /** The merged values, by git config key. */
+    private final Map<String, Contribution> merged = new TreeMap<>();
+
+    /** Descriptions of the conflicting values found so far. */
+    private final List<String> conflicts = new ArrayList<>();
+
+    /** Whether the merge is complete, because every expected module has contributed or a conflict failed it. */
+    private boolean complete;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedModules the ids of the modules expected to contribute.
+     */
+    public ReactorConfigMerge(final Set<String> expectedModules) {
+        pending = new HashSet<>(expectedModules);
+    }
+
+    /**
+     * Adds the git config of a module to the merge.
+     *
+     * @param moduleId the id of the contributing module.
+     * @param order the position of the module in the reactor build order, which decides between conflicting values.
+     * @param values the git config values of the module, by git config key.
+     * @param policy what to do if a value conflicts with that of another module.
+     * @return true if this was the last expected contribution, and so the merge is ready to apply.
+     * @throws MojoFailureException if a value conflicts and the policy is to fail.
+     */
+    public synchronized boolean contribute(final String moduleId, final int order, final Map<String, String> values,
+                                           final ConfigConflictPolicy policy) throws MojoFailureException {
+        for (final Map.Entry<String, String> entry : values.entrySet()) {
+            final Contribution existing = merged.get(entry.getKey());
+            if (existing == null) {
+                merged.put(entry.getKey(), new Contribution(entry.getValue(), moduleId, order));
+            } else if (!Objects.equals(existing.value, entry.getValue())) {
+                final String conflict = "Git config '" + entry.getKey() + "' is set to '" + existing.value + "' by "
+                    + existing.moduleId + " but to '" + entry.getValue() + "' by " + moduleId + ".";
+                if (policy == ConfigConflictPolicy.FAIL) {
+                    // A merge that failed the build is never applied, not even once the session ends.
+                    complete = true;
+                    throw new MojoFailureException(conflict);
+                }
+                conflicts.add(conflict);
+                if (order < existing.order) {
+                    merged.put(entry.getKey(), new Contribution(entry.getValue(), moduleId, order));
+                }
+            }
+        }
+        pending.remove(moduleId);
+        if (pending.isEmpty() && !complete) {
+            complete = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Completes the merge without the expected modules that have not contributed, as when the session ends after they
+     * failed, were skipped, or never ran the goal.
+     *
+     * @return the ids of the modules that never contributed, or an empty set if the merge was already complete, and
+     *         so must not be applied again.
+     */
+    public synchronized Set<String> completeWithoutPending() {
+        if (complete) {
+            return Collections.emptySet();
+        }
+        complete = true;
+        return new TreeSet<>(pending);
+    }
+
+    /**
+     * Gets the number of expected modules that have not yet contributed.
+     *
+     * @return the number of pending modules.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the merged git config values.
+     *
+     * @return the merged values by git config key.
+     */
+    public synchronized Map<String, String> getMerged() {
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (final Map.Entry<String, Contribution> entry : merged.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().value);
+        }
+        return values;
+    }
+
+    /**
+     * Gets descriptions of the conflicting values found while merging.
+     *
+     * @return the conflicts.
+     */
+    public synchronized List<String> getConflicts() {
+        return Collections.unmodifiableList(new ArrayList<>(conflicts));
+    }
+
+    /** A value contributed by a module. */
+    private static final class Contribution {
+
+        /** The value. */
+        private final String value;
+
+        /** The id of the module that contributed the value. */
+        private final String moduleId;
+
+        /** The position of the module in the reactor build order. */
+        private final int order;
+
+        /**
+         * Constructor.
+         *
+         * @param contributedValue the value.
+         * @param contributor the id of the module that contributed the value.
+         * @param contributorOrder the position of the module in the reactor build order.
+         */
+        Contribution(final String contributedValue, final String contributor, final int contributorOrder) {
+            value = contributedValue;
+            moduleId = contributor;
+            order = contributorOrder;
+        }
+    }
+}
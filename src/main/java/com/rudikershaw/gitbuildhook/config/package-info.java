@@ -0,0 +1,2 @@
+/** Package containing classes for applying git configuration to a repository. */
+package com.rudikershaw.gitbuildhook.config;
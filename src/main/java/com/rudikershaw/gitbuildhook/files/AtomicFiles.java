@@ -0,0 +1,91 @@
+package com.rudikershaw.gitbuildhook.files;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.util.UUID;
+
+/**
+ * Writes files so that they are never read partly written. Content is written to a temporary file in the same
+ * directory as the target, and then moved into place, atomically where the file system supports it. A failed or
+ * interrupted write leaves any previous file untouched.
+ */
+public final class AtomicFiles {
+
+    /** Writes the content of a file. */
+    public interface Content {
+
+        /**
+         * Writes the content to the provided stream, which is closed by the caller.
+         *
+         * @param out the stream to write to.
+         * @throws IOException if the content could not be written.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /** Private constructor for utility class. */
+    private AtomicFiles() {
+    }
+
+    /**
+     * Atomically replaces the file at the target location with the provided content, creating its directory if needed.
+     *
+     * @param target the file to write.
+     * @param content writes the content of the file.
+     * @param attributes the attributes, such as permissions, to create the file with before any content is written.
+     * @throws IOException if the file could not be written.
+     */
+    public static void write(final Path target, final Content content, final FileAttribute<?>... attributes)
+        throws IOException {
+        final Path temp = createTemp(target, attributes);
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                content.writeTo(out);
+            }
+            move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Creates an empty temporary file in the directory of the target location, creating the directory if needed. The
+     * caller must move the file into place or delete it. Unless other permissions are provided, the file is created
+     * with the default permissions of new files, as limited by the umask, rather than being readable only by its owner
+     * as with {@link Files#createTempFile}.
+     *
+     * @param target the file the temporary file will replace.
+     * @param attributes the attributes, such as permissions, to create the file with.
+     * @return the temporary file.
+     * @throws IOException if the file could not be created.
+     */
+    public static Path createTemp(final Path target, final FileAttribute<?>... attributes) throws IOException {
+        final Path directory = target.toAbsolutePath().getParent();
+        final Path name = target.getFileName();
+        if (directory == null || name == null) {
+            throw new IOException("Cannot write a file at " + target);
+        }
+        Files.createDirectories(directory);
+        return Files.createFile(directory.resolve("." + name + "." + UUID.randomUUID() + ".tmp"), attributes);
+    }
+
+    /**
+     * Moves a written file into place, atomically where the file system supports it.
+     *
+     * @param temp the written file.
+     * @param target the location of the file.
+     * @throws IOException if the file could not be moved.
+     */
+    public static void move(final Path temp, final Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
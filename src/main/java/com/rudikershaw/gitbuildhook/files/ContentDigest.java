@@ -0,0 +1,105 @@
+package com.rudikershaw.gitbuildhook.files;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/** Utility for calculating digests of content, such as hooks, and of the work the plugin applies. */
+public final class ContentDigest {
+
+    /** The algorithm used to digest content. */
+    private static final String ALGORITHM = "SHA-256";
+
+    /** The size of the buffer used when reading content to digest. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Mask used to convert a signed byte to an unsigned int. */
+    private static final int BYTE_MASK = 0xff;
+
+    /** Private constructor for utility class. */
+    private ContentDigest() {
+    }
+
+    /**
+     * Calculates the digest of the file at the provided path.
+     *
+     * @param path the file to digest.
+     * @return the hex encoded digest of the file content.
+     * @throws IOException if the file could not be read.
+     */
+    public static String of(final Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return of(in);
+        }
+    }
+
+    /**
+     * Calculates the digest of all the remaining content of the provided stream. The stream is not closed.
+     *
+     * @param in the stream to digest.
+     * @return the hex encoded digest of the stream content.
+     * @throws IOException if the stream could not be read.
+     */
+    public static String of(final InputStream in) throws IOException {
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read = in.read(buffer);
+        while (read != -1) {
+            digest.update(buffer, 0, read);
+            read = in.read(buffer);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Calculates the digest of the provided parts, such as configured values and the fingerprints of files. Each part
+     * is terminated, so that moving text from one part to the next changes the digest.
+     *
+     * @param parts the parts, in a stable order. Null parts are allowed.
+     * @return the hex encoded digest of the parts.
+     */
+    public static String of(final List<String> parts) {
+        final MessageDigest digest = newDigest();
+        for (final String part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Creates a new message digest for the digest algorithm.
+     *
+     * @return a new message digest.
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not supported by this JVM.", e);
+        }
+    }
+
+    /**
+     * Encodes the provided bytes as a lower case hex string.
+     *
+     * @param bytes the bytes to encode.
+     * @return the hex string.
+     */
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            final String digit = Integer.toHexString(b & BYTE_MASK);
+            if (digit.length() == 1) {
+                hex.append('0');
+            }
+            hex.append(digit);
+        }
+        return hex.toString();
+    }
+}
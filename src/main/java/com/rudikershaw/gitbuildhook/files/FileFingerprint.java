@@ -0,0 +1,30 @@
+package com.rudikershaw.gitbuildhook.files;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Cheap fingerprints of files, made from their size and modification time, used to tell whether a file may have
+ * changed without reading it.
+ */
+public final class FileFingerprint {
+
+    /** Private constructor for utility class. */
+    private FileFingerprint() {
+    }
+
+    /**
+     * Returns a cheap fingerprint identifying the size and modification time of a file, or null if it does not exist.
+     *
+     * @param path the file to stat.
+     * @return the size and modification time, or null.
+     * @throws IOException if the file exists but its attributes could not be read.
+     */
+    public static String of(final Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        return Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis();
+    }
+}
@@ -0,0 +1,2 @@
+/** Package containing utilities for digesting, fingerprinting and atomically writing the files the plugin keeps. */
+package com.rudikershaw.gitbuildhook.files;
@@ -0,0 +1,43 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * A hook, or helper file, read from an entry of an archive while streaming through it. The content is held in memory,
+ * so that it can be digested and then written without going back to the archive.
+ */
+public class ArchiveEntryHookSource implements HookSource {
+
+    /** The location of the entry, as the archive followed by the entry name. */
+    private final String location;
+
+    /** The content of the entry. */
+    private final byte[] content;
+
+    /**
+     * Constructor.
+     *
+     * @param entryLocation the location of the entry, as the archive followed by the entry name.
+     * @param entryContent the content of the entry.
+     */
+    public ArchiveEntryHookSource(final String entryLocation, final byte[] entryContent) {
+        location = entryLocation;
+        content = entryContent;
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return null;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(content);
+    }
+}
@@ -0,0 +1,136 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.rudikershaw.gitbuildhook.files.ContentDigest;
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+
+/**
+ * Cache of hooks extracted from Maven artifacts, shared between every repository on a machine. Hooks are extracted
+ * into a directory named after the checksum of the artifact's jar, so extracted content never changes and a hook is
+ * only extracted once for each version of the jar. The checksum of each jar is recorded along with the jar's size and
+ * modification time, so that later builds find the extracted hooks without reading, let alone opening, the jar.
+ */
+public class ArtifactHookCache {
+
+    /** The name of the directory, within the cache, the checksum of each jar is recorded in. */
+    private static final String CHECKSUMS_DIRECTORY = "checksums";
+
+    /** The checksums of jars read by this JVM, with the fingerprint of each jar when it was read. */
+    private static final Map<Path, String[]> CHECKSUMS = new ConcurrentHashMap<>();
+
+    /** The root directory of the cache. */
+    private final Path directory;
+
+    /**
+     * Constructor.
+     *
+     * @param cacheDirectory the root directory of the cache.
+     */
+    public ArtifactHookCache(final Path cacheDirectory) {
+        directory = cacheDirectory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Gets the hooks at the provided locations within a resolved artifact jar, extracting any that have not been
+     * extracted from the same jar before. The jar is opened at most once, and only if any hook must be extracted.
+     *
+     * @param jar the resolved jar of the artifact.
+     * @param locations the locations of hooks within the artifact.
+     * @return the extracted hooks by configured location, leaving out any not present in the jar.
+     * @throws IOException if the jar could not be read or a hook could not be extracted.
+     */
+    public Map<String, HookSource> extract(final Path jar, final Collection<ArtifactHookLocation> locations)
+        throws IOException {
+        final Path extracted = directory.resolve(checksumOf(jar));
+        final Map<String, HookSource> hooks = new HashMap<>();
+        ZipFile zip = null;
+        try {
+            for (final ArtifactHookLocation location : locations) {
+                final Path file = extracted.resolve(location.getEntryName()).normalize();
+                if (!file.startsWith(extracted)) {
+                    throw new IOException("'" + location + "' is not within the artifact");
+                }
+                if (!Files.isRegularFile(file)) {
+                    if (zip == null) {
+                        zip = new ZipFile(jar.toFile());
+                    }
+                    final ZipEntry entry = zip.getEntry(location.getEntryName());
+                    if (entry == null || entry.isDirectory()) {
+                        continue;
+                    }
+                    Files.createDirectories(extracted.resolve(location.getEntryName()).resolve("..").normalize());
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        AtomicHookWriter.write(in, file);
+                    }
+                }
+                hooks.put(location.getLocation(), new FileHookSource(location.getLocation(), file));
+            }
+        } finally {
+            if (zip != null) {
+                zip.close();
+            }
+        }
+        return hooks;
+    }
+
+    /**
+     * Gets the checksum of a jar. The checksum is only calculated if the jar's size or modification time has changed
+     * since the checksum was last recorded, by this or any other build.
+     *
+     * @param jar the jar.
+     * @return the hex encoded checksum of the jar.
+     * @throws IOException if the jar could not be read.
+     */
+    private String checksumOf(final Path jar) throws IOException {
+        final Path absoluteJar = jar.toAbsolutePath().normalize();
+        final String fingerprint = FileFingerprint.of(absoluteJar);
+        final String[] cached = CHECKSUMS.get(absoluteJar);
+        if (cached != null && cached[0].equals(fingerprint)) {
+            return cached[1];
+        }
+
+        final Path checksums = directory.resolve(CHECKSUMS_DIRECTORY);
+        final Path checksumFile = checksums.resolve(ContentDigest.of(
+            new ByteArrayInputStream(absoluteJar.toString().getBytes(StandardCharsets.UTF_8))));
+        String checksum = readChecksum(checksumFile, fingerprint);
+        if (checksum == null) {
+            checksum = ContentDigest.of(absoluteJar);
+            Files.createDirectories(checksums);
+            final byte[] content = (fingerprint + "\n" + checksum + "\n").getBytes(StandardCharsets.UTF_8);
+            AtomicHookWriter.write(new ByteArrayInputStream(content), checksumFile);
+        }
+        CHECKSUMS.put(absoluteJar, new String[] {fingerprint, checksum});
+        return checksum;
+    }
+
+    /**
+     * Reads the checksum recorded for a jar, if it was recorded when the jar had the provided fingerprint.
+     *
+     * @param checksumFile the file the checksum of the jar is recorded in.
+     * @param fingerprint the current fingerprint of the jar.
+     * @return the recorded checksum, or null if there is none for the current jar.
+     * @throws IOException if the file exists but could not be read.
+     */
+    private static String readChecksum(final Path checksumFile, final String fingerprint) throws IOException {
+        try {
+            final List<String> lines = Files.readAllLines(checksumFile, StandardCharsets.UTF_8);
+            return lines.size() == 2 && lines.get(0).equals(fingerprint) ? lines.get(1) : null;
+        } catch (final NoSuchFileException e) {
+            return null;
+        }
+    }
+}
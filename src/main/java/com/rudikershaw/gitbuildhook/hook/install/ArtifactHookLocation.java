@@ -0,0 +1,111 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+/**
+ * The location of a hook within a Maven artifact, configured as {@code groupId:artifactId:version[:classifier]!/path}
+ * where the path is that of the hook within the artifact's jar.
+ */
+public final class ArtifactHookLocation {
+
+    /** The separator between the artifact coordinates and the path of the hook within the artifact. */
+    private static final String ENTRY_SEPARATOR = "!/";
+
+    /** The number of coordinates of an artifact without a classifier. */
+    private static final int COORDINATES = 3;
+
+    /** The number of coordinates of an artifact with a classifier. */
+    private static final int CLASSIFIED_COORDINATES = 4;
+
+    /** The location as configured. */
+    private final String location;
+
+    /** The coordinates of the artifact, as configured. */
+    private final String artifact;
+
+    /** The path of the hook within the artifact's jar. */
+    private final String entryName;
+
+    /**
+     * Constructor.
+     *
+     * @param configuredLocation the location as configured.
+     * @param artifactCoordinates the coordinates of the artifact, as configured.
+     * @param entryPath the path of the hook within the artifact's jar.
+     */
+    private ArtifactHookLocation(final String configuredLocation, final String artifactCoordinates,
+                                 final String entryPath) {
+        location = configuredLocation;
+        artifact = artifactCoordinates;
+        entryName = entryPath;
+    }
+
+    /**
+     * Parses a configured hook location, if it is the location of a hook within a Maven artifact.
+     *
+     * @param location the configured hook location.
+     * @return the parsed location, or null if the location is not within a Maven artifact.
+     */
+    public static ArtifactHookLocation parse(final String location) {
+        final int separator = location.indexOf(ENTRY_SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        final String artifact = location.substring(0, separator);
+        final String entryName = location.substring(separator + ENTRY_SEPARATOR.length());
+        final String[] coordinates = artifact.split(":", -1);
+        if (coordinates.length != COORDINATES && coordinates.length != CLASSIFIED_COORDINATES || entryName.isEmpty()) {
+            return null;
+        }
+        for (final String coordinate : coordinates) {
+            if (coordinate.isEmpty()) {
+                return null;
+            }
+        }
+        return new ArtifactHookLocation(location, artifact, entryName);
+    }
+
+    /**
+     * Gets the location as configured.
+     *
+     * @return the configured location.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the coordinates of the artifact as configured, {@code groupId:artifactId:version[:classifier]}.
+     *
+     * @return the artifact coordinates.
+     */
+    public String getArtifact() {
+        return artifact;
+    }
+
+    /**
+     * Gets the coordinates of the artifact's jar in the form used by Maven Resolver,
+     * {@code groupId:artifactId:jar[:classifier]:version}.
+     *
+     * @return the resolver coordinates of the jar.
+     */
+    public String getJarCoordinates() {
+        final String[] coordinates = artifact.split(":");
+        final String prefix = coordinates[0] + ":" + coordinates[1] + ":jar:";
+        return coordinates.length == CLASSIFIED_COORDINATES
+            ? prefix + coordinates[COORDINATES] + ":" + coordinates[2]
+            : prefix + coordinates[2];
+    }
+
+    /**
+     * Gets the path of the hook within the artifact's jar.
+     *
+     * @return the jar entry name.
+     */
+    public String getEntryName() {
+        return entryName;
+    }
+
+    @Override
+    public String toString() {
+        return location;
+    }
+}
@@ -0,0 +1,171 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+import java.util.UUID;
+
+import com.rudikershaw.gitbuildhook.files.AtomicFiles;
+
+/**
+ * Writes hooks so that Git never sees a partially written hook. Content is written to a temporary file in the same
+ * directory as the hook, flushed to disk, made executable, and then atomically moved into place. Links are likewise
+ * created under a temporary name and moved into place. A failed or interrupted write leaves any previously installed
+ * hook untouched.
+ */
+public final class AtomicHookWriter {
+
+    /** The permissions given to installed hooks on file systems supporting POSIX permissions. */
+    private static final Set<PosixFilePermission> HOOK_PERMISSIONS = PosixFilePermissions.fromString("rwxr-xr-x");
+
+    /** The largest number of bytes transferred from a stream in a single call. */
+    private static final long TRANSFER_SIZE = 1048576;
+
+    /** Private constructor for utility class. */
+    private AtomicHookWriter() {
+    }
+
+    /**
+     * Atomically replaces the hook at the target location with a copy of the source file.
+     *
+     * @param source the file to install as a hook.
+     * @param target the location of the hook.
+     * @return the number of bytes written.
+     * @throws IOException if the hook could not be written.
+     */
+    public static long write(final Path source, final Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            return write(in, target);
+        }
+    }
+
+    /**
+     * Atomically replaces the hook at the target location with the remaining content of the provided stream. The
+     * stream is not closed.
+     *
+     * @param in the content of the hook.
+     * @param target the location of the hook.
+     * @return the number of bytes written.
+     * @throws IOException if the hook could not be written.
+     */
+    public static long write(final InputStream in, final Path target) throws IOException {
+        return write(in, target, true);
+    }
+
+    /**
+     * Atomically replaces the file at the target location with the remaining content of the provided stream, made
+     * executable only if requested, as for a helper file installed alongside the hooks. The stream is not closed.
+     *
+     * @param in the content of the file.
+     * @param target the location of the file.
+     * @param executable whether to make the file executable.
+     * @return the number of bytes written.
+     * @throws IOException if the file could not be written.
+     */
+    public static long write(final InputStream in, final Path target, final boolean executable) throws IOException {
+        final Path temp = AtomicFiles.createTemp(target);
+        try {
+            final long written;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                written = transfer(Channels.newChannel(in), out);
+                out.force(true);
+            }
+            if (executable) {
+                makeExecutable(temp);
+            }
+            AtomicFiles.move(temp, target);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Atomically replaces the hook at the target location with a symbolic link to the source file.
+     *
+     * @param source the file to link to, which should be absolute.
+     * @param target the location of the hook.
+     * @throws IOException if the link could not be created.
+     */
+    public static void link(final Path source, final Path target) throws IOException {
+        createLink(source, target, true);
+    }
+
+    /**
+     * Atomically replaces the hook at the target location with a hard link to the source file.
+     *
+     * @param source the file to link to.
+     * @param target the location of the hook.
+     * @throws IOException if the link could not be created, such as when the files are on different file systems.
+     */
+    public static void hardLink(final Path source, final Path target) throws IOException {
+        createLink(source, target, false);
+    }
+
+    /**
+     * Creates a link under a temporary name in the directory of the target location, and then moves it into place.
+     *
+     * @param source the file to link to.
+     * @param target the location of the hook.
+     * @param symbolic whether to create a symbolic link rather than a hard link.
+     * @throws IOException if the link could not be created.
+     */
+    private static void createLink(final Path source, final Path target, final boolean symbolic) throws IOException {
+        final Path directory = target.toAbsolutePath().getParent();
+        if (directory == null) {
+            throw new IOException("Cannot install a hook at " + target);
+        }
+        final Path temp = directory.resolve("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            if (symbolic) {
+                Files.createSymbolicLink(temp, source);
+            } else {
+                Files.createLink(temp, source);
+            }
+            AtomicFiles.move(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Transfers all the remaining content of a channel into a file channel.
+     *
+     * @param in the channel to read.
+     * @param out the file channel to write.
+     * @return the number of bytes transferred.
+     * @throws IOException if the content could not be transferred.
+     */
+    private static long transfer(final ReadableByteChannel in, final FileChannel out) throws IOException {
+        long position = 0;
+        long transferred = out.transferFrom(in, position, TRANSFER_SIZE);
+        while (transferred > 0) {
+            position += transferred;
+            transferred = out.transferFrom(in, position, TRANSFER_SIZE);
+        }
+        return position;
+    }
+
+    /**
+     * Makes a file readable and executable by everyone and writable by its owner.
+     *
+     * @param file the file to make executable.
+     * @throws IOException if the permissions could not be changed.
+     */
+    private static void makeExecutable(final Path file) throws IOException {
+        if (Files.getFileAttributeView(file, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(file, HOOK_PERMISSIONS);
+        } else if (!file.toFile().setExecutable(true)) {
+            throw new IOException("Could not make " + file + " executable");
+        }
+    }
+}
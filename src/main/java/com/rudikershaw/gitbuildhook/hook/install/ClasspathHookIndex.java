@@ -0,0 +1,123 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+
+/**
+ * Index of the hook resources within the jars of a class loader. Each jar's central directory is read once per JVM,
+ * recording the size and CRC of every resource that is not a class, so that hooks can be found, and unchanged hooks
+ * detected, without a resource lookup or reading any content. The index of a jar is rebuilt if the jar changes.
+ */
+public final class ClasspathHookIndex {
+
+    /** The indexed jars, by absolute path. */
+    private static final Map<Path, JarIndex> JARS = new ConcurrentHashMap<>();
+
+    /** Private constructor for utility class. */
+    private ClasspathHookIndex() {
+    }
+
+    /**
+     * Finds a hook resource on the class path of the provided class loader. Resources in the jars of a URL class
+     * loader, such as a Maven plugin realm, are found through the index. Otherwise the class loader is asked directly.
+     *
+     * @param loader the class loader to search.
+     * @param resourceName the name of the resource.
+     * @return the hook source, or null if there is no such resource.
+     * @throws IOException if a jar could not be indexed.
+     */
+    public static HookSource find(final ClassLoader loader, final String resourceName) throws IOException {
+        if (loader instanceof URLClassLoader) {
+            for (final URL url : ((URLClassLoader) loader).getURLs()) {
+                final Path jar = toJar(url);
+                final long[] entry = jar == null ? null : indexOf(jar).entries.get(resourceName);
+                if (entry != null) {
+                    return new JarEntryHookSource(resourceName, jar, entry[0], entry[1]);
+                }
+            }
+        }
+        final URL resource = loader.getResource(resourceName);
+        return resource == null ? null : new UrlHookSource(resourceName, resource);
+    }
+
+    /**
+     * Gets the local jar file a class path URL refers to.
+     *
+     * @param url the class path URL.
+     * @return the jar, or null if the URL is not a local jar file.
+     */
+    private static Path toJar(final URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            final Path path = Paths.get(url.toURI()).toAbsolutePath();
+            return Files.isRegularFile(path) ? path : null;
+        } catch (final URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the index of a jar, reading its central directory if it has not been indexed or has changed since.
+     *
+     * @param jar the jar to index.
+     * @return the index of the jar.
+     * @throws IOException if the jar could not be read.
+     */
+    private static JarIndex indexOf(final Path jar) throws IOException {
+        final String stamp = FileFingerprint.of(jar);
+        final JarIndex cached = JARS.get(jar);
+        if (cached != null && cached.stamp.equals(stamp)) {
+            return cached;
+        }
+        final Map<String, long[]> entries = new HashMap<>();
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            final Enumeration<? extends ZipEntry> zipEntries = zip.entries();
+            while (zipEntries.hasMoreElements()) {
+                final ZipEntry entry = zipEntries.nextElement();
+                if (!entry.isDirectory() && !entry.getName().endsWith(".class")) {
+                    entries.put(entry.getName(), new long[] {entry.getSize(), entry.getCrc()});
+                }
+            }
+        }
+        final JarIndex index = new JarIndex(stamp, entries);
+        JARS.put(jar, index);
+        return index;
+    }
+
+    /** The resources within a single jar. */
+    private static final class JarIndex {
+
+        /** The size and modification time of the jar when it was indexed. */
+        private final String stamp;
+
+        /** The size and CRC of each resource, by entry name. */
+        private final Map<String, long[]> entries;
+
+        /**
+         * Constructor.
+         *
+         * @param jarStamp the size and modification time of the jar when it was indexed.
+         * @param jarEntries the size and CRC of each resource, by entry name.
+         */
+        JarIndex(final String jarStamp, final Map<String, long[]> jarEntries) {
+            stamp = jarStamp;
+            entries = Collections.unmodifiableMap(jarEntries);
+        }
+    }
+}
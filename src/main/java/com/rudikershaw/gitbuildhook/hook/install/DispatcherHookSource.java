@@ -0,0 +1,136 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A generated POSIX shell hook that runs a group of scripts installed in the hook's own directory, named after the
+ * hook with a .d suffix. Scripts are run in waves of at most the configured parallelism, each with the hook's
+ * arguments and a copy of its standard input. Each script's output is buffered and printed, in the configured order,
+ * once its wave has finished, so the output of scripts never interleaves. A script running longer than the timeout is
+ * killed and fails. The hook fails if any script fails and, if failing fast, no further waves are started.
+ */
+public class DispatcherHookSource implements HookSource {
+
+    /** The functions shared by every dispatcher. */
+    private static final String FUNCTIONS = ""
+        + "work=$(mktemp -d \"${TMPDIR:-/tmp}/git-build-hook.XXXXXX\") || exit 1\n"
+        + "trap 'rm -rf \"$work\"' EXIT\n"
+        + "trap 'exit 130' INT TERM\n"
+        + "if [ -t 0 ]; then : > \"$work/stdin\"; else cat > \"$work/stdin\"; fi\n"
+        + "failed=0\n"
+        + "\n"
+        + "run() {\n"
+        + "    index=$1\n"
+        + "    script=\"$scripts_dir/$2\"\n"
+        + "    shift 2\n"
+        + "    if [ -x \"$script\" ]; then\n"
+        + "        \"$script\" \"$@\" < \"$work/stdin\" > \"$work/$index.out\" 2>&1 &\n"
+        + "    else\n"
+        + "        sh \"$script\" \"$@\" < \"$work/stdin\" > \"$work/$index.out\" 2>&1 &\n"
+        + "    fi\n"
+        + "    pid=$!\n"
+        + "    watchdog=\n"
+        + "    if [ \"$timeout\" -gt 0 ]; then\n"
+        + "        (sleep \"$timeout\" && : > \"$work/$index.timeout\" && kill \"$pid\") > /dev/null 2>&1 &\n"
+        + "        watchdog=$!\n"
+        + "    fi\n"
+        + "    wait \"$pid\" 2> /dev/null\n"
+        + "    echo $? > \"$work/$index.status\"\n"
+        + "    if [ -n \"$watchdog\" ]; then\n"
+        + "        kill \"$watchdog\" 2> /dev/null\n"
+        + "    fi\n"
+        + "}\n"
+        + "\n"
+        + "report() {\n"
+        + "    status=$(cat \"$work/$1.status\" 2> /dev/null || echo 1)\n"
+        + "    if [ -s \"$work/$1.out\" ]; then\n"
+        + "        echo \"==> $2\"\n"
+        + "        cat \"$work/$1.out\"\n"
+        + "        if [ -n \"$(tail -c 1 \"$work/$1.out\")\" ]; then\n"
+        + "            echo\n"
+        + "        fi\n"
+        + "    fi\n"
+        + "    if [ -f \"$work/$1.timeout\" ]; then\n"
+        + "        echo \"$2 timed out after ${timeout}s\" >&2\n"
+        + "        failed=1\n"
+        + "    elif [ \"$status\" -ne 0 ]; then\n"
+        + "        echo \"$2 failed with exit code $status\" >&2\n"
+        + "        failed=1\n"
+        + "    fi\n"
+        + "}\n";
+
+    /** The configured location of the hook, which identifies the dispatcher in the manifest. */
+    private final String location;
+
+    /** The content of the generated hook. */
+    private final byte[] content;
+
+    /**
+     * Constructor.
+     *
+     * @param hookName the name of the hook.
+     * @param scriptNames the names of the scripts within the hook's .d directory, in the order they are run.
+     * @param parallelism the largest number of scripts run at the same time.
+     * @param timeoutSeconds how long each script may run before it is killed, or zero for no limit.
+     * @param failFast whether to stop starting further scripts once a script fails.
+     */
+    public DispatcherHookSource(final String hookName, final List<String> scriptNames, final int parallelism,
+                                final int timeoutSeconds, final boolean failFast) {
+        location = "dispatcher:" + hookName;
+        final int wave = Math.max(1, parallelism);
+        final StringBuilder script = new StringBuilder()
+            .append("#!/bin/sh\n")
+            .append("# Generated by the git-build-hook-maven-plugin. Runs the scripts in ").append(hookName)
+            .append(".d, ").append(wave).append(" at a time.\n")
+            .append("scripts_dir=\"$(dirname \"$0\")/").append(hookName).append(".d\"\n")
+            .append("timeout=").append(Math.max(0, timeoutSeconds)).append('\n')
+            .append(FUNCTIONS);
+        for (int start = 0; start < scriptNames.size(); start += wave) {
+            final int end = Math.min(start + wave, scriptNames.size());
+            script.append('\n');
+            for (int i = start; i < end; i++) {
+                script.append("run ").append(i).append(' ').append(quote(scriptNames.get(i))).append(" \"$@\" &\n");
+            }
+            script.append("wait\n");
+            for (int i = start; i < end; i++) {
+                script.append("report ").append(i).append(' ').append(quote(scriptNames.get(i))).append('\n');
+            }
+            if (failFast && end < scriptNames.size()) {
+                script.append("if [ \"$failed\" -ne 0 ]; then\n")
+                    .append("    echo \"").append(scriptNames.size() - end).append(" script(s) not run.\" >&2\n")
+                    .append("    exit 1\n")
+                    .append("fi\n");
+            }
+        }
+        script.append("\nexit \"$failed\"\n");
+        content = script.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return null;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(content);
+    }
+
+    /**
+     * Quotes a value for use as a single word in a shell script.
+     *
+     * @param value the value to quote.
+     * @return the quoted value.
+     */
+    private static String quote(final String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+}
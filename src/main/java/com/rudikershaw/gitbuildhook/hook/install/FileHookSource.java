@@ -0,0 +1,53 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+
+/** A hook installed from a file on the file system. */
+public class FileHookSource implements HookSource {
+
+    /** The configured location of the hook. */
+    private final String location;
+
+    /** The file to install. */
+    private final Path file;
+
+    /**
+     * Constructor.
+     *
+     * @param configuredLocation the configured location of the hook.
+     * @param sourceFile the file to install.
+     */
+    public FileHookSource(final String configuredLocation, final Path sourceFile) {
+        location = configuredLocation;
+        file = sourceFile;
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFingerprint() throws IOException {
+        return FileFingerprint.of(file);
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * Gets the file to install.
+     *
+     * @return the file.
+     */
+    public Path getFile() {
+        return file;
+    }
+}
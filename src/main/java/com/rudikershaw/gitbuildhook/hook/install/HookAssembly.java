@@ -0,0 +1,247 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+import com.rudikershaw.gitbuildhook.metrics.HookMetrics;
+import com.rudikershaw.gitbuildhook.runner.RunnerClient;
+import com.rudikershaw.gitbuildhook.runner.RunnerFile;
+
+/**
+ * The hooks to install into a repository, assembled from the configured hooks: the hooks copied from their configured
+ * locations, including the scripts of hook groups, and the hooks generated by the plugin, which are the dispatcher of
+ * each hook group, the stub of each runner hook and, when recording metrics, the wrapper of each hook Git runs.
+ */
+public class HookAssembly {
+
+    /** The suffix of the directory, named after a hook, in which the scripts of a hook group are installed. */
+    public static final String SCRIPTS_SUFFIX = ".d";
+
+    /** The common git directory the hooks are installed into. */
+    private final File gitDir;
+
+    /** The locations of the hooks to install, by hook name. */
+    private final Map<String, String> hooks;
+
+    /** The generated hooks to install, by hook name. */
+    private final Map<String, HookSource> generated = new TreeMap<>();
+
+    /** The names of the hooks installed as groups. */
+    private final Set<String> groups = new TreeSet<>();
+
+    /**
+     * Constructor.
+     *
+     * @param commonDir the common git directory the hooks are installed into.
+     * @param installHooks the locations of the configured hooks, by hook name.
+     * @throws MojoFailureException if a configured hook has an invalid hook name.
+     */
+    public HookAssembly(final File commonDir, final Map<String, String> installHooks) throws MojoFailureException {
+        gitDir = commonDir;
+        hooks = new TreeMap<>(installHooks);
+        for (final String hookName : hooks.keySet()) {
+            checkHookName(hookName);
+        }
+    }
+
+    /**
+     * Adds the scripts of a hook group to the hooks to install, named after the hook with a .d suffix and numbered in
+     * the order they are run, and the dispatcher that runs them as the group's hook.
+     *
+     * @param hookName the name of the hook.
+     * @param scripts the locations of the scripts, in the order they are run.
+     * @param parallelism the maximum number of scripts run at once.
+     * @param timeout the number of seconds a script may run for before it is killed, or zero for no limit.
+     * @param failFast whether to stop running scripts once any has failed.
+     * @throws MojoFailureException if the hook name is invalid, or the hook is configured more than once.
+     */
+    public void addGroup(final String hookName, final List<String> scripts, final int parallelism, final int timeout,
+                         final boolean failFast) throws MojoFailureException {
+        checkHookName(hookName);
+        checkNotConfigured(hookName);
+        final List<String> scriptNames = new ArrayList<>();
+        for (final String script : scripts) {
+            final String scriptName = String.format("%02d-%s", scriptNames.size() + 1, scriptFileName(script));
+            scriptNames.add(scriptName);
+            hooks.put(hookName + SCRIPTS_SUFFIX + "/" + scriptName, script);
+        }
+        generated.put(hookName, new DispatcherHookSource(hookName, scriptNames, parallelism, timeout, failFast));
+        groups.add(hookName);
+    }
+
+    /**
+     * Adds the generated hook of each runner hook, which runs its goals in the runner if one is running.
+     *
+     * @param runnerHooks the goals run by each runner hook, separated by whitespace, by hook name.
+     * @param runnerPom the POM the goals are run on, either absolute or relative to the top of the work tree.
+     * @param maven the Maven executable used when no runner is running.
+     * @throws MojoFailureException if a runner hook has an invalid hook name or no goals, or a hook is configured more
+     *                              than once.
+     */
+    public void addRunnerHooks(final Map<String, String> runnerHooks, final Path runnerPom, final String maven)
+        throws MojoFailureException {
+        if (runnerHooks.isEmpty()) {
+            return;
+        }
+        final Path clientJar;
+        try {
+            clientJar = Paths.get(RunnerClient.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (final URISyntaxException e) {
+            throw new MojoFailureException("Could not locate the plugin jar run by runner hooks.", e);
+        }
+        final File javaExecutable = new File(System.getProperty("java.home"), "bin/java");
+        final String java = javaExecutable.isFile() ? javaExecutable.getAbsolutePath() : "java";
+        for (final Map.Entry<String, String> hook : new TreeMap<>(runnerHooks).entrySet()) {
+            final String hookName = hook.getKey();
+            checkHookName(hookName);
+            checkNotConfigured(hookName);
+            final List<String> goals = new ArrayList<>();
+            for (final String goal : Objects.toString(hook.getValue(), "").trim().split("\\s+")) {
+                if (!goal.isEmpty()) {
+                    goals.add(goal);
+                }
+            }
+            if (goals.isEmpty()) {
+                throw new MojoFailureException("The " + hookName + " runner hook has no goals to run.");
+            }
+            generated.put(hookName, new RunnerStubHookSource(hookName, goals, runnerPom, RunnerFile.locate(gitDir),
+                clientJar, java, maven));
+        }
+    }
+
+    /**
+     * Moves each hook Git runs to a suffixed name, and adds a generated wrapper recording the runs of the hook in its
+     * place. Hooks must not be added once wrapped.
+     */
+    public void wrapForMetrics() {
+        for (final String hookName : topLevelHookNames()) {
+            final String wrappedName = hookName + MetricsWrapperHookSource.WRAPPED_SUFFIX;
+            if (hooks.containsKey(hookName)) {
+                hooks.put(wrappedName, hooks.remove(hookName));
+            } else {
+                generated.put(wrappedName, generated.remove(hookName));
+            }
+            generated.put(hookName, new MetricsWrapperHookSource(hookName, HookMetrics.locate(gitDir)));
+        }
+    }
+
+    /**
+     * Removes any wrapped hooks left by a previous build that recorded metrics, for hooks that are no longer wrapped.
+     *
+     * @param installer the installer hooks are installed with.
+     * @param hooksDirectory the directory hooks are installed into.
+     * @throws MojoFailureException if a wrapped hook could not be removed.
+     */
+    public void removeWrappedHooks(final HookInstaller installer, final Path hooksDirectory)
+        throws MojoFailureException {
+        for (final String hookName : topLevelHookNames()) {
+            final String wrappedName = hookName + MetricsWrapperHookSource.WRAPPED_SUFFIX;
+            if (!hooks.containsKey(wrappedName) && !generated.containsKey(wrappedName)
+                && Files.exists(hooksDirectory.resolve(wrappedName), LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    installer.uninstall(wrappedName);
+                } catch (final IOException e) {
+                    throw new MojoFailureException("Could not remove " + wrappedName + " from the hooks directory.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the locations of the hooks and hook group scripts to install.
+     *
+     * @return the locations of the hooks to install, by hook name.
+     */
+    public Map<String, String> getHooks() {
+        return Collections.unmodifiableMap(hooks);
+    }
+
+    /**
+     * Gets the hooks generated by the plugin.
+     *
+     * @return the generated hooks to install, by hook name.
+     */
+    public Map<String, HookSource> getGenerated() {
+        return Collections.unmodifiableMap(generated);
+    }
+
+    /**
+     * Gets the names of the hooks installed as groups, whose scripts are installed in a directory of their own.
+     *
+     * @return the names of the hooks installed as groups.
+     */
+    public Set<String> getGroups() {
+        return Collections.unmodifiableSet(groups);
+    }
+
+    /**
+     * Gets the names of the hooks Git runs, as opposed to the scripts of hook groups and wrapped hooks.
+     *
+     * @return the names of the hooks Git runs.
+     */
+    private Set<String> topLevelHookNames() {
+        final Set<String> hookNames = new TreeSet<>();
+        for (final String hookName : hooks.keySet()) {
+            if (GitHookType.isValidHookName(hookName)) {
+                hookNames.add(hookName);
+            }
+        }
+        for (final String hookName : generated.keySet()) {
+            if (GitHookType.isValidHookName(hookName)) {
+                hookNames.add(hookName);
+            }
+        }
+        return hookNames;
+    }
+
+    /**
+     * Fails if a hook name is not the name of a hook Git runs.
+     *
+     * @param hookName the hook name.
+     * @throws MojoFailureException if the hook name is invalid.
+     */
+    private static void checkHookName(final String hookName) throws MojoFailureException {
+        if (hookName == null || !GitHookType.isValidHookName(hookName)) {
+            throw new MojoFailureException("'" + hookName + "' is not a valid hook file name.");
+        }
+    }
+
+    /**
+     * Fails if a hook has already been added.
+     *
+     * @param hookName the hook name.
+     * @throws MojoFailureException if the hook has already been added.
+     */
+    private void checkNotConfigured(final String hookName) throws MojoFailureException {
+        if (hooks.containsKey(hookName) || generated.containsKey(hookName)) {
+            throw new MojoFailureException("The " + hookName + " hook is configured more than once.");
+        }
+    }
+
+    /**
+     * Gets the file name a hook group script is installed under, without any characters that are unsafe in a shell.
+     *
+     * @param script the location of the script.
+     * @return the file name of the script.
+     */
+    private static String scriptFileName(final String script) {
+        final String name = script.substring(Math.max(script.lastIndexOf('/'), script.lastIndexOf('\\')) + 1);
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
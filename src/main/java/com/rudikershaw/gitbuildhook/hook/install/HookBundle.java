@@ -0,0 +1,166 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+
+/**
+ * A directory, or zip or jar archive, of hooks along with the helper files they use, installed into the hooks
+ * directory as a whole. Top level entries named after a Git hook are hooks, and are made executable. Every other entry
+ * is a helper file, copied unchanged and only made executable if it is an executable file in a directory. Top level
+ * entries without an extension must be named after a Git hook, so that a misspelt hook is reported rather than being
+ * silently installed as a helper file.
+ */
+public class HookBundle {
+
+    /** The directory of jar metadata, which is not installed. */
+    private static final String META_INF = "META-INF/";
+
+    /** The directory or archive. */
+    private final Path bundle;
+
+    /** Handles each entry of a bundle. */
+    public interface EntryHandler {
+
+        /**
+         * Handles a single entry of the bundle.
+         *
+         * @param name the name of the entry relative to the bundle, with / separators.
+         * @param source the content of the entry.
+         * @param executable whether the entry must be installed as an executable file.
+         * @throws IOException if the entry could not be handled.
+         */
+        void handle(String name, HookSource source, boolean executable) throws IOException;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param bundleLocation the directory or archive.
+     */
+    public HookBundle(final Path bundleLocation) {
+        bundle = bundleLocation.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Passes every entry of the bundle to the handler in a single pass, in the order of their names for a directory
+     * and in the order they are stored for an archive. An archive is read as a stream, without reading its central
+     * directory, and each entry is handled as soon as it has been read.
+     *
+     * @param handler the handler of each entry.
+     * @throws IOException if the bundle could not be read, has an entry with an invalid name, or an entry could not be
+     *                     handled.
+     */
+    public void forEachEntry(final EntryHandler handler) throws IOException {
+        if (Files.isDirectory(bundle)) {
+            try (Stream<Path> files = Files.walk(bundle)) {
+                final Iterator<Path> sorted = files.filter(Files::isRegularFile).sorted().iterator();
+                while (sorted.hasNext()) {
+                    final Path file = sorted.next();
+                    final String name = checkName(entryName(file));
+                    handler.handle(name, new FileHookSource(bundle + "/" + name, file),
+                        isHook(name) || Files.isExecutable(file));
+                }
+            }
+            return;
+        }
+        try (ZipInputStream zip = new ZipInputStream(new BufferedInputStream(Files.newInputStream(bundle)))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (!entry.isDirectory() && !entry.getName().startsWith(META_INF)) {
+                    final String name = checkName(entry.getName());
+                    handler.handle(name, new ArchiveEntryHookSource(bundle + "!/" + name, IOUtils.toByteArray(zip)),
+                        isHook(name));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the name of each entry, with a fingerprint of both the entry and the installed file, to the parts of an
+     * install digest. A directory is fingerprinted file by file. An archive is fingerprinted as a whole, and its entry
+     * names read from its central directory, without reading any content.
+     *
+     * @param hooksDirectory the directory the bundle is installed into.
+     * @param parts the parts of the install digest.
+     * @throws IOException if the bundle could not be read.
+     */
+    public void addFingerprints(final Path hooksDirectory, final List<String> parts) throws IOException {
+        if (Files.isDirectory(bundle)) {
+            try (Stream<Path> files = Files.walk(bundle)) {
+                final Iterator<Path> sorted = files.filter(Files::isRegularFile).sorted().iterator();
+                while (sorted.hasNext()) {
+                    final Path file = sorted.next();
+                    final String name = entryName(file);
+                    parts.add(name);
+                    parts.add(FileFingerprint.of(file));
+                    parts.add(FileFingerprint.of(hooksDirectory.resolve(name)));
+                }
+            }
+            return;
+        }
+        parts.add(FileFingerprint.of(bundle));
+        try (ZipFile zip = new ZipFile(bundle.toFile())) {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && !entry.getName().startsWith(META_INF)) {
+                    parts.add(entry.getName());
+                    parts.add(FileFingerprint.of(hooksDirectory.resolve(entry.getName()).normalize()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the name of a file in a directory bundle relative to the bundle, with / separators.
+     *
+     * @param file the file.
+     * @return the name of the entry.
+     */
+    private String entryName(final Path file) {
+        return bundle.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * Returns true if the entry is a hook rather than a helper file.
+     *
+     * @param name the name of the entry.
+     * @return whether the entry is a hook.
+     */
+    private static boolean isHook(final String name) {
+        return name.indexOf('/') < 0 && GitHookType.isValidHookName(name);
+    }
+
+    /**
+     * Checks that the name of an entry is within the bundle, and that a top level entry without an extension is named
+     * after a Git hook.
+     *
+     * @param name the name of the entry.
+     * @return the name of the entry.
+     * @throws IOException if the name is not valid.
+     */
+    private static String checkName(final String name) throws IOException {
+        final String path = "/" + name + "/";
+        if (name.isEmpty() || name.startsWith("/") || name.contains("\\") || path.contains("/../")) {
+            throw new IOException("'" + name + "' is not a valid file name within a hook bundle.");
+        }
+        if (name.indexOf('/') < 0 && name.indexOf('.') < 0 && !GitHookType.isValidHookName(name)) {
+            throw new IOException("'" + name + "' is not a valid hook file name. Helper files must have an extension "
+                + "or be in a subdirectory.");
+        }
+        return name;
+    }
+}
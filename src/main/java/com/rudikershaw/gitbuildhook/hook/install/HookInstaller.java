@@ -0,0 +1,340 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.maven.plugin.logging.Log;
+
+import com.rudikershaw.gitbuildhook.files.ContentDigest;
+import com.rudikershaw.gitbuildhook.timing.EventKind;
+import com.rudikershaw.gitbuildhook.timing.PluginEvents;
+import com.rudikershaw.gitbuildhook.timing.Span;
+
+/**
+ * Installs hooks into a hooks directory using an install strategy, consulting the install manifest so that hooks
+ * whose content is already installed are not rewritten. Unchanged sources are detected from their fingerprint without
+ * reading them, and from their digest otherwise. Different hooks may be installed concurrently.
+ */
+public class HookInstaller {
+
+    /** The possible outcomes of installing a single hook. */
+    public enum Outcome {
+
+        /** The hook file was written. */
+        WRITTEN,
+
+        /** The hook was already up to date and so was not written. */
+        SKIPPED
+    }
+
+    /** The directory hooks are installed into. */
+    private final Path hooksDirectory;
+
+    /** The manifest of previously installed hooks. */
+    private final HookManifest manifest;
+
+    /** How hooks are installed. */
+    private final InstallStrategy strategy;
+
+    /** The content-addressed store hooks are hard linked to, or null if hooks are not hard linked. */
+    private final HookStore store;
+
+    /** Whether links could not be created, and so hooks are being copied instead. */
+    private final AtomicBoolean linksUnsupported = new AtomicBoolean();
+
+    /** Whether to reinstall hooks even when the manifest records them as unchanged. */
+    private final boolean force;
+
+    /** The log to report problems reading the manifest to. */
+    private final Log log;
+
+    /**
+     * Constructor, loading the manifest of previously installed hooks.
+     *
+     * @param targetDirectory the directory hooks are installed into.
+     * @param manifestDirectory the directory in which the install manifest is kept.
+     * @param installStrategy how hooks are installed.
+     * @param storeDirectory the directory of the content-addressed store used to hard link hooks.
+     * @param forceReinstall whether to reinstall hooks even when the manifest records them as unchanged.
+     * @param installLog the log to report problems reading the manifest to.
+     */
+    public HookInstaller(final Path targetDirectory, final Path manifestDirectory,
+                         final InstallStrategy installStrategy, final Path storeDirectory,
+                         final boolean forceReinstall, final Log installLog) {
+        hooksDirectory = targetDirectory;
+        strategy = installStrategy;
+        store = installStrategy == InstallStrategy.HARDLINK ? new HookStore(storeDirectory) : null;
+        force = forceReinstall;
+        log = installLog;
+        manifest = loadManifest(manifestDirectory);
+    }
+
+    /**
+     * Saves the install manifest if any hooks have been installed or confirmed as up to date since it was loaded.
+     *
+     * @throws IOException if the manifest could not be written.
+     */
+    public void saveManifest() throws IOException {
+        manifest.save();
+    }
+
+    /**
+     * Installs the content of the source as the named hook, unless the same content is already installed.
+     *
+     * @param hookName the name of the hook.
+     * @param source the content to install.
+     * @return the outcome of installing the hook.
+     * @throws IOException if the hook could not be installed.
+     */
+    public Outcome install(final String hookName, final HookSource source) throws IOException {
+        try (Span span = PluginEvents.begin(EventKind.HOOK_INSTALL, hookName)) {
+            final Outcome outcome = installHook(hookName, source);
+            if (span.isRecording()) {
+                final Path gitHookPath = hooksDirectory.resolve(hookName);
+                span.setOutcome(outcome.name());
+                if (outcome == Outcome.WRITTEN && !Files.isSymbolicLink(gitHookPath)) {
+                    span.setBytes(Files.size(gitHookPath));
+                }
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Copies the content of the source into the hooks directory under the provided name, whatever the install
+     * strategy, unless the same content is already installed. Used for the hooks and helper files of a hook bundle,
+     * which must sit alongside each other for hooks to find their helpers.
+     *
+     * @param name the name of the file relative to the hooks directory.
+     * @param source the content to install.
+     * @param executable whether the installed file must be executable.
+     * @return the outcome of installing the file.
+     * @throws IOException if the file could not be installed.
+     */
+    public Outcome copy(final String name, final HookSource source, final boolean executable) throws IOException {
+        try (Span span = PluginEvents.begin(EventKind.HOOK_INSTALL, name)) {
+            final Path target = hooksDirectory.resolve(name);
+            final Path directory = target.getParent();
+            if (directory != null) {
+                Files.createDirectories(directory);
+            }
+            final Outcome outcome = copy(name, source, target, executable);
+            if (span.isRecording()) {
+                span.setOutcome(outcome.name());
+                if (outcome == Outcome.WRITTEN) {
+                    span.setBytes(Files.size(target));
+                }
+            }
+            return outcome;
+        }
+    }
+
+    /**
+     * Installs the content of the source as the named hook with the configured strategy, unless the same content is
+     * already installed.
+     *
+     * @param hookName the name of the hook.
+     * @param source the content to install.
+     * @return the outcome of installing the hook.
+     * @throws IOException if the hook could not be installed.
+     */
+    private Outcome installHook(final String hookName, final HookSource source) throws IOException {
+        final Path gitHookPath = hooksDirectory.resolve(hookName);
+        if (store != null && !linksUnsupported.get()) {
+            final Outcome linked = hardLink(hookName, source, gitHookPath);
+            if (linked != null) {
+                return linked;
+            }
+        } else if (source instanceof FileHookSource) {
+            final Path file = ((FileHookSource) source).getFile();
+            if (strategy == InstallStrategy.SYMLINK && !linksUnsupported.get()) {
+                final Outcome linked = link(hookName, file, gitHookPath);
+                if (linked != null) {
+                    return linked;
+                }
+            } else if (strategy == InstallStrategy.HOOKS_PATH) {
+                return copy(hookName, new StubHookSource(source.getLocation(), file), gitHookPath, true);
+            }
+        }
+        return copy(hookName, source, gitHookPath, true);
+    }
+
+    /**
+     * Removes an installed hook, and its entry in the manifest.
+     *
+     * @param hookName the name of the hook.
+     * @throws IOException if the hook could not be removed.
+     */
+    public void uninstall(final String hookName) throws IOException {
+        Files.deleteIfExists(hooksDirectory.resolve(hookName));
+        manifest.remove(hookName);
+    }
+
+    /**
+     * Copies the content of the source to the hook, unless the same content is already installed.
+     *
+     * @param hookName the name of the hook.
+     * @param source the content to install.
+     * @param gitHookPath the location of the hook.
+     * @param executable whether the hook must be executable.
+     * @return the outcome of installing the hook.
+     * @throws IOException if the hook could not be installed.
+     */
+    private Outcome copy(final String hookName, final HookSource source, final Path gitHookPath,
+                         final boolean executable) throws IOException {
+        final String location = source.getLocation();
+        final String fingerprint = source.getFingerprint();
+        // A hook previously installed as a link must be replaced by a copy, even if the content is the same, so that
+        // writing it never changes the file it is linked to.
+        final boolean reinstall = force || Files.isSymbolicLink(gitHookPath) || manifest.isHardLinked(hookName);
+        if (!reinstall && manifest.isUpToDate(hookName, location, fingerprint, gitHookPath)) {
+            return Outcome.SKIPPED;
+        }
+
+        final String digest;
+        try (InputStream in = source.open()) {
+            digest = ContentDigest.of(in);
+        }
+        if (!reinstall && isUnchanged(hookName, location, digest, gitHookPath, executable)) {
+            manifest.update(hookName, location, fingerprint, digest, gitHookPath, false);
+            return Outcome.SKIPPED;
+        }
+
+        try (InputStream in = source.open()) {
+            AtomicHookWriter.write(in, gitHookPath, executable);
+        }
+        manifest.update(hookName, location, fingerprint, digest, gitHookPath, false);
+        return Outcome.WRITTEN;
+    }
+
+    /**
+     * Links the hook to its source file, unless already linked. If links cannot be created, a warning is logged once
+     * and null is returned so that the hook is copied instead.
+     *
+     * @param hookName the name of the hook.
+     * @param file the source file of the hook.
+     * @param gitHookPath the location of the hook.
+     * @return the outcome of linking the hook, or null if it could not be linked.
+     * @throws IOException if the existing hook could not be read.
+     */
+    private Outcome link(final String hookName, final Path file, final Path gitHookPath) throws IOException {
+        final Path target = file.toAbsolutePath().normalize();
+        if (!Files.isExecutable(target)) {
+            log.warn("'" + target + "' is not executable, so Git will not run it as the " + hookName + " hook.");
+        }
+        // The manifest describes copied hooks, so must not vouch for this hook if the strategy changes back.
+        manifest.remove(hookName);
+        if (!force && Files.isSymbolicLink(gitHookPath) && target.equals(Files.readSymbolicLink(gitHookPath))) {
+            return Outcome.SKIPPED;
+        }
+        try {
+            AtomicHookWriter.link(target, gitHookPath);
+            return Outcome.WRITTEN;
+        } catch (final IOException | UnsupportedOperationException e) {
+            warnLinksUnsupported("symbolic links", e);
+            return null;
+        }
+    }
+
+    /**
+     * Hard links the hook to its content in the store, adding the content to the store if needed. A hook whose source
+     * fingerprint is unchanged is confirmed as up to date by comparing the identity of the installed and stored files,
+     * without reading either. If hard links cannot be created, a warning is logged once and null is returned so that
+     * the hook is copied instead.
+     *
+     * @param hookName the name of the hook.
+     * @param source the content to install.
+     * @param gitHookPath the location of the hook.
+     * @return the outcome of linking the hook, or null if it could not be linked.
+     * @throws IOException if the source could not be read.
+     */
+    private Outcome hardLink(final String hookName, final HookSource source, final Path gitHookPath)
+        throws IOException {
+        final String location = source.getLocation();
+        final String fingerprint = source.getFingerprint();
+        final String recorded = force ? null : manifest.getDigest(hookName, location, fingerprint);
+        if (recorded != null && isSameFile(store.get(recorded), gitHookPath)) {
+            return Outcome.SKIPPED;
+        }
+
+        final String digest;
+        try (InputStream in = source.open()) {
+            digest = ContentDigest.of(in);
+        }
+        try {
+            final Path stored = store.put(digest, source);
+            if (!force && isSameFile(stored, gitHookPath)) {
+                manifest.update(hookName, location, fingerprint, digest, gitHookPath, true);
+                return Outcome.SKIPPED;
+            }
+            AtomicHookWriter.hardLink(stored, gitHookPath);
+        } catch (final IOException | UnsupportedOperationException e) {
+            warnLinksUnsupported("hard links to the hook store", e);
+            return null;
+        }
+        manifest.update(hookName, location, fingerprint, digest, gitHookPath, true);
+        return Outcome.WRITTEN;
+    }
+
+    /**
+     * Returns true if both files exist and are the same file, such as two hard links to the same content.
+     *
+     * @param first the first file.
+     * @param second the second file.
+     * @return whether the files are the same.
+     * @throws IOException if the files could not be compared.
+     */
+    private static boolean isSameFile(final Path first, final Path second) throws IOException {
+        return Files.exists(first) && Files.exists(second) && Files.isSameFile(first, second);
+    }
+
+    /**
+     * Notes that links cannot be created, so hooks will be copied instead, and logs a warning the first time.
+     *
+     * @param links a description of the links that could not be created.
+     * @param cause why the links could not be created.
+     */
+    private void warnLinksUnsupported(final String links, final Exception cause) {
+        if (!linksUnsupported.getAndSet(true)) {
+            log.warn("Could not create " + links + " in " + hooksDirectory + ", copying hooks instead: " + cause);
+        }
+    }
+
+    /**
+     * Returns true if the source content is identical to the installed hook, either according to the manifest or, if
+     * the manifest has no record of the hook, according to the content of the installed hook itself.
+     *
+     * @param hookName the name of the hook.
+     * @param location the configured location of the hook.
+     * @param digest the digest of the source content.
+     * @param gitHookPath the location of the installed hook.
+     * @param executable whether the installed hook must be executable.
+     * @return true if the hook does not need to be reinstalled.
+     * @throws IOException if the installed hook could not be read.
+     */
+    private boolean isUnchanged(final String hookName, final String location, final String digest,
+                                final Path gitHookPath, final boolean executable) throws IOException {
+        return manifest.isUnchanged(hookName, location, digest, gitHookPath)
+            || Files.isRegularFile(gitHookPath)
+            && (!executable || Files.isExecutable(gitHookPath))
+            && digest.equals(ContentDigest.of(gitHookPath));
+    }
+
+    /**
+     * Loads the manifest of previously installed hooks.
+     *
+     * @param manifestDirectory the directory in which the install manifest is kept.
+     * @return the manifest, which is empty if none could be read.
+     */
+    private HookManifest loadManifest(final Path manifestDirectory) {
+        try {
+            return HookManifest.load(manifestDirectory);
+        } catch (final IOException e) {
+            log.warn("Could not read the hook install manifest, all hooks will be reinstalled", e);
+            return new HookManifest(manifestDirectory);
+        }
+    }
+}
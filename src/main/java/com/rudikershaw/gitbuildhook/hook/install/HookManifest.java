@@ -0,0 +1,212 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Properties;
+
+import com.rudikershaw.gitbuildhook.files.AtomicFiles;
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+
+/**
+ * A record of the hooks previously installed by the plugin. For every hook the manifest records where it was
+ * installed from, a cheap fingerprint and digest of that source, and the size and modification time of the installed
+ * file. This allows unchanged hooks to be detected with a few stat calls rather than being rewritten on every build.
+ * The manifest may be shared between threads installing different hooks.
+ */
+public class HookManifest {
+
+    /** The name of the manifest file. */
+    public static final String FILE_NAME = "install-manifest.properties";
+
+    /** Suffix of the property recording the configured source of a hook. */
+    private static final String SOURCE = ".source";
+
+    /** Suffix of the property recording the fingerprint of the source of a hook. */
+    private static final String FINGERPRINT = ".fingerprint";
+
+    /** Suffix of the property recording the digest of the content of a hook. */
+    private static final String DIGEST = ".digest";
+
+    /** Suffix of the property recording the size and modification time of an installed hook. */
+    private static final String INSTALLED = ".installed";
+
+    /** Suffix of the property recording that an installed hook is hard linked to the hook store. */
+    private static final String LINKED = ".linked";
+
+    /** The location of the manifest file. */
+    private final Path file;
+
+    /** The manifest entries. */
+    private final Properties entries = new Properties();
+
+    /** Whether the entries have changed since the manifest was loaded. Guarded by the manifest. */
+    private boolean modified;
+
+    /**
+     * Constructor for an empty manifest.
+     *
+     * @param manifestDirectory the directory in which the manifest is kept.
+     */
+    public HookManifest(final Path manifestDirectory) {
+        file = manifestDirectory.resolve(FILE_NAME);
+    }
+
+    /**
+     * Loads the manifest from the provided directory, or creates an empty manifest if none exists yet.
+     *
+     * @param manifestDirectory the directory in which the manifest is kept.
+     * @return the manifest.
+     * @throws IOException if an existing manifest could not be read.
+     */
+    public static HookManifest load(final Path manifestDirectory) throws IOException {
+        final HookManifest manifest = new HookManifest(manifestDirectory);
+        if (Files.isRegularFile(manifest.file)) {
+            try (InputStream in = Files.newInputStream(manifest.file)) {
+                manifest.entries.load(in);
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns true if the hook was last installed from the same source, the source fingerprint is unchanged, and the
+     * installed hook has not been modified or removed since.
+     *
+     * @param hookName the name of the hook.
+     * @param source the configured source of the hook.
+     * @param fingerprint a cheap fingerprint of the source content, such as its size and modification time.
+     * @param installedHook the location of the installed hook.
+     * @return true if the hook does not need to be reinstalled.
+     */
+    public boolean isUpToDate(final String hookName, final String source, final String fingerprint,
+                              final Path installedHook) {
+        return fingerprint != null
+            && fingerprint.equals(entries.getProperty(hookName + FINGERPRINT))
+            && isInstalledFrom(hookName, source, installedHook);
+    }
+
+    /**
+     * Returns true if the hook was last installed from the same source, with content of the same digest, and the
+     * installed hook has not been modified or removed since.
+     *
+     * @param hookName the name of the hook.
+     * @param source the configured source of the hook.
+     * @param digest the digest of the source content.
+     * @param installedHook the location of the installed hook.
+     * @return true if the hook does not need to be reinstalled.
+     */
+    public boolean isUnchanged(final String hookName, final String source, final String digest,
+                               final Path installedHook) {
+        return digest.equals(entries.getProperty(hookName + DIGEST))
+            && isInstalledFrom(hookName, source, installedHook);
+    }
+
+    /**
+     * Gets the digest recorded for a hook, if it was last installed from the same source with the same fingerprint.
+     *
+     * @param hookName the name of the hook.
+     * @param source the configured source of the hook.
+     * @param fingerprint a cheap fingerprint of the source content.
+     * @return the recorded digest, or null if the source or its fingerprint has changed.
+     */
+    public String getDigest(final String hookName, final String source, final String fingerprint) {
+        if (fingerprint == null
+            || !fingerprint.equals(entries.getProperty(hookName + FINGERPRINT))
+            || !source.equals(entries.getProperty(hookName + SOURCE))) {
+            return null;
+        }
+        return entries.getProperty(hookName + DIGEST);
+    }
+
+    /**
+     * Returns true if the hook was last installed as a hard link to the hook store, so it must not be written in place.
+     *
+     * @param hookName the name of the hook.
+     * @return whether the installed hook is hard linked to the hook store.
+     */
+    public synchronized boolean isHardLinked(final String hookName) {
+        return entries.containsKey(hookName + LINKED);
+    }
+
+    /**
+     * Updates the entry of a hook that has been installed, or confirmed as up to date.
+     *
+     * @param hookName the name of the hook.
+     * @param source the configured source of the hook.
+     * @param fingerprint a cheap fingerprint of the source content, or null if there is none.
+     * @param digest the digest of the source content.
+     * @param installedHook the location of the installed hook.
+     * @param hardLinked whether the installed hook is hard linked to the hook store.
+     * @throws IOException if the installed hook could not be read.
+     */
+    public void update(final String hookName, final String source, final String fingerprint, final String digest,
+                       final Path installedHook, final boolean hardLinked) throws IOException {
+        final String installed = FileFingerprint.of(installedHook);
+        synchronized (this) {
+            set(hookName + SOURCE, source);
+            set(hookName + FINGERPRINT, fingerprint);
+            set(hookName + DIGEST, digest);
+            set(hookName + INSTALLED, installed);
+            set(hookName + LINKED, hardLinked ? "true" : null);
+        }
+    }
+
+    /**
+     * Removes the entry of a hook, so that it is no longer considered installed.
+     *
+     * @param hookName the name of the hook.
+     */
+    public synchronized void remove(final String hookName) {
+        set(hookName + SOURCE, null);
+        set(hookName + FINGERPRINT, null);
+        set(hookName + DIGEST, null);
+        set(hookName + INSTALLED, null);
+        set(hookName + LINKED, null);
+    }
+
+    /**
+     * Saves the manifest if any of its entries have changed.
+     *
+     * @throws IOException if the manifest could not be written.
+     */
+    public synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        AtomicFiles.write(file, out -> entries.store(out, "Hooks installed by the git-build-hook-maven-plugin"));
+        modified = false;
+    }
+
+    /**
+     * Returns true if the recorded source matches and the installed hook has the recorded size and modification time.
+     *
+     * @param hookName the name of the hook.
+     * @param source the configured source of the hook.
+     * @param installedHook the location of the installed hook.
+     * @return true if the installed hook is as recorded.
+     */
+    private boolean isInstalledFrom(final String hookName, final String source, final Path installedHook) {
+        final String installed = entries.getProperty(hookName + INSTALLED);
+        try {
+            return source.equals(entries.getProperty(hookName + SOURCE))
+                && installed != null
+                && installed.equals(FileFingerprint.of(installedHook));
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets a manifest entry, noting whether the manifest has been modified.
+     *
+     * @param key the entry key.
+     * @param value the entry value, or null to remove the entry.
+     */
+    private void set(final String key, final String value) {
+        final Object previous = value == null ? entries.remove(key) : entries.setProperty(key, value);
+        modified |= !Objects.equals(previous, value);
+    }
+}
@@ -0,0 +1,32 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** A source of content to install as a hook. */
+public interface HookSource {
+
+    /**
+     * Gets the location the hook was configured to be installed from, which identifies the source in the manifest.
+     *
+     * @return the configured location.
+     */
+    String getLocation();
+
+    /**
+     * Gets a fingerprint of the content that can be calculated without reading it, such as its size and modification
+     * time, or null if there is no such fingerprint. The fingerprint must change whenever the content does.
+     *
+     * @return the fingerprint, or null.
+     * @throws IOException if the fingerprint could not be calculated.
+     */
+    String getFingerprint() throws IOException;
+
+    /**
+     * Opens the content of the hook for reading. The caller must close the stream.
+     *
+     * @return the content.
+     * @throws IOException if the content could not be opened.
+     */
+    InputStream open() throws IOException;
+}
@@ -0,0 +1,190 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Watches the sources of hooks for changes. Individual files are watched through the directory containing them, and
+ * directory trees, such as a hook bundle, through every directory within them, including directories created while
+ * they are watched. A burst of changes, such as an editor saving a file in several steps, is reported as one.
+ */
+public class HookSourceWatcher implements Closeable {
+
+    /** The service notifying the watcher of changes. */
+    private final WatchService service;
+
+    /** The directory each watch key was registered for. */
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /** The individual files watched. */
+    private final Set<Path> files = new HashSet<>();
+
+    /** The root directories of the directory trees watched. */
+    private final Set<Path> trees = new HashSet<>();
+
+    /** How long, in milliseconds, to wait for further changes before reporting a change. */
+    private final long debounceMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param debounce how long, in milliseconds, to wait for further changes before reporting a change.
+     * @throws IOException if the file system cannot be watched.
+     */
+    public HookSourceWatcher(final long debounce) throws IOException {
+        service = FileSystems.getDefault().newWatchService();
+        debounceMillis = debounce;
+    }
+
+    /**
+     * Watches a single file for changes, including it being replaced, deleted or created.
+     *
+     * @param file the file to watch.
+     * @throws IOException if the directory containing the file could not be watched.
+     */
+    public void watchFile(final Path file) throws IOException {
+        final Path absoluteFile = file.toAbsolutePath().normalize();
+        final Path directory = absoluteFile.getParent();
+        if (directory == null) {
+            throw new IOException("Cannot watch " + absoluteFile + " for changes.");
+        }
+        files.add(absoluteFile);
+        register(directory);
+    }
+
+    /**
+     * Watches every file within a directory tree for changes.
+     *
+     * @param directory the root directory of the tree.
+     * @throws IOException if any directory within the tree could not be watched.
+     */
+    public void watchTree(final Path directory) throws IOException {
+        final Path absoluteDirectory = directory.toAbsolutePath().normalize();
+        trees.add(absoluteDirectory);
+        registerTree(absoluteDirectory);
+    }
+
+    /**
+     * Waits for any watched file to change, then for the changes to settle, and gets every watched file that changed.
+     *
+     * @param timeoutMillis how long, in milliseconds, to wait for a change, or zero or less to wait until one happens.
+     * @return the absolute paths of the changed files, or none if nothing changed before the timeout.
+     * @throws IOException if a directory created within a watched tree could not be watched.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Set<Path> awaitChanges(final long timeoutMillis) throws IOException, InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        final Set<Path> changed = new TreeSet<>();
+        while (changed.isEmpty()) {
+            final WatchKey key;
+            if (timeoutMillis > 0) {
+                final long remaining = deadline - System.nanoTime();
+                key = remaining > 0 ? service.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (key == null) {
+                    return changed;
+                }
+            } else {
+                key = service.take();
+            }
+            collect(key, changed);
+        }
+        for (WatchKey key = service.poll(debounceMillis, TimeUnit.MILLISECONDS); key != null;
+             key = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) {
+            collect(key, changed);
+        }
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    /**
+     * Adds the watched files changed by the events of a watch key, and resets the key to receive further events.
+     *
+     * @param key the signalled watch key.
+     * @param changed the changed files, to which the files changed by the key's events are added.
+     * @throws IOException if a directory created within a watched tree could not be watched.
+     */
+    private void collect(final WatchKey key, final Set<Path> changed) throws IOException {
+        final Path directory = directories.get(key);
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so anything watched may have changed.
+                changed.addAll(files);
+                changed.addAll(trees);
+            } else if (directory != null) {
+                final Path path = directory.resolve((Path) event.context());
+                final boolean inTree = isInTree(path);
+                final boolean created = event.kind() == StandardWatchEventKinds.ENTRY_CREATE;
+                if (inTree && created && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    registerTree(path);
+                }
+                if (inTree || files.contains(path)) {
+                    changed.add(path);
+                }
+            }
+        }
+        if (!key.reset()) {
+            directories.remove(key);
+        }
+    }
+
+    /**
+     * Returns true if the path is within a watched directory tree.
+     *
+     * @param path the absolute path.
+     * @return whether the path is within a watched tree.
+     */
+    private boolean isInTree(final Path path) {
+        for (final Path tree : trees) {
+            if (path.startsWith(tree)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Watches a directory and every directory within it.
+     *
+     * @param directory the root directory.
+     * @throws IOException if any of the directories could not be watched.
+     */
+    private void registerTree(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            final Iterator<Path> iterator = paths.filter(Files::isDirectory).iterator();
+            while (iterator.hasNext()) {
+                register(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Watches the entries of a single directory.
+     *
+     * @param directory the directory.
+     * @throws IOException if the directory could not be watched.
+     */
+    private void register(final Path directory) throws IOException {
+        directories.put(directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), directory);
+    }
+}
@@ -0,0 +1,31 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/** Resolves configured hook locations to the source of their content. */
+public final class HookSources {
+
+    /** Private constructor for utility class. */
+    private HookSources() {
+    }
+
+    /**
+     * Resolves a configured hook location, which is either a file on the file system or a resource on the class path
+     * of the provided class loader.
+     *
+     * @param location the configured location of the hook.
+     * @param loader the class loader to search for class path resources.
+     * @return the source of the hook, or null if the location could not be found.
+     * @throws IOException if the class path could not be searched.
+     */
+    public static HookSource resolve(final String location, final ClassLoader loader) throws IOException {
+        final Path file = Paths.get(location);
+        if (Files.isRegularFile(file)) {
+            return new FileHookSource(location, file);
+        }
+        return ClasspathHookIndex.find(loader, location);
+    }
+}
@@ -0,0 +1,88 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import com.rudikershaw.gitbuildhook.files.ContentDigest;
+
+/**
+ * A content-addressed store of hook content, shared between every repository on a machine. Content is stored once by
+ * digest, made read-only, and hard linked into the hooks directory of each repository, so that installing an
+ * unchanged hook into another clone writes nothing.
+ */
+public class HookStore {
+
+    /** The permissions given to stored hooks on file systems supporting POSIX permissions. */
+    private static final Set<PosixFilePermission> STORED_PERMISSIONS = PosixFilePermissions.fromString("r-xr-xr-x");
+
+    /** The number of leading digest characters used to name the subdirectory content is stored in. */
+    private static final int FAN_OUT = 2;
+
+    /** The root directory of the store. */
+    private final Path directory;
+
+    /**
+     * Constructor.
+     *
+     * @param storeDirectory the root directory of the store.
+     */
+    public HookStore(final Path storeDirectory) {
+        directory = storeDirectory;
+    }
+
+    /**
+     * Gets the location at which content with the provided digest is, or would be, stored.
+     *
+     * @param digest the digest of the content.
+     * @return the location of the content in the store.
+     */
+    public Path get(final String digest) {
+        return directory.resolve(digest.substring(0, FAN_OUT)).resolve(digest);
+    }
+
+    /**
+     * Stores the content of the source, unless content with the same digest is already stored.
+     *
+     * @param digest the digest of the source content.
+     * @param source the content to store.
+     * @return the location of the content in the store.
+     * @throws IOException if the content could not be stored, or no longer matches the digest.
+     */
+    public Path put(final String digest, final HookSource source) throws IOException {
+        final Path stored = get(digest);
+        if (Files.isRegularFile(stored)) {
+            return stored;
+        }
+        Files.createDirectories(directory.resolve(digest.substring(0, FAN_OUT)));
+        try (InputStream in = source.open()) {
+            AtomicHookWriter.write(in, stored);
+        }
+        // The source may have changed since it was digested, and stored content must always match its name.
+        if (!digest.equals(ContentDigest.of(stored))) {
+            Files.deleteIfExists(stored);
+            throw new IOException("'" + source.getLocation() + "' changed while it was being installed");
+        }
+        makeReadOnly(stored);
+        return stored;
+    }
+
+    /**
+     * Makes stored content read-only, so that it cannot be modified through any of the hooks linked to it.
+     *
+     * @param stored the stored content.
+     * @throws IOException if the permissions could not be changed.
+     */
+    private static void makeReadOnly(final Path stored) throws IOException {
+        if (Files.getFileAttributeView(stored, PosixFileAttributeView.class) != null) {
+            Files.setPosixFilePermissions(stored, STORED_PERMISSIONS);
+        } else if (!stored.toFile().setWritable(false)) {
+            throw new IOException("Could not make " + stored + " read-only");
+        }
+    }
+}
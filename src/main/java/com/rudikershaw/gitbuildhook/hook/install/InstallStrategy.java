@@ -0,0 +1,66 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+/** How hooks are made available to Git. */
+public enum InstallStrategy {
+
+    /** Copy each hook into the hooks directory of the repository. */
+    COPY("copy"),
+
+    /**
+     * Link each hook in the hooks directory of the repository to its source file, so that edits to the source are
+     * seen by Git immediately. Hooks from the class path, or on file systems without symbolic links, are copied.
+     */
+    SYMLINK("symlink"),
+
+    /**
+     * Generate a directory of hooks that run their source files, and point core.hooksPath at it. Hooks from the class
+     * path are copied into the generated directory.
+     */
+    HOOKS_PATH("hooksPath"),
+
+    /**
+     * Store each hook once by digest in a store shared between repositories, and hard link each hook in the hooks
+     * directory of the repository to the stored content. Hooks are copied where the store is on another file system.
+     */
+    HARDLINK("hardlink");
+
+    /** The name used to configure the strategy. */
+    private final String configName;
+
+    /**
+     * Constructor.
+     *
+     * @param name the name used to configure the strategy.
+     */
+    InstallStrategy(final String name) {
+        configName = name;
+    }
+
+    /**
+     * Gets the strategy with the provided configuration name, ignoring case.
+     *
+     * @param name the configured name of the strategy.
+     * @return the strategy.
+     * @throws MojoFailureException if there is no strategy with the provided name.
+     */
+    public static InstallStrategy fromName(final String name) throws MojoFailureException {
+        for (final InstallStrategy strategy : values()) {
+            if (strategy.configName.equalsIgnoreCase(name)) {
+                return strategy;
+            }
+        }
+        throw new MojoFailureException("'" + name + "' is not a valid install strategy, expected copy, symlink, "
+            + "hooksPath or hardlink.");
+    }
+
+    /**
+     * Gets the name used to configure the strategy.
+     *
+     * @return the configuration name.
+     */
+    public String getConfigName() {
+        return configName;
+    }
+}
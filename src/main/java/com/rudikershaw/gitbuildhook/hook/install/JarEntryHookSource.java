@@ -0,0 +1,94 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A hook installed from an entry of a jar on the class path. The fingerprint comes from the size and CRC recorded in
+ * the jar's central directory, so an unchanged hook is detected without reading it, even if the jar is rebuilt.
+ */
+public class JarEntryHookSource implements HookSource {
+
+    /** The configured location of the hook, which is also the name of the jar entry. */
+    private final String location;
+
+    /** The jar containing the hook. */
+    private final Path jar;
+
+    /** The uncompressed size of the entry. */
+    private final long size;
+
+    /** The CRC-32 of the entry, or -1 if not known. */
+    private final long crc;
+
+    /**
+     * Constructor.
+     *
+     * @param entryName the name of the jar entry, as configured.
+     * @param jarFile the jar containing the hook.
+     * @param entrySize the uncompressed size of the entry.
+     * @param entryCrc the CRC-32 of the entry, or -1 if not known.
+     */
+    public JarEntryHookSource(final String entryName, final Path jarFile, final long entrySize, final long entryCrc) {
+        location = entryName;
+        jar = jarFile;
+        size = entrySize;
+        crc = entryCrc;
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return crc == -1 ? null : "crc32:" + Long.toHexString(crc) + ":" + size;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        final ZipFile zip = new ZipFile(jar.toFile());
+        try {
+            final ZipEntry entry = zip.getEntry(location);
+            if (entry == null) {
+                throw new IOException("'" + location + "' is no longer present in " + jar);
+            }
+            return new ZipEntryInputStream(zip, zip.getInputStream(entry));
+        } catch (final IOException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /** A stream over a jar entry that closes the jar along with the stream. */
+    private static final class ZipEntryInputStream extends FilterInputStream {
+
+        /** The jar the entry belongs to. */
+        private final ZipFile zip;
+
+        /**
+         * Constructor.
+         *
+         * @param entryZip the jar the entry belongs to.
+         * @param entryStream the stream of the entry content.
+         */
+        ZipEntryInputStream(final ZipFile entryZip, final InputStream entryStream) {
+            super(entryStream);
+            zip = entryZip;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                zip.close();
+            }
+        }
+    }
+}
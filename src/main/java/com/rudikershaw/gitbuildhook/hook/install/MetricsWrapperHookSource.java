@@ -0,0 +1,70 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A generated hook that runs the hook installed alongside it with a suffix, and appends how long it took and its exit
+ * code to the metrics file. Durations are measured in milliseconds where date supports nanoseconds, and to the second
+ * otherwise.
+ */
+public class MetricsWrapperHookSource implements HookSource {
+
+    /** The suffix of the name the wrapped hook is installed under. */
+    public static final String WRAPPED_SUFFIX = ".wrapped";
+
+    /** The name of the hook. */
+    private final String hookName;
+
+    /** The content of the generated hook. */
+    private final byte[] content;
+
+    /**
+     * Constructor.
+     *
+     * @param hook the name of the hook.
+     * @param metricsFile the metrics file to append to.
+     */
+    public MetricsWrapperHookSource(final String hook, final Path metricsFile) {
+        hookName = hook;
+        final String metrics = "'" + metricsFile.toAbsolutePath().toString().replace('\\', '/').replace("'", "'\\''")
+            + "'";
+        content = ("#!/bin/sh\n"
+            + "# Generated by the git-build-hook-maven-plugin. Runs " + hook + WRAPPED_SUFFIX
+            + " and records how long it took.\n"
+            + "now() {\n"
+            + "    nanos=$(date +%s%N 2> /dev/null)\n"
+            + "    case \"$nanos\" in\n"
+            + "        ''|*[!0-9]*) echo \"$(($(date +%s) * 1000))\" ;;\n"
+            + "        *) echo \"$((nanos / 1000000))\" ;;\n"
+            + "    esac\n"
+            + "}\n"
+            + "hook=\"$(dirname \"$0\")/" + hook + WRAPPED_SUFFIX + "\"\n"
+            + "start=$(now)\n"
+            + "if [ -x \"$hook\" ]; then\n"
+            + "    \"$hook\" \"$@\"\n"
+            + "else\n"
+            + "    sh \"$hook\" \"$@\"\n"
+            + "fi\n"
+            + "status=$?\n"
+            + "echo \"$start " + hook + " $status $(($(now) - start))\" >> " + metrics + " 2> /dev/null\n"
+            + "exit \"$status\"\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getLocation() {
+        return "metrics:" + hookName;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return null;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(content);
+    }
+}
@@ -0,0 +1,109 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.rudikershaw.gitbuildhook.runner.RunnerClient;
+
+/**
+ * A generated hook that runs Maven goals, in the warm runner started by the runner goal if it is running, or with a
+ * new Maven process otherwise. The hook's arguments and standard input are passed to the build as the
+ * gitbuildhook.hook.args and gitbuildhook.hook.stdin user properties, and its name as gitbuildhook.hook.name. Each
+ * argument is also passed whole as gitbuildhook.hook.arg.1, gitbuildhook.hook.arg.2 and so on.
+ */
+public class RunnerStubHookSource implements HookSource {
+
+    /** The name of the hook. */
+    private final String hookName;
+
+    /** The content of the generated hook. */
+    private final byte[] content;
+
+    /**
+     * Constructor.
+     *
+     * @param hook the name of the hook.
+     * @param goals the goals to run, which may include -Dkey=value user properties.
+     * @param pom the POM to build, either absolute or relative to the top of the work tree, where Git runs hooks. A
+     *            relative POM lets the hook build whichever worktree of the repository it is run in.
+     * @param runnerFile the runner file of the repository.
+     * @param clientJar the jar containing the runner client, which is the plugin jar.
+     * @param java the java executable the runner client is run with.
+     * @param maven the Maven executable used when no runner is running.
+     */
+    public RunnerStubHookSource(final String hook, final List<String> goals, final Path pom, final Path runnerFile,
+                                final Path clientJar, final String java, final String maven) {
+        hookName = hook;
+        final StringBuilder quotedGoals = new StringBuilder();
+        for (final String goal : goals) {
+            quotedGoals.append(' ').append(quote(goal));
+        }
+        final String pomPath = pom.isAbsolute() ? quote(pom.toString()) : "\"$PWD\"/" + quote(pom.toString());
+        content = ("#!/bin/sh\n"
+            + "# Generated by the git-build-hook-maven-plugin. Runs" + quotedGoals + " in the runner started by the\n"
+            + "# runner goal, or with a new Maven process if no runner is running.\n"
+            + "runner=" + quote(runnerFile.toAbsolutePath().toString()) + "\n"
+            + "client=" + quote(clientJar.toAbsolutePath().toString()) + "\n"
+            + "pom=" + pomPath + "\n"
+            // Standard input is spooled to a file, so that it reaches the new Maven process unchanged if the runner
+            // turns out to be unavailable after reading it.
+            + "input=$(mktemp \"${TMPDIR:-/tmp}/git-build-hook-stdin.XXXXXX\") || exit 1\n"
+            + "trap 'rm -f \"$input\"' EXIT\n"
+            + "if [ ! -t 0 ]; then\n"
+            + "    cat > \"$input\"\n"
+            + "fi\n"
+            + "if [ -f \"$runner\" ] && [ -f \"$client\" ]; then\n"
+            + "    " + quote(java) + " -cp \"$client\" " + RunnerClient.class.getName()
+            + " \"$runner\" " + quote(hook) + " \"$pom\" " + quote(String.join(" ", goals)) + " \"$@\" < \"$input\"\n"
+            + "    status=$?\n"
+            + "    if [ \"$status\" -ne " + RunnerClient.UNAVAILABLE + " ]; then\n"
+            + "        exit \"$status\"\n"
+            + "    fi\n"
+            + "fi\n"
+            // Command substitution strips trailing newlines, which the x keeps until it is removed.
+            + "stdin=$(cat \"$input\"; printf x)\n"
+            + "stdin=${stdin%x}\n"
+            + "rm -f \"$input\"\n"
+            + "args=\"$*\"\n"
+            // Replace the arguments with a property for each, so that arguments containing spaces are kept whole.
+            + "count=$#\n"
+            + "i=0\n"
+            + "for arg in \"$@\"; do\n"
+            + "    i=$((i + 1))\n"
+            + "    set -- \"$@\" \"-Dgitbuildhook.hook.arg.$i=$arg\"\n"
+            + "done\n"
+            + "shift \"$count\"\n"
+            + "exec " + quote(maven) + " -B -f \"$pom\"" + quotedGoals
+            + " -Dgitbuildhook.hook.name=" + quote(hook)
+            + " -Dgitbuildhook.hook.args=\"$args\" -Dgitbuildhook.hook.stdin=\"$stdin\" \"$@\" < /dev/null\n")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Quotes a value for the shell, using forward slashes in place of backslashes so paths work in Git for Windows.
+     *
+     * @param value the value to quote.
+     * @return the quoted value.
+     */
+    private static String quote(final String value) {
+        return "'" + value.replace('\\', '/').replace("'", "'\\''") + "'";
+    }
+
+    @Override
+    public String getLocation() {
+        return "runner:" + hookName;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return null;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(content);
+    }
+}
@@ -0,0 +1,51 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * A generated hook that runs a hook script where it is, so that edits to the script are seen by Git immediately. The
+ * script is run directly if executable, or with sh otherwise.
+ */
+public class StubHookSource implements HookSource {
+
+    /** The configured location of the hook. */
+    private final String location;
+
+    /** The content of the generated hook. */
+    private final byte[] content;
+
+    /**
+     * Constructor.
+     *
+     * @param configuredLocation the configured location of the hook.
+     * @param script the hook script to run.
+     */
+    public StubHookSource(final String configuredLocation, final Path script) {
+        location = configuredLocation;
+        final String quoted = "'" + script.toAbsolutePath().toString().replace('\\', '/').replace("'", "'\\''") + "'";
+        content = ("#!/bin/sh\n"
+            + "# Generated by the git-build-hook-maven-plugin.\n"
+            + "if [ -x " + quoted + " ]; then\n"
+            + "    exec " + quoted + " \"$@\"\n"
+            + "fi\n"
+            + "exec sh " + quoted + " \"$@\"\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFingerprint() {
+        return null;
+    }
+
+    @Override
+    public InputStream open() {
+        return new ByteArrayInputStream(content);
+    }
+}
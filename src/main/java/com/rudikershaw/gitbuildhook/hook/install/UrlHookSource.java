@@ -0,0 +1,74 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+
+/** A hook installed from a class path resource that has not been indexed, read through its URL. */
+public class UrlHookSource implements HookSource {
+
+    /** The configured location of the hook. */
+    private final String location;
+
+    /** The URL of the resource. */
+    private final URL resource;
+
+    /**
+     * Constructor.
+     *
+     * @param configuredLocation the configured location of the hook.
+     * @param resourceUrl the URL of the resource.
+     */
+    public UrlHookSource(final String configuredLocation, final URL resourceUrl) {
+        location = configuredLocation;
+        resource = resourceUrl;
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFingerprint() throws IOException {
+        final Path file = toFile();
+        if (file != null) {
+            return resource + ":" + FileFingerprint.of(file);
+        }
+        final URLConnection connection = resource.openConnection();
+        connection.setUseCaches(false);
+        try {
+            return resource + ":" + connection.getContentLengthLong() + ":" + connection.getLastModified();
+        } finally {
+            connection.getInputStream().close();
+        }
+    }
+
+    /**
+     * Returns the file the resource is read from, so that it can be fingerprinted without opening a connection.
+     *
+     * @return the file, or null if the resource is not a file.
+     */
+    private Path toFile() {
+        if (!"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(resource.toURI());
+        } catch (final URISyntaxException e) {
+            // Not a valid file URI, read its attributes through a connection instead.
+            return null;
+        }
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return resource.openStream();
+    }
+}
@@ -0,0 +1,2 @@
+/** Package containing classes that support the installation of Git hooks. */
+package com.rudikershaw.gitbuildhook.hook.install;
@@ -119,4 +119,14 @@ public enum GitHookType {
     public static boolean isValidHookName(final String filename) {
         return Arrays.stream(values()).anyMatch(h -> h.getHookFileName().equals(filename));
     }
+
+    /**
+     * Gets the hook type with the provided file name.
+     *
+     * @param filename the file name of the hook.
+     * @return the hook type, or null if the file name is not a valid hook name.
+     */
+    public static GitHookType fromHookFileName(final String filename) {
+        return Arrays.stream(values()).filter(h -> h.getHookFileName().equals(filename)).findFirst().orElse(null);
+    }
 }
@@ -0,0 +1,136 @@
+package com.rudikershaw.gitbuildhook.metrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.rudikershaw.gitbuildhook.files.AtomicFiles;
+import com.rudikershaw.gitbuildhook.hook.type.GitHookType;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+
+/**
+ * The metrics file hooks installed with metrics enabled append a line to each time they run, and the summaries made
+ * from it. Each line holds the time the run started in milliseconds since the epoch, the hook name, the exit code, and
+ * the duration in milliseconds, separated by spaces. Lines that cannot be parsed, such as one left partly written, are
+ * ignored.
+ */
+public final class HookMetrics {
+
+    /** The name of the metrics file within the plugin's directory. */
+    public static final String FILE_NAME = "metrics.log";
+
+    /** The number of fields in a line of the metrics file. */
+    private static final int FIELDS = 4;
+
+    /** The index of the exit code field. */
+    private static final int EXIT_CODE_FIELD = 2;
+
+    /** The index of the duration field. */
+    private static final int DURATION_FIELD = 3;
+
+    /** The median. */
+    public static final double P50 = 0.5;
+
+    /** The 95th percentile. */
+    public static final double P95 = 0.95;
+
+    /** Milliseconds in a second. */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /** The prefix of the names of the Prometheus metrics written. */
+    private static final String METRIC = "git_build_hook_duration_seconds";
+
+    /** Private constructor for utility class. */
+    private HookMetrics() {
+    }
+
+    /**
+     * Gets the location of the metrics file for a git directory.
+     *
+     * @param gitDir the git directory.
+     * @return the location of the metrics file.
+     */
+    public static Path locate(final File gitDir) {
+        return gitDir.toPath().toAbsolutePath().resolve(GitRepository.PLUGIN_DIRECTORY).resolve(FILE_NAME);
+    }
+
+    /**
+     * Reads the metrics file and summarises the runs of each type of hook.
+     *
+     * @param file the metrics file.
+     * @return the runs by hook type in the order of the hook types, empty if the file does not exist.
+     * @throws IOException if the file could not be read.
+     */
+    public static Map<GitHookType, HookTimings> summarise(final Path file) throws IOException {
+        final Map<GitHookType, HookTimings> timings = new EnumMap<>(GitHookType.class);
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                final String[] fields = line.trim().split(" ");
+                final GitHookType type = fields.length == FIELDS ? GitHookType.fromHookFileName(fields[1]) : null;
+                if (type != null && fields[EXIT_CODE_FIELD].matches("\\d{1,9}")
+                    && fields[DURATION_FIELD].matches("\\d{1,18}")) {
+                    timings.computeIfAbsent(type, t -> new HookTimings())
+                        .add(Long.parseLong(fields[DURATION_FIELD]), Integer.parseInt(fields[EXIT_CODE_FIELD]));
+                }
+            }
+        } catch (final NoSuchFileException e) {
+            return timings;
+        }
+        return timings;
+    }
+
+    /**
+     * Writes the summaries in the Prometheus text format, as read by the textfile collector of the node exporter. The
+     * file is written under a temporary name and moved into place so the collector never reads it partly written.
+     *
+     * @param timings the runs by hook type.
+     * @param file the file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public static void writePrometheus(final Map<GitHookType, HookTimings> timings, final Path file)
+        throws IOException {
+        AtomicFiles.write(file, stream -> {
+            final Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            out.write("# HELP " + METRIC + " How long Git hooks took to run.\n");
+            out.write("# TYPE " + METRIC + " summary\n");
+            for (final Map.Entry<GitHookType, HookTimings> entry : timings.entrySet()) {
+                final String hook = "hook=\"" + entry.getKey().getHookFileName() + "\"";
+                final HookTimings timing = entry.getValue();
+                out.write(METRIC + "{" + hook + ",quantile=\"0.5\"} "
+                    + seconds(timing.getPercentileMillis(P50)) + "\n");
+                out.write(METRIC + "{" + hook + ",quantile=\"0.95\"} "
+                    + seconds(timing.getPercentileMillis(P95)) + "\n");
+                out.write(METRIC + "{" + hook + ",quantile=\"1\"} " + seconds(timing.getMaxMillis()) + "\n");
+                out.write(METRIC + "_sum{" + hook + "} " + seconds(timing.getTotalMillis()) + "\n");
+                out.write(METRIC + "_count{" + hook + "} " + timing.getCount() + "\n");
+            }
+            out.write("# HELP git_build_hook_failures_total Git hook runs that exited with a non-zero code.\n");
+            out.write("# TYPE git_build_hook_failures_total counter\n");
+            for (final Map.Entry<GitHookType, HookTimings> entry : timings.entrySet()) {
+                out.write("git_build_hook_failures_total{hook=\"" + entry.getKey().getHookFileName() + "\"} "
+                    + entry.getValue().getFailures() + "\n");
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Formats a duration in seconds to millisecond precision, as Prometheus expects.
+     *
+     * @param millis the duration in milliseconds.
+     * @return the duration in seconds.
+     */
+    public static String seconds(final long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / MILLIS_PER_SECOND);
+    }
+}
@@ -0,0 +1,97 @@
+package com.rudikershaw.gitbuildhook.metrics;
+
+import java.util.Arrays;
+
+/** The recorded runs of a single type of hook. */
+public final class HookTimings {
+
+    /** The initial capacity of the durations array. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The duration of each run in milliseconds, sorted once all runs have been added. */
+    private long[] durations = new long[INITIAL_CAPACITY];
+
+    /** The number of runs. */
+    private int count;
+
+    /** The number of runs that exited with a non-zero exit code. */
+    private int failures;
+
+    /** Whether the durations are currently sorted. */
+    private boolean sorted = true;
+
+    /**
+     * Adds a run.
+     *
+     * @param durationMillis the duration of the run in milliseconds.
+     * @param exitCode the exit code of the run.
+     */
+    void add(final long durationMillis, final int exitCode) {
+        if (count == durations.length) {
+            durations = Arrays.copyOf(durations, count * 2);
+        }
+        durations[count++] = durationMillis;
+        sorted = false;
+        if (exitCode != 0) {
+            failures++;
+        }
+    }
+
+    /**
+     * Gets the number of runs.
+     *
+     * @return the number of runs.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of runs that exited with a non-zero exit code.
+     *
+     * @return the number of failed runs.
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Gets the total duration of every run.
+     *
+     * @return the total duration in milliseconds.
+     */
+    public long getTotalMillis() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += durations[i];
+        }
+        return total;
+    }
+
+    /**
+     * Gets the duration that the provided fraction of runs took no longer than, by the nearest rank method.
+     *
+     * @param fraction the fraction of runs, such as 0.95 for the 95th percentile.
+     * @return the duration in milliseconds, or zero if there are no runs.
+     */
+    public long getPercentileMillis(final double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(durations, 0, count);
+            sorted = true;
+        }
+        final int rank = (int) Math.ceil(fraction * count);
+        return durations[Math.min(count, Math.max(rank, 1)) - 1];
+    }
+
+    /**
+     * Gets the duration of the longest run.
+     *
+     * @return the duration in milliseconds, or zero if there are no runs.
+     */
+    public long getMaxMillis() {
+        return getPercentileMillis(1);
+    }
+}
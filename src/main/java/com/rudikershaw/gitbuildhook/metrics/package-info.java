@@ -0,0 +1,2 @@
+/** Package containing classes that record and summarise how long Git hooks take to run. */
+package com.rudikershaw.gitbuildhook.metrics;
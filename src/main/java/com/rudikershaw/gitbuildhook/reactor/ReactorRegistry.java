@@ -0,0 +1,196 @@
+package com.rudikershaw.gitbuildhook.reactor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Registry of the work performed by the plugin during a single Maven session, shared by every module of the reactor.
+ * Allows work that only needs doing once per repository, rather than once per module, to be claimed by the first
+ * module that gets to it, including when modules are built in parallel. Other modules wait for the claimant to finish
+ * the work, and take it over if the claimant fails.
+ */
+public final class ReactorRegistry {
+
+    /**
+     * Registries by the execution request of the session they belong to. Maven gives each module in a parallel build
+     * its own copy of the session, but every copy shares the same request.
+     */
+    private static final Map<MavenExecutionRequest, ReactorRegistry> REGISTRIES = new WeakHashMap<>();
+
+    /** The claim on each piece of work, by the key of the work. */
+    private final ConcurrentMap<String, Claim> claims = new ConcurrentHashMap<>();
+
+    /** State shared between modules, by key. */
+    private final ConcurrentMap<String, Object> shared = new ConcurrentHashMap<>();
+
+    /** The actions to run once the session ends, by key, in the order they were added. */
+    private final Map<String, Runnable> sessionEndActions = new LinkedHashMap<>();
+
+    /** Whether the session's execution listener has been replaced to run the actions once the session ends. */
+    private boolean listening;
+
+    /** Private constructor, registries are obtained per session. */
+    private ReactorRegistry() {
+    }
+
+    /**
+     * Gets the registry for the provided Maven session, creating it if it does not already exist.
+     *
+     * @param session the current Maven session.
+     * @return the registry for the session.
+     */
+    public static ReactorRegistry of(final MavenSession session) {
+        synchronized (REGISTRIES) {
+            return REGISTRIES.computeIfAbsent(session.getRequest(), r -> new ReactorRegistry());
+        }
+    }
+
+    /**
+     * Gets the identifier used by the registry for a module of the reactor.
+     *
+     * @param project the module.
+     * @return the module's group and artifact id.
+     */
+    public static String moduleId(final MavenProject project) {
+        return project.getGroupId() + ":" + project.getArtifactId();
+    }
+
+    /**
+     * Gets state shared between the modules of the reactor, creating it if no module has yet done so.
+     *
+     * @param key a key uniquely identifying the state.
+     * @param type the type of the state.
+     * @param factory creates the state if it does not already exist.
+     * @param <T> the type of the state.
+     * @return the shared state.
+     */
+    public <T> T getShared(final String key, final Class<T> type, final Supplier<T> factory) {
+        return type.cast(shared.computeIfAbsent(key, k -> factory.get()));
+    }
+
+    /**
+     * Adds an action to run once the session ends, whether or not the build succeeded, such as work left waiting for
+     * modules that failed, were skipped, or never ran the goal expected of them. Only the first action added with a
+     * key is kept.
+     *
+     * @param session the current Maven session.
+     * @param key a key uniquely identifying the action.
+     * @param action the action to run.
+     */
+    public void atSessionEnd(final MavenSession session, final String key, final Runnable action) {
+        synchronized (sessionEndActions) {
+            if (!listening) {
+                final MavenExecutionRequest request = session.getRequest();
+                request.setExecutionListener(new SessionEndListener(request.getExecutionListener(),
+                    this::runSessionEndActions));
+                listening = true;
+            }
+            sessionEndActions.putIfAbsent(key, action);
+        }
+    }
+
+    /** Runs, and then forgets, the actions added to run once the session ends. */
+    private void runSessionEndActions() {
+        final List<Runnable> actions;
+        synchronized (sessionEndActions) {
+            actions = new ArrayList<>(sessionEndActions.values());
+            sessionEndActions.clear();
+        }
+        for (final Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    /**
+     * Attempts to claim a piece of work on behalf of a module. The claimant must either complete or release the claim.
+     *
+     * @param key a key uniquely identifying the work.
+     * @param moduleId the id of the module claiming the work.
+     * @return null if the claim succeeded, otherwise the id of the module that has already claimed the work.
+     */
+    public String claim(final String key, final String moduleId) {
+        final Claim existing = claims.putIfAbsent(key, new Claim(moduleId));
+        return existing == null ? null : existing.moduleId;
+    }
+
+    /**
+     * Marks claimed work as done, so that modules waiting for it carry on without doing it themselves.
+     *
+     * @param key the key identifying the work.
+     * @param moduleId the id of the module that claimed the work.
+     */
+    public void complete(final String key, final String moduleId) {
+        final Claim claim = claims.get(key);
+        if (claim != null && claim.moduleId.equals(moduleId)) {
+            claim.result.complete(Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Releases a claim so that another module may perform the work instead, typically because it failed.
+     *
+     * @param key the key identifying the work.
+     * @param moduleId the id of the module that claimed the work.
+     */
+    public void release(final String key, final String moduleId) {
+        final Claim claim = claims.get(key);
+        if (claim != null && claim.moduleId.equals(moduleId) && claims.remove(key, claim)) {
+            claim.result.complete(Boolean.FALSE);
+        }
+    }
+
+    /**
+     * Waits for the module that claimed a piece of work to complete or release it.
+     *
+     * @param key the key identifying the work.
+     * @param timeoutMillis how long to wait, in milliseconds.
+     * @return true if the work was completed, or false if it was released or is no longer claimed, and so should be
+     *         claimed again.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws TimeoutException if the work was neither completed nor released in time.
+     */
+    public boolean await(final String key, final long timeoutMillis) throws InterruptedException, TimeoutException {
+        final Claim claim = claims.get(key);
+        if (claim == null) {
+            return false;
+        }
+        try {
+            return claim.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (final ExecutionException e) {
+            return false;
+        }
+    }
+
+    /** A module's claim on a piece of work, and the result of the work once the module has finished with it. */
+    private static final class Claim {
+
+        /** The id of the module that claimed the work. */
+        private final String moduleId;
+
+        /** Completed with true once the work is done, or with false if the claim is released. */
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        /**
+         * Constructor.
+         *
+         * @param claimant the id of the module that claimed the work.
+         */
+        private Claim(final String claimant) {
+            moduleId = claimant;
+        }
+    }
+}
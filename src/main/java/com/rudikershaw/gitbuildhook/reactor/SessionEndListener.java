@@ -0,0 +1,118 @@
+package com.rudikershaw.gitbuildhook.reactor;
+
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+
+/**
+ * Execution listener forwarding every event to the listener it replaces, and running an action when the session ends,
+ * before the replaced listener reports the end of the build.
+ */
+final class SessionEndListener implements ExecutionListener {
+
+    /** The listener replaced, which every event is forwarded to. */
+    private final ExecutionListener delegate;
+
+    /** The action to run when the session ends. */
+    private final Runnable onSessionEnded;
+
+    /**
+     * Constructor.
+     *
+     * @param replaced the listener replaced, or null if the session had none.
+     * @param action the action to run when the session ends.
+     */
+    SessionEndListener(final ExecutionListener replaced, final Runnable action) {
+        delegate = replaced == null ? new AbstractExecutionListener() : replaced;
+        onSessionEnded = action;
+    }
+
+    @Override
+    public void sessionEnded(final ExecutionEvent event) {
+        try {
+            onSessionEnded.run();
+        } finally {
+            delegate.sessionEnded(event);
+        }
+    }
+
+    @Override
+    public void projectDiscoveryStarted(final ExecutionEvent event) {
+        delegate.projectDiscoveryStarted(event);
+    }
+
+    @Override
+    public void sessionStarted(final ExecutionEvent event) {
+        delegate.sessionStarted(event);
+    }
+
+    @Override
+    public void projectSkipped(final ExecutionEvent event) {
+        delegate.projectSkipped(event);
+    }
+
+    @Override
+    public void projectStarted(final ExecutionEvent event) {
+        delegate.projectStarted(event);
+    }
+
+    @Override
+    public void projectSucceeded(final ExecutionEvent event) {
+        delegate.projectSucceeded(event);
+    }
+
+    @Override
+    public void projectFailed(final ExecutionEvent event) {
+        delegate.projectFailed(event);
+    }
+
+    @Override
+    public void mojoSkipped(final ExecutionEvent event) {
+        delegate.mojoSkipped(event);
+    }
+
+    @Override
+    public void mojoStarted(final ExecutionEvent event) {
+        delegate.mojoStarted(event);
+    }
+
+    @Override
+    public void mojoSucceeded(final ExecutionEvent event) {
+        delegate.mojoSucceeded(event);
+    }
+
+    @Override
+    public void mojoFailed(final ExecutionEvent event) {
+        delegate.mojoFailed(event);
+    }
+
+    @Override
+    public void forkStarted(final ExecutionEvent event) {
+        delegate.forkStarted(event);
+    }
+
+    @Override
+    public void forkSucceeded(final ExecutionEvent event) {
+        delegate.forkSucceeded(event);
+    }
+
+    @Override
+    public void forkFailed(final ExecutionEvent event) {
+        delegate.forkFailed(event);
+    }
+
+    @Override
+    public void forkedProjectStarted(final ExecutionEvent event) {
+        delegate.forkedProjectStarted(event);
+    }
+
+    @Override
+    public void forkedProjectSucceeded(final ExecutionEvent event) {
+        delegate.forkedProjectSucceeded(event);
+    }
+
+    @Override
+    public void forkedProjectFailed(final ExecutionEvent event) {
+        delegate.forkedProjectFailed(event);
+    }
+}
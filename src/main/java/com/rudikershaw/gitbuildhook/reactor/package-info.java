@@ -0,0 +1,2 @@
+/** Package containing classes for sharing work between the modules of a Maven reactor. */
+package com.rudikershaw.gitbuildhook.reactor;
@@ -0,0 +1,96 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import com.rudikershaw.gitbuildhook.files.AtomicFiles;
+
+/**
+ * Digests of the work each goal last applied to a repository, kept in the plugin's directory within the common git
+ * directory. A goal records a digest of everything it depends on, including the state of the files it wrote, after
+ * applying its work. A later build in the same working tree or in any sibling worktree that computes the same digest
+ * knows the work is already done, and so need not take the repository lock, read the git config or touch the hooks.
+ */
+public final class AppliedState {
+
+    /** The name of the file, in the plugin's directory, the digests are kept in. */
+    public static final String FILE_NAME = "applied.properties";
+
+    /** The file the digests are kept in. */
+    private final Path file;
+
+    /**
+     * Constructor.
+     *
+     * @param stateFile the file the digests are kept in.
+     */
+    private AppliedState(final Path stateFile) {
+        file = stateFile;
+    }
+
+    /**
+     * Gets the applied state of the repository with the provided common git directory.
+     *
+     * @param commonDir the common git directory.
+     * @return the applied state.
+     */
+    public static AppliedState of(final File commonDir) {
+        return new AppliedState(commonDir.toPath().toAbsolutePath().resolve(GitRepository.PLUGIN_DIRECTORY)
+            .resolve(FILE_NAME));
+    }
+
+    /**
+     * Returns true if the digest recorded for the work is the provided digest.
+     *
+     * @param key identifies the work, such as a goal and the file it writes.
+     * @param digest the digest of everything the work depends on, or null if it could not be computed.
+     * @return whether the same work has already been applied.
+     */
+    public boolean isApplied(final String key, final String digest) {
+        try {
+            return digest != null && digest.equals(read().getProperty(key));
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the digest of work that has just been applied. The caller must hold the repository lock, so that
+     * concurrent builds do not lose each other's digests. The file is replaced atomically, so that builds reading it
+     * without the lock never see it partly written.
+     *
+     * @param key identifies the work, such as a goal and the file it writes.
+     * @param digest the digest of everything the work depends on.
+     * @throws IOException if the digest could not be recorded.
+     */
+    public void save(final String key, final String digest) throws IOException {
+        final Properties applied = read();
+        if (digest.equals(applied.getProperty(key))) {
+            return;
+        }
+        applied.setProperty(key, digest);
+        AtomicFiles.write(file,
+            out -> applied.store(out, "Digests of the work applied by the git-build-hook-maven-plugin"));
+    }
+
+    /**
+     * Reads the recorded digests.
+     *
+     * @return the digests by key, which are empty if none have been recorded.
+     * @throws IOException if the file could not be read.
+     */
+    private Properties read() throws IOException {
+        final Properties applied = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            applied.load(in);
+        } catch (final NoSuchFileException e) {
+            applied.clear();
+        }
+        return applied;
+    }
+}
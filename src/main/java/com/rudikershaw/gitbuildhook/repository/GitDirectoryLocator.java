@@ -0,0 +1,206 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the Git repository managing a directory using plain file system calls, in the same way Git does, so that
+ * JGit need not be loaded and initialised by builds that only need to know where the repository is. A repository is
+ * found from a {@code GIT_DIR} environment variable, as set when Git runs a hook, or else by walking up from the
+ * directory to the first {@code .git} directory, or {@code .git} file pointing to the git directory of a linked
+ * worktree or submodule.
+ */
+final class GitDirectoryLocator {
+
+    /** The name of the entry in a working tree holding or pointing to its git directory. */
+    static final String DOT_GIT = ".git";
+
+    /** The environment variable overriding the location of the git directory. */
+    static final String GIT_DIR_VARIABLE = "GIT_DIR";
+
+    /** The environment variable overriding the location of the common git directory. */
+    static final String GIT_COMMON_DIR_VARIABLE = "GIT_COMMON_DIR";
+
+    /** The environment variable overriding the location of the index file. */
+    static final String GIT_INDEX_FILE_VARIABLE = "GIT_INDEX_FILE";
+
+    /** The prefix of the line in a {@code .git} file giving the location of the git directory. */
+    private static final String GIT_FILE_PREFIX = "gitdir:";
+
+    /** The name of the index file in a git directory. */
+    private static final String INDEX_FILE = "index";
+
+    /** The name of the file in a worktree's git directory pointing to the common git directory. */
+    private static final String COMMON_DIR_FILE = "commondir";
+
+    /** Private constructor for utility class. */
+    private GitDirectoryLocator() {
+    }
+
+    /**
+     * Returns true if the repository is located from the environment rather than from the directory.
+     *
+     * @return whether the {@code GIT_DIR} environment variable is set.
+     */
+    static boolean isOverriddenByEnvironment() {
+        return !isBlank(System.getenv(GIT_DIR_VARIABLE));
+    }
+
+    /**
+     * Locates the Git repository managing the directory, honouring the {@code GIT_DIR} and {@code GIT_COMMON_DIR}
+     * environment variables.
+     *
+     * @param directory the absolute directory to locate the repository of.
+     * @return the repository, or null if the directory is not managed by a Git repository.
+     */
+    static GitRepository locate(final Path directory) {
+        return locate(directory, System.getenv(GIT_DIR_VARIABLE), System.getenv(GIT_COMMON_DIR_VARIABLE),
+            Paths.get("").toAbsolutePath());
+    }
+
+    /**
+     * Locates the Git repository managing the directory.
+     *
+     * @param directory the absolute directory to locate the repository of.
+     * @param gitDirVariable the value of the {@code GIT_DIR} environment variable, or null if not set.
+     * @param commonDirVariable the value of the {@code GIT_COMMON_DIR} environment variable, or null if not set.
+     * @param workingDirectory the directory relative environment variables are resolved against.
+     * @return the repository, or null if the directory is not managed by a Git repository.
+     */
+    static GitRepository locate(final Path directory, final String gitDirVariable, final String commonDirVariable,
+                                final Path workingDirectory) {
+        final Path gitDir;
+        if (!isBlank(gitDirVariable)) {
+            gitDir = workingDirectory.resolve(gitDirVariable).normalize();
+            if (!isGitDirectory(gitDir)) {
+                return null;
+            }
+        } else {
+            gitDir = findGitDir(directory);
+            if (gitDir == null) {
+                return null;
+            }
+        }
+        final Path commonDir = isBlank(commonDirVariable)
+            ? readCommonDir(gitDir)
+            : workingDirectory.resolve(commonDirVariable).normalize();
+        return new GitRepository(gitDir.toFile(), commonDir.toFile());
+    }
+
+    /**
+     * Locates the index file of a git directory, honouring the {@code GIT_INDEX_FILE} environment variable.
+     *
+     * @param gitDir the git directory.
+     * @return the index file.
+     */
+    static File locateIndexFile(final File gitDir) {
+        return locateIndexFile(gitDir, System.getenv(GIT_INDEX_FILE_VARIABLE), Paths.get("").toAbsolutePath());
+    }
+
+    /**
+     * Locates the index file of a git directory, which is the file given by the {@code GIT_INDEX_FILE} environment
+     * variable if set, as when Git runs the pre-commit hook of {@code git commit -a} or {@code git commit <paths>}
+     * against a temporary index, or else the index file in the git directory.
+     *
+     * @param gitDir the git directory.
+     * @param indexFileVariable the value of the {@code GIT_INDEX_FILE} environment variable, or null if not set.
+     * @param workingDirectory the directory a relative index file is resolved against.
+     * @return the index file.
+     */
+    static File locateIndexFile(final File gitDir, final String indexFileVariable, final Path workingDirectory) {
+        if (isBlank(indexFileVariable)) {
+            return new File(gitDir, INDEX_FILE);
+        }
+        return workingDirectory.resolve(indexFileVariable).normalize().toFile();
+    }
+
+    /**
+     * Walks up from the directory to find the git directory of the repository managing it.
+     *
+     * @param directory the absolute directory to start from.
+     * @return the git directory, or null if none was found.
+     */
+    private static Path findGitDir(final Path directory) {
+        for (Path current = directory; current != null; current = current.getParent()) {
+            final Path dotGit = current.resolve(DOT_GIT);
+            if (Files.isDirectory(dotGit)) {
+                if (isGitDirectory(dotGit)) {
+                    return dotGit;
+                }
+            } else if (Files.isRegularFile(dotGit)) {
+                final Path linked = readGitFile(dotGit);
+                if (linked != null && isGitDirectory(linked)) {
+                    return linked;
+                }
+            } else if (isGitDirectory(current)) {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if the directory looks like a git directory, holding a HEAD file and either its own objects and
+     * references or a pointer to the common git directory holding them.
+     *
+     * @param directory the directory to check.
+     * @return whether the directory is a git directory.
+     */
+    private static boolean isGitDirectory(final Path directory) {
+        return Files.isRegularFile(directory.resolve("HEAD"))
+            && (Files.isRegularFile(directory.resolve(COMMON_DIR_FILE))
+                || Files.isDirectory(directory.resolve("objects")) && Files.isDirectory(directory.resolve("refs")));
+    }
+
+    /**
+     * Reads the location of the git directory from a {@code .git} file, as found in linked worktrees and submodules.
+     *
+     * @param gitFile the {@code .git} file.
+     * @return the git directory, or null if the file could not be read or does not give one.
+     */
+    private static Path readGitFile(final Path gitFile) {
+        try {
+            final String content = new String(Files.readAllBytes(gitFile), StandardCharsets.UTF_8).trim();
+            if (!content.startsWith(GIT_FILE_PREFIX)) {
+                return null;
+            }
+            return gitFile.resolveSibling(content.substring(GIT_FILE_PREFIX.length()).trim()).normalize();
+        } catch (final IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the common git directory of a worktree from its git directory. For a repository that is not a worktree
+     * the common git directory is the git directory itself.
+     *
+     * @param gitDir the git directory.
+     * @return the common git directory.
+     */
+    private static Path readCommonDir(final Path gitDir) {
+        final Path commonDirFile = gitDir.resolve(COMMON_DIR_FILE);
+        if (!Files.isRegularFile(commonDirFile)) {
+            return gitDir;
+        }
+        try {
+            final String path = new String(Files.readAllBytes(commonDirFile), StandardCharsets.UTF_8).trim();
+            return gitDir.resolve(path).normalize();
+        } catch (final IOException | RuntimeException e) {
+            return gitDir;
+        }
+    }
+
+    /**
+     * Returns true if the value is null or empty.
+     *
+     * @param value the value to check.
+     * @return whether the value is blank.
+     */
+    private static boolean isBlank(final String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import java.io.File;
+
+/** The resolved location of a Git repository managing a project. */
+public final class GitRepository {
+
+    /** The name of the directory within a git directory in which the plugin keeps its state. */
+    public static final String PLUGIN_DIRECTORY = "git-build-hook";
+
+    /** The git directory, which for a worktree is the worktree's own private directory. */
+    private final File gitDir;
+
+    /** The common git directory, shared between the main working tree and any linked worktrees. */
+    private final File commonDir;
+
+    /**
+     * Constructor.
+     *
+     * @param repositoryGitDir the git directory.
+     * @param repositoryCommonDir the common git directory, which is the same as the git directory unless a worktree.
+     */
+    public GitRepository(final File repositoryGitDir, final File repositoryCommonDir) {
+        gitDir = repositoryGitDir;
+        commonDir = repositoryCommonDir;
+    }
+
+    /**
+     * Gets the git directory, which for a linked worktree is the worktree's own private directory.
+     *
+     * @return the git directory.
+     */
+    public File getGitDir() {
+        return gitDir;
+    }
+
+    /**
+     * Gets the common git directory shared between the main working tree and any linked worktrees.
+     *
+     * @return the common git directory.
+     */
+    public File getCommonDir() {
+        return commonDir;
+    }
+
+    /**
+     * Gets the index file of the work tree, which is the file given by the {@code GIT_INDEX_FILE} environment variable
+     * when Git runs a hook against a temporary index, or the index in the git directory otherwise. The environment is
+     * read on every call, so that a repository shared between builds never keeps the index of an earlier one.
+     *
+     * @return the index file.
+     */
+    public File getIndexFile() {
+        return GitDirectoryLocator.locateIndexFile(gitDir);
+    }
+
+    /**
+     * Returns true if the git directory belongs to a linked worktree rather than the main working tree.
+     *
+     * @return whether the repository is a linked worktree.
+     */
+    public boolean isWorktree() {
+        return !gitDir.equals(commonDir);
+    }
+}
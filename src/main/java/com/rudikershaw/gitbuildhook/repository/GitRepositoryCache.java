@@ -0,0 +1,90 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.rudikershaw.gitbuildhook.timing.EventKind;
+import com.rudikershaw.gitbuildhook.timing.PluginEvents;
+import com.rudikershaw.gitbuildhook.timing.Span;
+
+/**
+ * Cache of the Git repository resolved for each project base directory. Resolving a repository walks up the directory
+ * tree from the base directory, so results are shared between every goal and module for the lifetime of the JVM, which
+ * in the case of a Maven Daemon spans many builds. Each cached result is checked with a couple of cheap stat calls
+ * before being reused, and discarded if the repository has since been removed or a new one created in the base
+ * directory. Base directories not managed by any repository are never cached, so a repository initialised part way
+ * through a build is always found, and nor are repositories given by the {@code GIT_DIR} environment variable.
+ * <p>
+ * Repositories are located with plain file system calls rather than with JGit, so that goals with nothing to do never
+ * load JGit at all.
+ */
+public final class GitRepositoryCache {
+
+    /** The resolved repositories by the absolute base directory they were resolved from. */
+    private static final Map<File, Entry> CACHE = new ConcurrentHashMap<>();
+
+    /** Private constructor for utility class. */
+    private GitRepositoryCache() {
+    }
+
+    /**
+     * Gets the Git repository managing the provided base directory.
+     *
+     * @param basedir the base directory of a project.
+     * @return the repository, or null if the directory is not managed by a Git repository.
+     */
+    public static GitRepository resolve(final File basedir) {
+        final File key = basedir.getAbsoluteFile();
+        final Entry cached = CACHE.get(key);
+        if (cached != null && cached.isValid(key)) {
+            return cached.repository;
+        }
+
+        final Span span = PluginEvents.begin(EventKind.REPOSITORY_RESOLUTION, key.toString());
+        try {
+            final GitRepository repository = GitDirectoryLocator.locate(key.toPath());
+            if (repository == null || GitDirectoryLocator.isOverriddenByEnvironment()) {
+                CACHE.remove(key);
+                return repository;
+            }
+            CACHE.put(key, new Entry(repository, new File(key, GitDirectoryLocator.DOT_GIT).exists()));
+            return repository;
+        } finally {
+            span.close();
+        }
+    }
+
+    /** A cached repository along with the snapshot used to check it is still valid. */
+    private static final class Entry {
+
+        /** The resolved repository. */
+        private final GitRepository repository;
+
+        /** Whether the base directory contained a .git entry when the repository was resolved. */
+        private final boolean basedirHadGitEntry;
+
+        /**
+         * Constructor.
+         *
+         * @param resolved the resolved repository.
+         * @param hadGitEntry whether the base directory contained a .git entry when the repository was resolved.
+         */
+        Entry(final GitRepository resolved, final boolean hadGitEntry) {
+            repository = resolved;
+            basedirHadGitEntry = hadGitEntry;
+        }
+
+        /**
+         * Returns true if the repository still exists and no repository has been created or removed in the base
+         * directory since it was resolved.
+         *
+         * @param basedir the base directory the repository was resolved from.
+         * @return whether the cached repository can be reused.
+         */
+        boolean isValid(final File basedir) {
+            return new File(repository.getGitDir(), "HEAD").isFile()
+                && new File(basedir, GitDirectoryLocator.DOT_GIT).exists() == basedirHadGitEntry;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+
+/**
+ * Initialises new Git repositories with JGit. Goals only refer to JGit through this class when creating a repository,
+ * so that JGit is neither loaded nor initialised by builds in a repository that already exists.
+ */
+public final class GitRepositoryInitialiser {
+
+    /** Private constructor for utility class. */
+    private GitRepositoryInitialiser() {
+    }
+
+    /**
+     * Initialises a new Git repository in the provided directory.
+     *
+     * @param directory the directory to become the working tree of the repository.
+     * @throws IOException if the repository could not be initialised.
+     */
+    public static void init(final File directory) throws IOException {
+        try {
+            Git.init().setDirectory(directory).call().close();
+        } catch (final GitAPIException e) {
+            throw new IOException("Could not initialise a git repository in " + directory, e);
+        }
+    }
+}
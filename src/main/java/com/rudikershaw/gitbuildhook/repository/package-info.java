@@ -0,0 +1,2 @@
+/** Package containing classes for locating the Git repository a project is managed by. */
+package com.rudikershaw.gitbuildhook.repository;
@@ -0,0 +1,201 @@
+package com.rudikershaw.gitbuildhook.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The client run by hooks to have the runner run their build. Depends only on the JDK, so that hooks can run it with
+ * the plugin jar alone on the class path.
+ */
+public final class RunnerClient {
+
+    /** The exit code of the client when no runner could run the build, so the hook should run it itself. */
+    public static final int UNAVAILABLE = 255;
+
+    /** How long, in milliseconds, to wait to connect to the runner. */
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+
+    /** How long, in milliseconds, to wait for the runner to reply to a ping or stop request. */
+    private static final int REPLY_TIMEOUT_MILLIS = 10000;
+
+    /** The index of the argument holding the goals. */
+    private static final int GOALS_ARG = 3;
+
+    /** The number of arguments that precede the arguments Git passed to the hook. */
+    private static final int CLIENT_ARGS = 4;
+
+    /** The size of the buffer standard input and output are copied through. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Private constructor for utility class. */
+    private RunnerClient() {
+    }
+
+    /**
+     * Has the runner run the build of a hook, and exits with the exit code of the build, or with {@link #UNAVAILABLE}
+     * if no runner could run it.
+     *
+     * @param args the runner file, the hook name, the POM, the goals separated by spaces, and then the arguments Git
+     *             passed to the hook.
+     */
+    public static void main(final String[] args) {
+        System.exit(run(args, System.in, System.out));
+    }
+
+    /**
+     * Has the runner run the build of a hook, forwarding the hook's standard input and copying the build's output.
+     *
+     * @param args the runner file, the hook name, the POM, the goals separated by spaces, and then the arguments Git
+     *             passed to the hook.
+     * @param stdin the standard input of the hook.
+     * @param stdout where the output of the build is copied to.
+     * @return the exit code of the build, or {@link #UNAVAILABLE} if no runner could run it.
+     */
+    public static int run(final String[] args, final InputStream stdin, final OutputStream stdout) {
+        if (args.length < CLIENT_ARGS) {
+            System.err.println("Usage: RunnerClient <runner file> <hook> <pom> <goals> [hook arguments...]");
+            return UNAVAILABLE;
+        }
+        final RunnerFile runnerFile = RunnerFile.read(Paths.get(args[0]));
+        if (runnerFile == null) {
+            return UNAVAILABLE;
+        }
+        final List<String> goals = new ArrayList<>();
+        for (final String goal : args[GOALS_ARG].split("\\s+")) {
+            if (!goal.isEmpty()) {
+                goals.add(goal);
+            }
+        }
+        boolean replied = false;
+        try (Socket socket = connect(runnerFile)) {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(runnerFile.getToken());
+            out.writeByte(RunnerProtocol.RUN);
+            new RunnerRequest(args[1], args[2], goals, Arrays.asList(args).subList(CLIENT_ARGS, args.length),
+                readStdin(stdin)).write(out);
+            out.flush();
+
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (in.readByte() == RunnerProtocol.OUTPUT) {
+                replied = true;
+                int remaining = in.readInt();
+                while (remaining > 0) {
+                    final int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        throw new IOException("The runner stopped replying");
+                    }
+                    stdout.write(buffer, 0, read);
+                    remaining -= read;
+                }
+                stdout.flush();
+            }
+            return in.readInt();
+        } catch (final IOException e) {
+            if (replied) {
+                System.err.println("The runner stopped before the build finished: " + e.getMessage());
+                return 1;
+            }
+            return UNAVAILABLE;
+        }
+    }
+
+    /**
+     * Returns true if a runner is listening through the provided runner file.
+     *
+     * @param runnerFile the location of the runner file.
+     * @return whether the runner replied.
+     */
+    public static boolean ping(final Path runnerFile) {
+        return send(runnerFile, RunnerProtocol.PING);
+    }
+
+    /**
+     * Asks the runner listening through the provided runner file to stop once any build it is running finishes.
+     *
+     * @param runnerFile the location of the runner file.
+     * @return whether a runner was listening and agreed to stop.
+     */
+    public static boolean stop(final Path runnerFile) {
+        return send(runnerFile, RunnerProtocol.STOP);
+    }
+
+    /**
+     * Sends a request without a body to the runner, and waits for its reply.
+     *
+     * @param location the location of the runner file.
+     * @param type the type of request.
+     * @return whether the runner replied.
+     */
+    private static boolean send(final Path location, final int type) {
+        final RunnerFile runnerFile = RunnerFile.read(location);
+        if (runnerFile == null) {
+            return false;
+        }
+        try (Socket socket = connect(runnerFile)) {
+            socket.setSoTimeout(REPLY_TIMEOUT_MILLIS);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(runnerFile.getToken());
+            out.writeByte(type);
+            out.flush();
+            final DataInputStream in = new DataInputStream(socket.getInputStream());
+            return in.readByte() == RunnerProtocol.EXIT && in.readInt() == 0;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Connects to the runner on the loopback interface.
+     *
+     * @param runnerFile the runner file of the runner.
+     * @return the connected socket.
+     * @throws IOException if the runner could not be connected to.
+     */
+    private static Socket connect(final RunnerFile runnerFile) throws IOException {
+        final Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), runnerFile.getPort()),
+                CONNECT_TIMEOUT_MILLIS);
+            return socket;
+        } catch (final IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads all of the hook's standard input.
+     *
+     * @param stdin the standard input of the hook.
+     * @return the content of the standard input.
+     * @throws IOException if the standard input could not be read, or is too large to forward.
+     */
+    private static byte[] readStdin(final InputStream stdin) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read = stdin.read(buffer);
+        while (read >= 0) {
+            content.write(buffer, 0, read);
+            if (content.size() > RunnerRequest.MAX_STDIN) {
+                throw new IOException("Standard input is too large to forward to the runner");
+            }
+            read = stdin.read(buffer);
+        }
+        return content.toByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+package com.rudikershaw.gitbuildhook.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+
+import com.rudikershaw.gitbuildhook.files.AtomicFiles;
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+
+/**
+ * The file through which hooks find a running runner, kept in the plugin's directory within the git directory. It
+ * records the loopback port the runner listens on and the token clients must present, and is readable only by its
+ * owner where the file system allows.
+ */
+public final class RunnerFile {
+
+    /** The name of the runner file. */
+    public static final String FILE_NAME = "runner.properties";
+
+    /** The property recording the port. */
+    private static final String PORT = "port";
+
+    /** The property recording the token. */
+    private static final String TOKEN = "token";
+
+    /** The port the runner listens on. */
+    private final int port;
+
+    /** The token clients must present. */
+    private final String token;
+
+    /**
+     * Constructor.
+     *
+     * @param runnerPort the port the runner listens on.
+     * @param runnerToken the token clients must present.
+     */
+    public RunnerFile(final int runnerPort, final String runnerToken) {
+        port = runnerPort;
+        token = runnerToken;
+    }
+
+    /**
+     * Gets the location of the runner file for a git directory.
+     *
+     * @param gitDir the git directory.
+     * @return the location of the runner file.
+     */
+    public static Path locate(final File gitDir) {
+        return gitDir.toPath().toAbsolutePath().resolve(GitRepository.PLUGIN_DIRECTORY).resolve(FILE_NAME);
+    }
+
+    /**
+     * Reads a runner file.
+     *
+     * @param file the runner file.
+     * @return the runner file, or null if it does not exist or is not valid.
+     */
+    public static RunnerFile read(final Path file) {
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+            return new RunnerFile(Integer.parseInt(properties.getProperty(PORT)), properties.getProperty(TOKEN));
+        } catch (final IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the runner file, readable only by its owner, replacing any existing runner file.
+     *
+     * @param file the location of the runner file.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(PORT, Integer.toString(port));
+        properties.setProperty(TOKEN, token);
+        final AtomicFiles.Content content =
+            out -> properties.store(out, "Runner started by the git-build-hook-maven-plugin");
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            AtomicFiles.write(file, content, PosixFilePermissions.asFileAttribute(
+                PosixFilePermissions.fromString("rw-------")));
+        } else {
+            AtomicFiles.write(file, content);
+        }
+    }
+
+    /**
+     * Gets the port the runner listens on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Gets the token clients must present.
+     *
+     * @return the token.
+     */
+    public String getToken() {
+        return token;
+    }
+}
@@ -0,0 +1,29 @@
+package com.rudikershaw.gitbuildhook.runner;
+
+/**
+ * Constants of the protocol spoken between hooks and the runner over a loopback socket. A client sends the token from
+ * the runner file and the type of its request, followed by a {@link RunnerRequest} when asking for a build. The runner
+ * replies with any number of output frames, each a length and that many bytes, followed by an exit frame holding the
+ * exit code of the build. The runner closes the connection without replying if the token does not match.
+ */
+final class RunnerProtocol {
+
+    /** Request asking the runner to run a build. */
+    static final int RUN = 1;
+
+    /** Request asking whether the runner is running. */
+    static final int PING = 2;
+
+    /** Request asking the runner to stop. */
+    static final int STOP = 3;
+
+    /** Reply frame holding output of the build. */
+    static final int OUTPUT = 1;
+
+    /** Reply frame holding the exit code of the build, which ends the reply. */
+    static final int EXIT = 2;
+
+    /** Private constructor for constants class. */
+    private RunnerProtocol() {
+    }
+}
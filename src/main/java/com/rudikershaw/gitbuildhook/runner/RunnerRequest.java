@@ -0,0 +1,159 @@
+package com.rudikershaw.gitbuildhook.runner;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** A request sent by a hook asking the runner to run the Maven build configured for the hook. */
+public final class RunnerRequest {
+
+    /** The largest number of bytes of standard input a hook forwards to the runner. */
+    public static final int MAX_STDIN = 16 * 1024 * 1024;
+
+    /** The name of the hook being run, such as pre-commit. */
+    private final String hookName;
+
+    /** The location of the POM to build. */
+    private final String pom;
+
+    /** The goals to run, which may include -Dkey=value user properties. */
+    private final List<String> goals;
+
+    /** The arguments Git passed to the hook. */
+    private final List<String> args;
+
+    /** The standard input Git passed to the hook. */
+    private final byte[] stdin;
+
+    /**
+     * Constructor.
+     *
+     * @param requestHookName the name of the hook being run.
+     * @param requestPom the location of the POM to build.
+     * @param requestGoals the goals to run.
+     * @param requestArgs the arguments Git passed to the hook.
+     * @param requestStdin the standard input Git passed to the hook.
+     */
+    public RunnerRequest(final String requestHookName, final String requestPom, final List<String> requestGoals,
+                         final List<String> requestArgs, final byte[] requestStdin) {
+        hookName = requestHookName;
+        pom = requestPom;
+        goals = new ArrayList<>(requestGoals);
+        args = new ArrayList<>(requestArgs);
+        stdin = requestStdin.clone();
+    }
+
+    /**
+     * Reads a request written by {@link #write(DataOutputStream)}.
+     *
+     * @param in the stream to read.
+     * @return the request.
+     * @throws IOException if the request could not be read or is malformed.
+     */
+    public static RunnerRequest read(final DataInputStream in) throws IOException {
+        final String hookName = in.readUTF();
+        final String pom = in.readUTF();
+        final List<String> goals = readStrings(in);
+        final List<String> args = readStrings(in);
+        final int length = in.readInt();
+        if (length < 0 || length > MAX_STDIN) {
+            throw new IOException("Invalid standard input length " + length);
+        }
+        final byte[] stdin = new byte[length];
+        in.readFully(stdin);
+        return new RunnerRequest(hookName, pom, goals, args, stdin);
+    }
+
+    /**
+     * Writes the request.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if the request could not be written.
+     */
+    public void write(final DataOutputStream out) throws IOException {
+        out.writeUTF(hookName);
+        out.writeUTF(pom);
+        writeStrings(out, goals);
+        writeStrings(out, args);
+        out.writeInt(stdin.length);
+        out.write(stdin);
+    }
+
+    /**
+     * Reads a list of strings written by {@link #writeStrings(DataOutputStream, List)}.
+     *
+     * @param in the stream to read.
+     * @return the strings.
+     * @throws IOException if the strings could not be read.
+     */
+    private static List<String> readStrings(final DataInputStream in) throws IOException {
+        final int count = in.readUnsignedShort();
+        final List<String> strings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            strings.add(in.readUTF());
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a list of strings, preceded by their number.
+     *
+     * @param out the stream to write to.
+     * @param strings the strings to write.
+     * @throws IOException if the strings could not be written.
+     */
+    private static void writeStrings(final DataOutputStream out, final List<String> strings) throws IOException {
+        out.writeShort(strings.size());
+        for (final String string : strings) {
+            out.writeUTF(string);
+        }
+    }
+
+    /**
+     * Gets the name of the hook being run.
+     *
+     * @return the hook name, such as pre-commit.
+     */
+    public String getHookName() {
+        return hookName;
+    }
+
+    /**
+     * Gets the location of the POM to build.
+     *
+     * @return the POM location.
+     */
+    public String getPom() {
+        return pom;
+    }
+
+    /**
+     * Gets the goals to run, which may include -Dkey=value user properties.
+     *
+     * @return the goals.
+     */
+    public List<String> getGoals() {
+        return Collections.unmodifiableList(goals);
+    }
+
+    /**
+     * Gets the arguments Git passed to the hook.
+     *
+     * @return the hook arguments.
+     */
+    public List<String> getArgs() {
+        return Collections.unmodifiableList(args);
+    }
+
+    /**
+     * Gets the standard input Git passed to the hook.
+     *
+     * @return a copy of the standard input.
+     */
+    public byte[] getStdin() {
+        return stdin.clone();
+    }
+}
@@ -0,0 +1,321 @@
+package com.rudikershaw.gitbuildhook.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A runner listening on a loopback socket for hooks asking it to run their builds. Builds are run one at a time, in
+ * the order hooks connect. When the runner's output is being written to a file, the output written while a build runs
+ * is streamed back to the hook that asked for it. The runner stops when asked to, or when no hook has connected for
+ * the idle timeout, and removes its runner file when closed.
+ */
+public final class RunnerServer implements AutoCloseable {
+
+    /** How long, in milliseconds, a hook may take to send its request once connected. */
+    private static final int REQUEST_TIMEOUT_MILLIS = 10000;
+
+    /** How long, in milliseconds, to wait between checks for new output while a build runs. */
+    private static final long TAIL_MILLIS = 50;
+
+    /** The number of random bytes in a token. */
+    private static final int TOKEN_BYTES = 32;
+
+    /** The size of the buffer output is streamed through. */
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The number of connections queued while a build runs. */
+    private static final int BACKLOG = 16;
+
+    /** The source of tokens. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** The socket the runner listens on. */
+    private final ServerSocket socket;
+
+    /** The runner file written for the runner. */
+    private final RunnerFile runnerFile;
+
+    /** The location of the runner file. */
+    private final Path location;
+
+    /** The file the runner's output is written to, or null if not written to a file. */
+    private final Path output;
+
+    /** Runs the builds requested by hooks. */
+    private final BuildExecutor executor;
+
+    /** The log to report to. */
+    private final Log log;
+
+    /**
+     * Constructor.
+     *
+     * @param serverSocket the socket the runner listens on.
+     * @param serverRunnerFile the runner file written for the runner.
+     * @param runnerFileLocation the location of the runner file.
+     * @param outputFile the file the runner's output is written to, or null.
+     * @param buildExecutor runs the builds requested by hooks.
+     * @param serverLog the log to report to.
+     */
+    private RunnerServer(final ServerSocket serverSocket, final RunnerFile serverRunnerFile,
+                         final Path runnerFileLocation, final Path outputFile, final BuildExecutor buildExecutor,
+                         final Log serverLog) {
+        socket = serverSocket;
+        runnerFile = serverRunnerFile;
+        location = runnerFileLocation;
+        output = outputFile;
+        executor = buildExecutor;
+        log = serverLog;
+    }
+
+    /**
+     * Starts listening on an ephemeral loopback port, and writes a runner file with a new random token through which
+     * hooks can find the runner.
+     *
+     * @param runnerFileLocation the location of the runner file.
+     * @param outputFile the file the runner's output is written to, streamed back to hooks, or null.
+     * @param buildExecutor runs the builds requested by hooks.
+     * @param serverLog the log to report to.
+     * @return the started runner, which must be closed.
+     * @throws IOException if the runner could not listen, or its runner file could not be written.
+     */
+    public static RunnerServer start(final Path runnerFileLocation, final Path outputFile,
+                                     final BuildExecutor buildExecutor, final Log serverLog) throws IOException {
+        final ServerSocket serverSocket = new ServerSocket(0, BACKLOG, InetAddress.getLoopbackAddress());
+        try {
+            final byte[] random = new byte[TOKEN_BYTES];
+            RANDOM.nextBytes(random);
+            final StringBuilder token = new StringBuilder();
+            for (final byte b : random) {
+                token.append(String.format("%02x", b));
+            }
+            final RunnerFile serverRunnerFile = new RunnerFile(serverSocket.getLocalPort(), token.toString());
+            serverRunnerFile.write(runnerFileLocation);
+            return new RunnerServer(serverSocket, serverRunnerFile, runnerFileLocation, outputFile, buildExecutor,
+                serverLog);
+        } catch (final IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the port the runner listens on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return runnerFile.getPort();
+    }
+
+    /**
+     * Serves hooks until asked to stop, or until no hook has connected for the idle timeout.
+     *
+     * @param idleTimeoutMillis how long to wait for a hook to connect, in milliseconds, or zero to wait forever.
+     * @throws IOException if the runner could no longer listen for hooks.
+     */
+    public void serve(final long idleTimeoutMillis) throws IOException {
+        socket.setSoTimeout((int) Math.min(idleTimeoutMillis, Integer.MAX_VALUE));
+        boolean serving = true;
+        while (serving) {
+            final Socket connection;
+            try {
+                connection = socket.accept();
+            } catch (final SocketTimeoutException e) {
+                log.info("No hooks have run for " + TimeUnit.MILLISECONDS.toSeconds(idleTimeoutMillis)
+                    + "s, stopping the runner.");
+                return;
+            }
+            try (Socket client = connection) {
+                serving = handle(client);
+            } catch (final IOException e) {
+                log.warn("Could not reply to a hook: " + e.getMessage());
+            }
+        }
+        log.info("Stopping the runner.");
+    }
+
+    /**
+     * Handles a single connection from a hook.
+     *
+     * @param client the connection.
+     * @return false if the hook asked the runner to stop.
+     * @throws IOException if the request could not be read or replied to.
+     */
+    private boolean handle(final Socket client) throws IOException {
+        client.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+        final byte[] presented = in.readUTF().getBytes(StandardCharsets.UTF_8);
+        if (!MessageDigest.isEqual(presented, runnerFile.getToken().getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected a connection presenting an invalid token.");
+            return true;
+        }
+        final int type = in.readByte();
+        if (type == RunnerProtocol.RUN) {
+            final RunnerRequest request = RunnerRequest.read(in);
+            client.setSoTimeout(0);
+            writeExit(out, run(request, out));
+            return true;
+        }
+        writeExit(out, 0);
+        return type != RunnerProtocol.STOP;
+    }
+
+    /**
+     * Runs the build requested by a hook, streaming back output written to the output file while it runs.
+     *
+     * @param request the request.
+     * @param out the stream replies to the hook are written to.
+     * @return the exit code of the build.
+     * @throws IOException if the output file could not be read.
+     */
+    private int run(final RunnerRequest request, final DataOutputStream out) throws IOException {
+        final OutputTail tail = output == null ? null : new OutputTail(output, out);
+        try {
+            return executor.execute(request);
+        } catch (final RuntimeException e) {
+            log.error("The build of the " + request.getHookName() + " hook could not be run.", e);
+            return 1;
+        } finally {
+            if (tail != null) {
+                System.out.flush();
+                tail.finish();
+            }
+        }
+    }
+
+    /**
+     * Writes the exit frame ending a reply.
+     *
+     * @param out the stream replies to the hook are written to.
+     * @param exitCode the exit code.
+     * @throws IOException if the frame could not be written.
+     */
+    private static void writeExit(final DataOutputStream out, final int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(RunnerProtocol.EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /** Stops listening, and removes the runner file unless it has since been replaced by another runner. */
+    @Override
+    public void close() throws IOException {
+        try {
+            socket.close();
+        } finally {
+            final RunnerFile current = RunnerFile.read(location);
+            if (current != null && current.getPort() == runnerFile.getPort()
+                && Objects.equals(current.getToken(), runnerFile.getToken())) {
+                Files.deleteIfExists(location);
+            }
+        }
+    }
+
+    /** Runs the build requested by a hook. */
+    @FunctionalInterface
+    public interface BuildExecutor {
+
+        /**
+         * Runs the build requested by a hook.
+         *
+         * @param request the request.
+         * @return the exit code of the build.
+         */
+        int execute(RunnerRequest request);
+    }
+
+    /** Streams output appended to a file back to a hook, from a background thread, until finished. */
+    private static final class OutputTail implements Runnable {
+
+        /** The file being read. */
+        private final FileChannel channel;
+
+        /** The stream replies to the hook are written to. */
+        private final DataOutputStream out;
+
+        /** The thread streaming the output. */
+        private final Thread thread;
+
+        /** Whether the build has finished, after which any remaining output is streamed and the thread ends. */
+        private volatile boolean finished;
+
+        /**
+         * Starts streaming output appended to the file from its current end.
+         *
+         * @param file the file to stream.
+         * @param replies the stream replies to the hook are written to.
+         * @throws IOException if the file could not be opened.
+         */
+        OutputTail(final Path file, final DataOutputStream replies) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(channel.size());
+            out = replies;
+            thread = new Thread(this, "git-build-hook-runner-output");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            try {
+                boolean last = false;
+                while (!last) {
+                    last = finished;
+                    while (channel.read(buffer) > 0) {
+                        synchronized (out) {
+                            out.writeByte(RunnerProtocol.OUTPUT);
+                            out.writeInt(buffer.position());
+                            out.write(buffer.array(), 0, buffer.position());
+                            out.flush();
+                        }
+                        buffer.clear();
+                    }
+                    if (!last) {
+                        Thread.sleep(TAIL_MILLIS);
+                    }
+                }
+            } catch (final IOException e) {
+                // The hook has gone away, the build carries on without it.
+                finished = true;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /** Streams any remaining output and waits for the thread to end. */
+        void finish() {
+            finished = true;
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                IOUtils.closeQuietly(channel);
+            }
+        }
+    }
+}
@@ -0,0 +1,2 @@
+/** A long-lived runner that runs the Maven builds of hooks in a warm JVM, and the client hooks use to reach it. */
+package com.rudikershaw.gitbuildhook.runner;
@@ -0,0 +1,161 @@
+package com.rudikershaw.gitbuildhook.staged;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * The files staged in a repository's index, that is the paths whose entry in the index differs from HEAD. Only object
+ * ids and file modes are compared, so no file content is read. Directories whose cached tree in the index matches the
+ * tree in HEAD are skipped without being walked, so reading an index of many entries with few changes is cheap.
+ */
+public final class StagedFiles {
+
+    /** The index of the index in the tree walk. */
+    private static final int INDEX = 1;
+
+    /** The prefix of a HEAD file pointing at a branch rather than at a commit. */
+    private static final String SYMBOLIC_REF = "ref:";
+
+    /** The work tree of the repository. */
+    private final File workTree;
+
+    /** The staged paths relative to the work tree, separated by forward slashes and sorted. */
+    private final List<String> paths;
+
+    /**
+     * Constructor.
+     *
+     * @param repositoryWorkTree the work tree of the repository.
+     * @param stagedPaths the staged paths relative to the work tree, sorted.
+     */
+    private StagedFiles(final File repositoryWorkTree, final List<String> stagedPaths) {
+        workTree = repositoryWorkTree;
+        paths = stagedPaths;
+    }
+
+    /**
+     * Reads the files staged in a repository's index. The objects and refs are read from the common git directory,
+     * while HEAD is read from the git directory, which differs for a linked worktree.
+     *
+     * @param gitDir the git directory of the work tree.
+     * @param commonDir the common git directory shared between the main working tree and any linked worktrees.
+     * @param indexFile the index of the work tree, which Git replaces with a temporary index while committing with
+     *                  {@code git commit -a} or {@code git commit <paths>}.
+     * @param repositoryWorkTree the work tree of the repository.
+     * @param includeDeleted whether to include files whose deletion is staged.
+     * @return the staged files.
+     * @throws IOException if the index or HEAD could not be read.
+     */
+    public static StagedFiles read(final File gitDir, final File commonDir, final File indexFile,
+                                   final File repositoryWorkTree, final boolean includeDeleted) throws IOException {
+        final List<String> stagedPaths = new ArrayList<>();
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(commonDir)
+                 .setIndexFile(indexFile).setWorkTree(repositoryWorkTree).setMustExist(true).build();
+             TreeWalk walk = new TreeWalk(repository)) {
+            final ObjectId head = resolveHeadTree(repository, gitDir);
+            if (head == null) {
+                walk.addTree(new EmptyTreeIterator());
+            } else {
+                walk.addTree(head);
+            }
+            walk.addTree(new DirCacheIterator(repository.readDirCache()));
+            walk.setFilter(TreeFilter.ANY_DIFF);
+            walk.setRecursive(true);
+            String previous = null;
+            while (walk.next()) {
+                final String path = walk.getPathString();
+                // Conflicted paths have an index entry for each stage, which are walked one after another.
+                if ((includeDeleted || walk.getRawMode(INDEX) != 0) && !path.equals(previous)) {
+                    stagedPaths.add(path);
+                    previous = path;
+                }
+            }
+        }
+        Collections.sort(stagedPaths);
+        return new StagedFiles(repositoryWorkTree.getAbsoluteFile(), stagedPaths);
+    }
+
+    /**
+     * Resolves the tree of the commit HEAD of the git directory points at, which for a linked worktree is its own HEAD
+     * rather than that of the main working tree.
+     *
+     * @param repository the repository.
+     * @param gitDir the git directory of the work tree.
+     * @return the tree of HEAD, or null if HEAD does not point at a commit yet.
+     * @throws IOException if HEAD could not be read.
+     */
+    private static ObjectId resolveHeadTree(final Repository repository, final File gitDir) throws IOException {
+        final String head = new String(Files.readAllBytes(new File(gitDir, Constants.HEAD).toPath()),
+            StandardCharsets.UTF_8).trim();
+        final String revision = head.startsWith(SYMBOLIC_REF) ? head.substring(SYMBOLIC_REF.length()).trim() : head;
+        return repository.resolve(revision + "^{tree}");
+    }
+
+    /**
+     * Finds the work tree containing a directory, which is the closest directory containing a .git entry.
+     *
+     * @param directory a directory within the work tree.
+     * @return the work tree, or null if the directory is not within a work tree.
+     */
+    public static File findWorkTree(final File directory) {
+        File candidate = directory.getAbsoluteFile();
+        while (candidate != null && !new File(candidate, ".git").exists()) {
+            candidate = candidate.getParentFile();
+        }
+        return candidate;
+    }
+
+    /**
+     * Gets the staged paths within a directory of the work tree, relative to that directory.
+     *
+     * @param directory a directory within the work tree, such as the base directory of a module.
+     * @return the staged paths within the directory, separated by forward slashes and sorted.
+     */
+    public List<String> within(final File directory) {
+        final String relative = workTree.toPath().relativize(directory.getAbsoluteFile().toPath()).toString()
+            .replace(File.separatorChar, '/');
+        final String prefix = relative.isEmpty() ? "" : relative + "/";
+        final int insertion = Collections.binarySearch(paths, prefix);
+        final List<String> within = new ArrayList<>();
+        for (int i = insertion < 0 ? -insertion - 1 : insertion; i < paths.size(); i++) {
+            final String path = paths.get(i);
+            if (!path.startsWith(prefix)) {
+                break;
+            }
+            within.add(path.substring(prefix.length()));
+        }
+        return within;
+    }
+
+    /**
+     * Gets the work tree of the repository.
+     *
+     * @return the work tree.
+     */
+    public File getWorkTree() {
+        return workTree;
+    }
+
+    /**
+     * Gets the number of staged paths in the whole repository.
+     *
+     * @return the number of staged paths.
+     */
+    public int size() {
+        return paths.size();
+    }
+}
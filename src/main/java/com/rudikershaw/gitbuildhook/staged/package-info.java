@@ -0,0 +1,2 @@
+/** Package containing classes that find the files staged in a Git repository's index. */
+package com.rudikershaw.gitbuildhook.staged;
@@ -1,8 +0,0 @@
-package com.rudikershaw.gitbuildhook.threadsafety;
-
-/**
- * Class to act as a universal lock for non-thread safe operations of the plugin.
- */
-public class ClassLock {
-
-}
@@ -0,0 +1,243 @@
+package com.rudikershaw.gitbuildhook.threadsafety;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.timing.EventKind;
+import com.rudikershaw.gitbuildhook.timing.PluginEvents;
+import com.rudikershaw.gitbuildhook.timing.Span;
+
+/**
+ * Lock guarding changes the plugin makes to a single git directory. Within a JVM, threads working on the same git
+ * directory are serialised by one of a fixed set of striped locks, so that threads working on different repositories
+ * rarely contend. Between processes, such as an IDE import running alongside a command line build, an operating system
+ * file lock is taken on a file in the plugin's directory within the git directory. The lock is reentrant.
+ */
+public final class RepositoryLock implements AutoCloseable {
+
+    /** The number of striped locks shared between all git directories. */
+    private static final int STRIPES = 32;
+
+    /** The name of the file locked within the plugin's directory to exclude other processes. */
+    private static final String LOCK_FILE = "lock";
+
+    /** How long to wait between attempts to take the file lock held by another process. */
+    private static final long POLL_MILLIS = 50;
+
+    /** The striped locks. */
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+    /** The file locks held by this JVM, by git directory. Guarded by the striped lock of the git directory. */
+    private static final Map<Path, HeldFileLock> FILE_LOCKS = new ConcurrentHashMap<>();
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    /** The git directory this lock is for. */
+    private final Path gitDir;
+
+    /** The striped lock held. */
+    private final ReentrantLock stripe;
+
+    /**
+     * Constructor.
+     *
+     * @param lockedGitDir the git directory this lock is for.
+     * @param heldStripe the striped lock held.
+     */
+    private RepositoryLock(final Path lockedGitDir, final ReentrantLock heldStripe) {
+        gitDir = lockedGitDir;
+        stripe = heldStripe;
+    }
+
+    /**
+     * Acquires the lock for a git directory, waiting up to the provided timeout for other threads and processes to
+     * release it. If the git directory does not exist yet, as when a repository is about to be initialised, only other
+     * threads in this JVM are excluded.
+     *
+     * @param directory the git directory to lock.
+     * @param timeoutMillis how long to wait for the lock in milliseconds.
+     * @param log the log to report lock wait times to.
+     * @return the held lock, which must be closed to release it.
+     * @throws MojoFailureException if the lock could not be acquired in time.
+     */
+    public static RepositoryLock acquire(final File directory, final long timeoutMillis, final Log log)
+        throws MojoFailureException {
+        final Path gitDir = directory.toPath().toAbsolutePath().normalize();
+        final Span span = PluginEvents.begin(EventKind.LOCK_WAIT, gitDir.toString());
+        try {
+            return acquire(gitDir, timeoutMillis, log);
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Acquires the lock for a git directory, waiting up to the provided timeout for it to be released.
+     *
+     * @param gitDir the absolute and normalized git directory to lock.
+     * @param timeoutMillis how long to wait for the lock in milliseconds.
+     * @param log the log to report lock wait times to.
+     * @return the held lock, which must be closed to release it.
+     * @throws MojoFailureException if the lock could not be acquired in time.
+     */
+    private static RepositoryLock acquire(final Path gitDir, final long timeoutMillis, final Log log)
+        throws MojoFailureException {
+        final ReentrantLock stripe = LOCKS[Math.floorMod(gitDir.hashCode(), STRIPES)];
+        final long start = System.nanoTime();
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            if (!stripe.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw timedOut(gitDir, timeoutMillis, null);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut(gitDir, timeoutMillis, e);
+        }
+
+        boolean acquired = false;
+        try {
+            HeldFileLock held = FILE_LOCKS.get(gitDir);
+            if (held == null && Files.isDirectory(gitDir)) {
+                held = lockFile(gitDir, deadline, timeoutMillis);
+                FILE_LOCKS.put(gitDir, held);
+            }
+            if (held != null) {
+                held.holds++;
+            }
+            acquired = true;
+        } finally {
+            if (!acquired) {
+                stripe.unlock();
+            }
+        }
+
+        log.debug("Waited " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+            + "ms for the lock on " + gitDir);
+        return new RepositoryLock(gitDir, stripe);
+    }
+
+    /** Releases the lock. */
+    @Override
+    public void close() {
+        try {
+            final HeldFileLock held = FILE_LOCKS.get(gitDir);
+            if (held != null && --held.holds == 0) {
+                FILE_LOCKS.remove(gitDir);
+                held.release();
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Takes the operating system file lock for a git directory, polling until it is released by any other process.
+     *
+     * @param gitDir the git directory to lock.
+     * @param deadline the value of {@link System#nanoTime()} after which to stop waiting.
+     * @param timeoutMillis the timeout in milliseconds, used when reporting failure.
+     * @return the held file lock.
+     * @throws MojoFailureException if the lock could not be taken in time.
+     */
+    private static HeldFileLock lockFile(final Path gitDir, final long deadline, final long timeoutMillis)
+        throws MojoFailureException {
+        final Path pluginDirectory = gitDir.resolve(GitRepository.PLUGIN_DIRECTORY);
+        final Path lockFile = pluginDirectory.resolve(LOCK_FILE);
+        FileChannel channel = null;
+        boolean locked = false;
+        try {
+            Files.createDirectories(pluginDirectory);
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            while (tryLock(channel) == null) {
+                if (System.nanoTime() - deadline > 0) {
+                    throw timedOut(gitDir, timeoutMillis, null);
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            locked = true;
+            return new HeldFileLock(channel);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Could not lock " + lockFile, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut(gitDir, timeoutMillis, e);
+        } finally {
+            if (!locked) {
+                IOUtils.closeQuietly(channel);
+            }
+        }
+    }
+
+    /**
+     * Attempts to take the file lock without waiting.
+     *
+     * @param channel the channel of the lock file.
+     * @return the file lock, or null if it is held elsewhere.
+     * @throws IOException if the lock could not be attempted.
+     */
+    private static FileLock tryLock(final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // Held by this JVM under a different path to the same directory, wait for it as for another process.
+            return null;
+        }
+    }
+
+    /**
+     * Creates an exception reporting that a lock could not be acquired in time.
+     *
+     * @param gitDir the git directory that could not be locked.
+     * @param timeoutMillis the timeout in milliseconds.
+     * @param cause the cause, if any.
+     * @return the exception.
+     */
+    private static MojoFailureException timedOut(final Path gitDir, final long timeoutMillis, final Exception cause) {
+        final String message = "Timed out after " + timeoutMillis + "ms waiting for the lock on " + gitDir
+            + ". Another build may be modifying the repository.";
+        return new MojoFailureException(message, cause);
+    }
+
+    /** An operating system file lock held by this JVM. */
+    private static final class HeldFileLock {
+
+        /** The channel of the lock file, closing which releases the file lock. */
+        private final FileChannel channel;
+
+        /** The number of times the lock is currently held by the owning thread. */
+        private int holds;
+
+        /**
+         * Constructor.
+         *
+         * @param lockChannel the channel of the locked lock file.
+         */
+        HeldFileLock(final FileChannel lockChannel) {
+            channel = lockChannel;
+        }
+
+        /** Releases the file lock by closing its channel. */
+        void release() {
+            IOUtils.closeQuietly(channel);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+/** The kinds of work the plugin records JDK Flight Recorder events for. */
+public enum EventKind {
+
+    /** The execution of a goal for a module. */
+    GOAL,
+
+    /** Finding the Git repository managing a project. */
+    REPOSITORY_RESOLUTION,
+
+    /** Waiting for the lock on a git directory. */
+    LOCK_WAIT,
+
+    /** Reading a git config file. */
+    CONFIG_LOAD,
+
+    /** Writing a git config file. */
+    CONFIG_SAVE,
+
+    /** Installing a single hook. */
+    HOOK_INSTALL
+}
@@ -0,0 +1,93 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import com.rudikershaw.gitbuildhook.reactor.ReactorRegistry;
+
+/**
+ * Times the execution of a goal for a module, as a Flight Recorder event and, if a summary file is configured, in the
+ * JSON timing summary of the session shared by every module of the reactor.
+ */
+public final class GoalTimer implements AutoCloseable {
+
+    /** The event recording the goal. */
+    private final Span span;
+
+    /** The timings of the session, or null if no summary is written. */
+    private final SessionTimings timings;
+
+    /** The summary file, or null if no summary is written. */
+    private final File summaryFile;
+
+    /** The goal. */
+    private final String goal;
+
+    /** The id of the module. */
+    private final String moduleId;
+
+    /** The log to report problems writing the summary to. */
+    private final Log log;
+
+    /** The value of {@link System#nanoTime()} when the goal started. */
+    private final long start;
+
+    /**
+     * Constructor.
+     *
+     * @param goalSpan the event recording the goal.
+     * @param sessionTimings the timings of the session, or null.
+     * @param file the summary file, or null.
+     * @param timedGoal the goal.
+     * @param timedModuleId the id of the module.
+     * @param timerLog the log to report problems writing the summary to.
+     */
+    private GoalTimer(final Span goalSpan, final SessionTimings sessionTimings, final File file,
+                      final String timedGoal, final String timedModuleId, final Log timerLog) {
+        span = goalSpan;
+        timings = sessionTimings;
+        summaryFile = file;
+        goal = timedGoal;
+        moduleId = timedModuleId;
+        log = timerLog;
+        start = System.nanoTime();
+    }
+
+    /**
+     * Starts timing a goal.
+     *
+     * @param session the current Maven session.
+     * @param project the module the goal is executing for.
+     * @param goal the goal.
+     * @param summaryFile the file the JSON timing summary of the session is written to, or null for no summary.
+     * @param log the log to report problems writing the summary to.
+     * @return the timer, which must be closed when the goal ends.
+     */
+    public static GoalTimer start(final MavenSession session, final MavenProject project, final String goal,
+                                  final File summaryFile, final Log log) {
+        final String moduleId = ReactorRegistry.moduleId(project);
+        final SessionTimings timings = summaryFile == null ? null : ReactorRegistry.of(session)
+            .getShared("timings:" + summaryFile.getAbsolutePath(), SessionTimings.class, SessionTimings::new);
+        return new GoalTimer(PluginEvents.begin(EventKind.GOAL, goal + " " + moduleId), timings, summaryFile, goal,
+            moduleId, log);
+    }
+
+    /** Ends the timing of the goal, and rewrites the summary if one is configured. */
+    @Override
+    public void close() {
+        final long nanos = System.nanoTime() - start;
+        span.close();
+        if (timings != null) {
+            timings.add(goal, moduleId, nanos);
+            try {
+                timings.write(summaryFile.toPath());
+            } catch (final IOException e) {
+                log.warn("Could not write the timing summary to " + summaryFile, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.AnnotationElement;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventFactory;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.ValueDescriptor;
+
+/**
+ * The JDK Flight Recorder events of the plugin, one event type for each kind of work. The event types are defined with
+ * an {@link EventFactory}, so that their fields can be set without being visible outside of an event class. Only loaded
+ * on JVMs supporting Flight Recorder.
+ */
+final class JfrEvents {
+
+    /** The prefix of the names of the events. */
+    private static final String PREFIX = "com.rudikershaw.gitbuildhook.";
+
+    /** The category of the events. */
+    private static final String CATEGORY = "Git Build Hook";
+
+    /** The index of the field holding what the work is on. */
+    private static final int DETAIL = 0;
+
+    /** The index of the field holding the outcome of the work. */
+    private static final int OUTCOME = 1;
+
+    /** The index of the field holding the number of bytes written by the work. */
+    private static final int BYTES = 2;
+
+    /** The fields shared by every event of the plugin, in the order of their indices. */
+    private static final List<ValueDescriptor> FIELDS = List.of(
+        new ValueDescriptor(String.class, "detail", List.of(new AnnotationElement(Label.class, "Detail"))),
+        new ValueDescriptor(String.class, "outcome", List.of(new AnnotationElement(Label.class, "Outcome"))),
+        new ValueDescriptor(long.class, "bytes", List.of(new AnnotationElement(Label.class, "Bytes Written"),
+            new AnnotationElement(DataAmount.class, DataAmount.BYTES))));
+
+    /** The event type of each kind of work. */
+    private static final Map<EventKind, EventFactory> FACTORIES = createFactories();
+
+    /** Private constructor for utility class. */
+    private JfrEvents() {
+    }
+
+    /**
+     * Begins a span of work, recorded as an event if a recording of that kind of event is running.
+     *
+     * @param kind the kind of work.
+     * @param detail what the work is on.
+     * @return the span, or {@link Span#NONE} if the event is not being recorded.
+     */
+    static Span begin(final EventKind kind, final String detail) {
+        final Event event = FACTORIES.get(kind).newEvent();
+        if (!event.isEnabled()) {
+            return Span.NONE;
+        }
+        event.set(DETAIL, detail);
+        event.begin();
+        return new EventSpan(event);
+    }
+
+    /**
+     * Creates the event type of each kind of work.
+     *
+     * @return the event types by kind of work.
+     */
+    private static Map<EventKind, EventFactory> createFactories() {
+        final Map<EventKind, EventFactory> factories = new EnumMap<>(EventKind.class);
+        factories.put(EventKind.GOAL, create("Goal", "Goal",
+            "The execution of a goal of the plugin for a module"));
+        factories.put(EventKind.REPOSITORY_RESOLUTION, create("RepositoryResolution", "Repository Resolution",
+            "Finding the Git repository managing a project"));
+        factories.put(EventKind.LOCK_WAIT, create("LockWait", "Lock Wait",
+            "Waiting for other builds to release the lock on a git directory"));
+        factories.put(EventKind.CONFIG_LOAD, create("ConfigLoad", "Config Load", "Reading a git config file"));
+        factories.put(EventKind.CONFIG_SAVE, create("ConfigSave", "Config Save", "Writing a git config file"));
+        factories.put(EventKind.HOOK_INSTALL, create("HookInstall", "Hook Install",
+            "Installing a single hook, with the bytes written if it was copied"));
+        return factories;
+    }
+
+    /**
+     * Creates an event type with the fields shared by every event of the plugin.
+     *
+     * @param name the name of the event, without the prefix shared by every event of the plugin.
+     * @param label the human readable name of the event.
+     * @param description the description of the event.
+     * @return the event type.
+     */
+    private static EventFactory create(final String name, final String label, final String description) {
+        return EventFactory.create(List.of(
+            new AnnotationElement(Name.class, PREFIX + name),
+            new AnnotationElement(Label.class, label),
+            new AnnotationElement(Description.class, description),
+            new AnnotationElement(Category.class, new String[] {CATEGORY}),
+            new AnnotationElement(StackTrace.class, false)), FIELDS);
+    }
+
+    /** A span recorded as an event. */
+    private static final class EventSpan implements Span {
+
+        /** The event. */
+        private final Event event;
+
+        /**
+         * Constructor.
+         *
+         * @param begunEvent the begun event.
+         */
+        EventSpan(final Event begunEvent) {
+            event = begunEvent;
+        }
+
+        @Override
+        public boolean isRecording() {
+            return true;
+        }
+
+        @Override
+        public void setBytes(final long bytes) {
+            event.set(BYTES, bytes);
+        }
+
+        @Override
+        public void setOutcome(final String outcome) {
+            event.set(OUTCOME, outcome);
+        }
+
+        @Override
+        public void close() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+}
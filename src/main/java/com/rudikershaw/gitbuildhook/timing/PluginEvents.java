@@ -0,0 +1,42 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+/**
+ * Facade over the JDK Flight Recorder events of the plugin. On Java runtimes built without the jdk.jfr module the event
+ * classes are never loaded, and when no recording of the plugin's events is running a span costs a single check. Events
+ * are in the "Git Build Hook" category and are recorded by any recording, such as one started with
+ * -XX:StartFlightRecording.
+ */
+public final class PluginEvents {
+
+    /** Whether the Java runtime includes Flight Recorder. */
+    private static final boolean AVAILABLE = isAvailable();
+
+    /** Private constructor for utility class. */
+    private PluginEvents() {
+    }
+
+    /**
+     * Begins a span of work, recorded as an event if a recording of that kind of event is running.
+     *
+     * @param kind the kind of work.
+     * @param detail what the work is on, such as a hook name or git directory.
+     * @return the span, which must be closed when the work ends.
+     */
+    public static Span begin(final EventKind kind, final String detail) {
+        return AVAILABLE ? JfrEvents.begin(kind, detail) : Span.NONE;
+    }
+
+    /**
+     * Returns true if the JVM supports Flight Recorder.
+     *
+     * @return whether Flight Recorder events can be used.
+     */
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, PluginEvents.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
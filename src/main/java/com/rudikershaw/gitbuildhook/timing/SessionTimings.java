@@ -0,0 +1,119 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.rudikershaw.gitbuildhook.files.AtomicFiles;
+
+/**
+ * The time spent in each goal of the plugin during a session, in total and by module, written as a JSON summary. The
+ * summary is rewritten after every goal, so that it is complete whenever the session ends.
+ */
+public final class SessionTimings {
+
+    /** Nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** The total time in nanoseconds and number of executions of each goal, by goal. */
+    private final Map<String, long[]> goals = new TreeMap<>();
+
+    /** The time in nanoseconds spent in each goal by each module, by module and goal. */
+    private final Map<String, Map<String, Long>> modules = new TreeMap<>();
+
+    /**
+     * Records the execution of a goal for a module.
+     *
+     * @param goal the goal.
+     * @param moduleId the id of the module.
+     * @param nanos how long the goal took in nanoseconds.
+     */
+    public synchronized void add(final String goal, final String moduleId, final long nanos) {
+        final long[] total = goals.computeIfAbsent(goal, g -> new long[2]);
+        total[0] += nanos;
+        total[1]++;
+        modules.computeIfAbsent(moduleId, m -> new TreeMap<>()).merge(goal, nanos, Long::sum);
+    }
+
+    /**
+     * Writes the JSON summary, under a temporary name moved into place so that it is never read partly written.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public synchronized void write(final Path file) throws IOException {
+        final byte[] json = toJson().getBytes(StandardCharsets.UTF_8);
+        AtomicFiles.write(file, out -> out.write(json));
+    }
+
+    /**
+     * Gets the JSON summary.
+     *
+     * @return the summary.
+     */
+    public synchronized String toJson() {
+        long totalNanos = 0;
+        final StringBuilder json = new StringBuilder("{\n  \"goals\": {");
+        String separator = "\n";
+        for (final Map.Entry<String, long[]> goal : goals.entrySet()) {
+            totalNanos += goal.getValue()[0];
+            json.append(separator).append("    ").append(quote(goal.getKey()))
+                .append(": {\"executions\": ").append(goal.getValue()[1])
+                .append(", \"millis\": ").append(millis(goal.getValue()[0])).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"modules\": {");
+        separator = "\n";
+        for (final Map.Entry<String, Map<String, Long>> module : modules.entrySet()) {
+            long moduleNanos = 0;
+            final StringBuilder moduleGoals = new StringBuilder();
+            String goalSeparator = "";
+            for (final Map.Entry<String, Long> goal : module.getValue().entrySet()) {
+                moduleNanos += goal.getValue();
+                moduleGoals.append(goalSeparator).append(quote(goal.getKey())).append(": ")
+                    .append(millis(goal.getValue()));
+                goalSeparator = ", ";
+            }
+            json.append(separator).append("    ").append(quote(module.getKey()))
+                .append(": {\"millis\": ").append(millis(moduleNanos))
+                .append(", \"goals\": {").append(moduleGoals).append("}}");
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"totalMillis\": ").append(millis(totalNanos)).append("\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Formats a duration in milliseconds.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return the duration in milliseconds, to three decimal places.
+     */
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Quotes a string as JSON.
+     *
+     * @param value the string.
+     * @return the quoted string.
+     */
+    private static String quote(final String value) {
+        final StringBuilder quoted = new StringBuilder("\"");
+        for (final char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+/** A piece of work being timed, which ends when closed. */
+public interface Span extends AutoCloseable {
+
+    /** A span recording nothing, used when no recording is taking place. */
+    Span NONE = new Span() {
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public void setBytes(final long bytes) {
+            // Nothing is recorded.
+        }
+
+        @Override
+        public void setOutcome(final String outcome) {
+            // Nothing is recorded.
+        }
+
+        @Override
+        public void close() {
+            // Nothing is recorded.
+        }
+    };
+
+    /**
+     * Returns true if the span is being recorded, so that details only worth gathering for a recording can be skipped.
+     *
+     * @return whether the span is being recorded.
+     */
+    boolean isRecording();
+
+    /**
+     * Sets the number of bytes written by the work.
+     *
+     * @param bytes the number of bytes.
+     */
+    void setBytes(long bytes);
+
+    /**
+     * Sets the outcome of the work.
+     *
+     * @param outcome the outcome, such as WRITTEN or SKIPPED.
+     */
+    void setOutcome(String outcome);
+
+    /** Ends the span. */
+    @Override
+    void close();
+}
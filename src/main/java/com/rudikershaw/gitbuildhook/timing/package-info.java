@@ -0,0 +1,5 @@
+/**
+ * Package containing classes that time the work the plugin does, as JDK Flight Recorder events and as a JSON summary
+ * of each session.
+ */
+package com.rudikershaw.gitbuildhook.timing;
@@ -2,7 +2,9 @@ package com.rudikershaw.gitbuildhook.validation;
 
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import com.rudikershaw.gitbuildhook.repository.GitRepository;
+import com.rudikershaw.gitbuildhook.repository.GitRepositoryCache;
 
 /** Interface containing the logic required to fail a goal if there is no valid git repository. */
 public interface GitRepositoryValidator {
@@ -19,6 +21,21 @@ public interface GitRepositoryValidator {
         }
     }
 
+    /**
+     * Gets the git repository the project is managed by, failing if there is none.
+     *
+     * @param project the Maven project to check.
+     * @return the resolved git repository.
+     * @throws MojoFailureException if no git repository could be found.
+     */
+    default GitRepository resolveGitRepository(final MavenProject project) throws MojoFailureException {
+        final GitRepository repository = GitRepositoryCache.resolve(project.getBasedir());
+        if (repository == null) {
+            failBuildBecauseRepoCouldNotBeFound(null);
+        }
+        return repository;
+    }
+
     /**
      * Returns true if there is already a valid git repository, otherwise false.
      *
@@ -26,9 +43,7 @@ public interface GitRepositoryValidator {
      * @return whether a git repository is initialized.
      */
     default boolean isGitRepoInitialised(MavenProject project) {
-        final FileRepositoryBuilder repoBuilder =  new FileRepositoryBuilder();
-        repoBuilder.findGitDir(project.getBasedir());
-        return repoBuilder.getGitDir() != null;
+        return GitRepositoryCache.resolve(project.getBasedir()) != null;
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.rudikershaw.gitbuildhook;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.it.VerificationException;
 import org.apache.maven.it.Verifier;
 import org.apache.maven.plugin.testing.MojoRule;
@@ -11,10 +12,16 @@ import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /** Abstract test for Mojos. */
@@ -75,8 +82,10 @@ public class AbstractMojoTest {
      * @throws IOException if moving the file in question fails.
      */
     protected void moveToTempTestDirectory(final String testName, final String fileName, final String newFileName) throws IOException {
+        final Path target = Paths.get(folder.getRoot().getAbsolutePath() + "/" + newFileName);
+        Files.createDirectories(target.getParent());
         Files.copy(Paths.get("target/test-classes/" + testName + "/" + fileName),
-                   Paths.get(folder.getRoot().getAbsolutePath() + "/" + newFileName),
+                   target,
                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
     }
 
@@ -94,4 +103,20 @@ public class AbstractMojoTest {
         verifier.setLocalRepo(testRepsotiroyDirectory.getAbsolutePath());
         return verifier;
     }
+
+    /**
+     * Runs a git command, failing the test if it fails.
+     *
+     * @param directory the directory to run the command in.
+     * @param args the arguments of the command.
+     * @throws Exception if the command could not be run.
+     */
+    protected static void git(final File directory, final String... args) throws Exception {
+        final List<String> command = new ArrayList<>(Arrays.asList("git", "-c", "user.name=Test",
+            "-c", "user.email=test@example.com", "-c", "init.defaultBranch=main"));
+        command.addAll(Arrays.asList(args));
+        final Process process = new ProcessBuilder(command).directory(directory).redirectErrorStream(true).start();
+        final String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+        assertEquals(output, 0, process.waitFor());
+    }
 }
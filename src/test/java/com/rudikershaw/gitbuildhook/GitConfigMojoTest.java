@@ -1,10 +1,18 @@
 package com.rudikershaw.gitbuildhook;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 
+import org.apache.maven.it.VerificationException;
 import org.apache.maven.it.Verifier;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
@@ -38,5 +46,291 @@ public class GitConfigMojoTest extends AbstractMojoTest {
             assertEquals("custom", git.getRepository().getConfig().getString("custom", "config", "name"));
         }
     }
+
+    /**
+     * Tests that the git config file is not rewritten when the configured values are already set.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testUnchangedConfigIsNotSaved() throws Exception {
+        moveToTempTestDirectory("test-project-configure", "pom.xml");
+        final File rootFolder = getFolder().getRoot();
+
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 2 value(s) changed, 0 unchanged.");
+        verifier.resetStreams();
+
+        final File config = new File(rootFolder, ".git/config");
+        final long modified = config.lastModified();
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 0 value(s) changed, 2 unchanged.");
+        verifier.resetStreams();
+        assertEquals(modified, config.lastModified());
+    }
+
+    /**
+     * Tests that git config written to an include file is only written when it changes, that a value removed from the
+     * configuration is removed from the repository, and that the include file is removed when no longer used.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testIncludeConfigFile() throws Exception {
+        moveToTempTestDirectory("test-project-configure", "pom.xml");
+        final File rootFolder = getFolder().getRoot();
+        final File config = new File(rootFolder, ".git/config");
+        final File includeFile = new File(rootFolder, ".git/git-build-hook/gitconfig");
+
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.include=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'include.path' set to - git-build-hook/gitconfig");
+        verifier.verifyTextInLog("Git config 2 value(s) changed, 0 unchanged.");
+        verifier.resetStreams();
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertEquals("hooks-path/", git.getRepository().getConfig().getString("core", null, "hooksPath"));
+            assertEquals("custom", git.getRepository().getConfig().getString("custom", "config", "name"));
+        }
+        final String included = new String(Files.readAllBytes(config.toPath()), StandardCharsets.UTF_8);
+        assertFalse(included, included.contains("hooks-path/"));
+        final long configModified = config.lastModified();
+        final long includeModified = includeFile.lastModified();
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.include=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 0 value(s) changed, 2 unchanged.");
+        verifier.resetStreams();
+        assertEquals(configModified, config.lastModified());
+        assertEquals(includeModified, includeFile.lastModified());
+
+        removeCustomConfigWithIncludeFile(rootFolder);
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertFalse(git.getRepository().getConfig().getNames("custom", "config").contains("name"));
+        }
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 1 value(s) changed, 0 unchanged.");
+        verifier.resetStreams();
+        assertFalse(includeFile.exists());
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertEquals("hooks-path/", git.getRepository().getConfig().getString("core", null, "hooksPath"));
+            assertFalse(git.getRepository().getConfig().getNames("include").contains("path"));
+        }
+    }
+
+    /**
+     * Tests that switching to an include file removes the values previously set in the config itself, so that a value
+     * later removed from the configuration is removed from the repository.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testSwitchFromConfigToIncludeFile() throws Exception {
+        moveToTempTestDirectory("test-project-configure", "pom.xml");
+        final File rootFolder = getFolder().getRoot();
+        final File config = new File(rootFolder, ".git/config");
+
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 2 value(s) changed, 0 unchanged.");
+        verifier.resetStreams();
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.include=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'custom.config.name' removed from config, it is now included.");
+        verifier.verifyTextInLog("Git config 'core.hooksPath' removed from config, it is now included.");
+        verifier.resetStreams();
+        final String included = new String(Files.readAllBytes(config.toPath()), StandardCharsets.UTF_8);
+        assertFalse(included, included.contains("hooks-path/"));
+        assertFalse(included, included.contains("= custom"));
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertEquals("custom", git.getRepository().getConfig().getString("custom", "config", "name"));
+        }
+
+        removeCustomConfigWithIncludeFile(rootFolder);
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertFalse(git.getRepository().getConfig().getNames("custom", "config").contains("name"));
+            assertEquals("hooks-path/", git.getRepository().getConfig().getString("core", null, "hooksPath"));
+        }
+    }
+
+    /**
+     * Tests that when configuring at the end of the reactor, the git config of every module is merged and saved once,
+     * with conflicting values resolved in favour of the module first in the reactor when the policy is to warn.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testReactorConfigAppliedOnceAtEnd() throws Exception {
+        moveReactorToTempTestDirectory();
+        final File rootFolder = getFolder().getRoot();
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.conflictPolicy=WARN");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'custom.config.name' is set to 'custom' by "
+            + "com.rudikershaw.gitbuildhook:test-parent but to 'module-b' by com.rudikershaw.gitbuildhook:test-module-b.");
+
+        final List<String> lines = verifier.loadFile(new File(rootFolder, verifier.getLogFileName()), false);
+        assertEquals(1, lines.stream().filter(l -> l.contains("Git config 3 value(s) changed")).count());
+        assertEquals(2, lines.stream().filter(l -> l.contains("applied at the end of the reactor")).count());
+        verifier.resetStreams();
+
+        final FileRepositoryBuilder repoBuilder =  new FileRepositoryBuilder();
+        repoBuilder.findGitDir(rootFolder);
+        try (Git git = Git.open(repoBuilder.getGitDir())) {
+            assertEquals("hooks-path/", git.getRepository().getConfig().getString("core", null, "hooksPath"));
+            assertEquals("custom", git.getRepository().getConfig().getString("custom", "config", "name"));
+            assertEquals("module-a", git.getRepository().getConfig().getString("custom", "module", "name"));
+        }
+    }
+
+    /**
+     * Tests that when configuring at the end of the reactor, conflicting values fail the build by default.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testReactorConfigConflictFailsBuild() throws Exception {
+        moveReactorToTempTestDirectory();
+        final File rootFolder = getFolder().getRoot();
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        try {
+            verifier.executeGoal("install");
+            fail("The build should fail on conflicting git config.");
+        } catch (final VerificationException e) {
+            verifier.verifyTextInLog("Git config 'custom.config.name' is set to 'custom'");
+        } finally {
+            verifier.resetStreams();
+        }
+    }
+
+    /**
+     * Tests that when configuring at the end of the reactor, the git config merged from the modules that did configure
+     * is still applied when a module fails before it does, with a warning naming the module.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testReactorConfigAppliedAtSessionEndWhenModuleFails() throws Exception {
+        moveReactorToTempTestDirectory();
+        final File rootFolder = getFolder().getRoot();
+        final Path modulePom = new File(rootFolder, "module-a/pom.xml").toPath();
+        final String modulePomContent = new String(Files.readAllBytes(modulePom), StandardCharsets.UTF_8);
+        Files.write(modulePom, modulePomContent.replace("</configuration>", "</configuration><executions><execution>"
+            + "<id>fail</id><phase>validate</phase><goals><goal>install</goal></goals><configuration><installHooks>"
+            + "<not-a-hook>hook.sh</not-a-hook></installHooks></configuration></execution></executions>")
+            .getBytes(StandardCharsets.UTF_8));
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("--fail-at-end");
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.conflictPolicy=WARN");
+        try {
+            verifier.executeGoal("install");
+            fail("The build should fail for the module with an invalid hook.");
+        } catch (final VerificationException e) {
+            verifier.verifyTextInLog("'not-a-hook' is not a valid hook file name.");
+            verifier.verifyTextInLog("Applying git config merged from the reactor at the end of the session, without "
+                + "the git config of 1 module(s) that did not run the configure goal: "
+                + "com.rudikershaw.gitbuildhook:test-module-a.");
+        } finally {
+            verifier.resetStreams();
+        }
+
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertEquals("hooks-path/", git.getRepository().getConfig().getString("core", null, "hooksPath"));
+            assertEquals("custom", git.getRepository().getConfig().getString("custom", "config", "name"));
+            assertFalse(git.getRepository().getConfig().getNames("custom", "module").contains("name"));
+        }
+    }
+
+    /**
+     * Removes the custom.config.name value from the configuration of the test project, and installs with an include
+     * file, checking that the value is removed.
+     *
+     * @param rootFolder the root folder of the test project.
+     * @throws Exception if the test project could not be changed or built.
+     */
+    private void removeCustomConfigWithIncludeFile(final File rootFolder) throws Exception {
+        final Path pom = new File(rootFolder, "pom.xml").toPath();
+        final String pomContent = new String(Files.readAllBytes(pom), StandardCharsets.UTF_8);
+        Files.write(pom, pomContent.replace("<custom.config.name>custom</custom.config.name>", "")
+            .getBytes(StandardCharsets.UTF_8));
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.include=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'custom.config.name' removed.");
+        verifier.resetStreams();
+    }
+
+    /**
+     * Tests that hooks and git config are applied once to the common git directory shared by every worktree, so that
+     * a build in a sibling worktree recognises there is nothing to do, and that per-worktree config is set in the
+     * worktree's config.worktree when requested.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testWorktreesShareConfigAndHooks() throws Exception {
+        moveToTempTestDirectory("test-project-worktrees", "pom.xml", "main/pom.xml");
+        moveToTempTestDirectory("test-project-worktrees", "hook-to-install.sh", "main/hook-to-install.sh");
+        final File main = new File(getFolder().getRoot(), "main");
+        final File linked = new File(getFolder().getRoot(), "linked");
+        git(main, "init");
+        git(main, "add", "pom.xml", "hook-to-install.sh");
+        git(main, "commit", "-m", "Initial commit");
+        git(main, "worktree", "add", linked.getAbsolutePath());
+
+        Verifier verifier = getVerifier(main.toString());
+        verifier.executeGoal("process-sources");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 1 value(s) changed, 0 unchanged.");
+        verifier.verifyTextInLog("Installed 1 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+        final File commonDir = new File(main, ".git");
+        final long hookModified = new File(commonDir, "hooks/pre-commit").lastModified();
+
+        verifier = getVerifier(linked.toString());
+        verifier.executeGoal("process-sources");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 0 value(s) changed, 1 unchanged.");
+        verifier.verifyTextInLog("Installed 0 hook(s), skipped 1 unchanged hook(s).");
+        verifier.resetStreams();
+        assertEquals(hookModified, new File(commonDir, "hooks/pre-commit").lastModified());
+        assertFalse(new File(commonDir, "worktrees/linked/hooks").exists());
+
+        verifier = getVerifier(linked.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.worktree=true");
+        verifier.executeGoal("process-sources");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'extensions.worktreeConfig' set to - true");
+        verifier.resetStreams();
+        final List<String> worktreeConfig = verifier.loadFile(new File(commonDir, "worktrees/linked/config.worktree"),
+            false);
+        assertTrue(worktreeConfig.stream().anyMatch(l -> l.trim().equals("name = custom")));
+    }
+
+    private void moveReactorToTempTestDirectory() throws IOException {
+        moveToTempTestDirectory("test-project-reactor-configure", "pom.xml");
+        moveToTempTestDirectory("test-project-reactor-configure", "module-a/pom.xml");
+        moveToTempTestDirectory("test-project-reactor-configure", "module-b/pom.xml");
+    }
 }
 
@@ -1,15 +1,27 @@
 package com.rudikershaw.gitbuildhook;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.it.VerificationException;
 import org.apache.maven.it.Verifier;
 import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Assert;
 import org.junit.Test;
 
 /** Unit and integration tests for the GitBuildHookMojo. */
@@ -72,6 +84,12 @@ public class InstallMojoTest extends AbstractMojoTest {
         verifier.assertFilePresent(".git/hooks/applypatch-msg");
         verifier.assertFilePresent(".git/hooks/pre-applypatch");
         verifier.resetStreams();
+
+        assertTrue(new File(rootFolder, ".git/hooks/pre-commit").canExecute());
+        assertTrue(new File(rootFolder, ".git/hooks/commit-msg").canExecute());
+        final File[] leftovers = new File(rootFolder, ".git/hooks").listFiles((dir, name) -> name.endsWith(".tmp"));
+        assertNotNull(leftovers);
+        assertEquals(0, leftovers.length);
     }
 
     @Test
@@ -108,6 +126,128 @@ public class InstallMojoTest extends AbstractMojoTest {
         verifier.resetStreams();
     }
 
+    /**
+     * Test that hooks configured as Maven artifact coordinates are resolved from the local repository, without being
+     * declared as plugin dependencies, and extracted once into the artifact hook cache, and that a build with nothing
+     * to install does not resolve them again.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testInstallHooksFromArtifactCoordinates() throws Exception {
+        moveToTempTestDirectory("test-project-artifact-hooks", "pom.xml");
+
+        final File rootFolder = getFolder().getRoot();
+        final File cache = new File(rootFolder, "artifact-cache");
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.artifactCache=" + cache.getAbsolutePath());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.assertFilePresent(".git/hooks/pre-commit");
+        verifier.assertFilePresent(".git/hooks/commit-msg");
+        verifier.resetStreams();
+
+        try (Stream<Path> files = Files.walk(cache.toPath())) {
+            assertEquals(1, files.filter(f -> f.endsWith("tests/cphooks/hook-to-install-from-cp.sh")).count());
+        }
+
+        FileUtils.deleteDirectory(cache);
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.artifactCache=" + cache.getAbsolutePath());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 0 hook(s), skipped 2 unchanged hook(s).");
+        verifier.resetStreams();
+        assertFalse(cache.exists());
+    }
+
+    /**
+     * Test that every entry of a hook bundle directory is installed, with hooks made executable and helper files
+     * copied unchanged with the permissions of any new file, and that nothing is rewritten when the bundle has not
+     * changed.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testInstallHookBundleDirectory() throws Exception {
+        moveToTempTestDirectory("test-project-hook-bundle", "pom.xml");
+        moveToTempTestDirectory("test-project-hook-bundle", "hooks/pre-commit");
+        moveToTempTestDirectory("test-project-hook-bundle", "hooks/commit-msg");
+        moveToTempTestDirectory("test-project-hook-bundle", "hooks/lib/common.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 3 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+        assertTrue(new File(rootFolder, ".git/hooks/pre-commit").canExecute());
+        assertTrue(new File(rootFolder, ".git/hooks/commit-msg").canExecute());
+        final File helper = new File(rootFolder, ".git/hooks/lib/common.sh");
+        assertTrue(helper.isFile());
+        assertFalse(helper.canExecute());
+        final Path created = Files.createFile(new File(rootFolder, "created").toPath());
+        assertEquals(Files.getPosixFilePermissions(created), Files.getPosixFilePermissions(helper.toPath()));
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 0 hook(s)");
+        verifier.resetStreams();
+    }
+
+    /**
+     * Test that a hook bundle archive is installed in a single pass, and that a top level entry without an extension
+     * that is not named after a Git hook fails the build.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testInstallHookBundleArchive() throws Exception {
+        moveToTempTestDirectory("test-project-hook-bundle", "pom.xml");
+
+        final File rootFolder = getFolder().getRoot();
+        final File archive = new File(rootFolder, "hooks.zip");
+        writeArchive(archive, "pre-push", "lib/common.sh");
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dhook.bundle=" + archive.getAbsolutePath());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        assertTrue(new File(rootFolder, ".git/hooks/pre-push").canExecute());
+        assertTrue(new File(rootFolder, ".git/hooks/lib/common.sh").isFile());
+        assertFalse(new File(rootFolder, ".git/hooks/lib/common.sh").canExecute());
+
+        writeArchive(archive, "pre-psuh");
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dhook.bundle=" + archive.getAbsolutePath());
+        try {
+            verifier.executeGoal("install");
+            Assert.fail("The build should fail when a bundle entry is not a valid hook name.");
+        } catch (final VerificationException e) {
+            verifier.verifyTextInLog("'pre-psuh' is not a valid hook file name.");
+        } finally {
+            verifier.resetStreams();
+        }
+    }
+
+    /**
+     * Writes a zip archive with an entry for each of the provided names.
+     *
+     * @param archive the archive to write.
+     * @param names the names of the entries.
+     * @throws IOException if the archive could not be written.
+     */
+    private static void writeArchive(final File archive, final String... names) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive.toPath()))) {
+            for (final String name : names) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(("echo " + name + "\n").getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+    }
+
     /**
      * Test that you can update hooks by installing one file over another.
      *
@@ -144,6 +284,385 @@ public class InstallMojoTest extends AbstractMojoTest {
         assertTrue(updatedCommitMsgLines.contains("updated hook"));
     }
 
+    /**
+     * Test that hooks recorded as unchanged in the install manifest are not rewritten, unless reinstall is forced.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testUnchangedHooksAreNotRewritten() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 10 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+
+        final File preCommit = new File(rootFolder, ".git/hooks/pre-commit");
+        final File commitMsg = new File(rootFolder, ".git/hooks/commit-msg");
+        final long preCommitModified = preCommit.lastModified();
+        final long commitMsgModified = commitMsg.lastModified();
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 0 hook(s), skipped 10 unchanged hook(s).");
+        verifier.resetStreams();
+        assertEquals(preCommitModified, preCommit.lastModified());
+        assertEquals(commitMsgModified, commitMsg.lastModified());
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.force=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 10 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+    }
+
+    /**
+     * Test that the time spent installing hooks is written to the timing summary when one is requested.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testTimingSummary() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.timings.output=timings.json");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        final String timings = new String(Files.readAllBytes(new File(rootFolder, "timings.json").toPath()),
+                                          StandardCharsets.UTF_8);
+        assertTrue(timings, timings.contains("\"install\": {\"executions\": 1"));
+    }
+
+    /**
+     * Test that hooks installed in parallel are all installed, and that failures are aggregated into one build failure.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testParallelInstall() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.parallel=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 10 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+        assertTrue(new File(rootFolder, ".git/hooks/pre-merge-commit").canExecute());
+        assertTrue(new File(rootFolder, ".git/hooks/post-update").canExecute());
+
+        FileUtils.forceDelete(new File(rootFolder, "hook-to-install.sh"));
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.parallel=true");
+        try {
+            verifier.executeGoal("install");
+            Assert.fail("The build should fail when hooks cannot be found.");
+        } catch (final VerificationException e) {
+            verifier.verifyTextInLog("6 hook(s) could not be installed");
+        } finally {
+            verifier.resetStreams();
+        }
+    }
+
+    /**
+     * Test that the symlink and hooksPath install strategies link to hook files rather than copying them, and that
+     * switching back to copying restores copied hooks and the default hooks directory.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testLinkedInstallStrategies() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        final Path hookFile = new File(rootFolder, "hook-to-install.sh").toPath().toAbsolutePath();
+        final Path preCommit = new File(rootFolder, ".git/hooks/pre-commit").toPath();
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=symlink");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        assertTrue(Files.isSymbolicLink(preCommit));
+        assertEquals(hookFile, Files.readSymbolicLink(preCommit));
+        assertFalse(Files.isSymbolicLink(new File(rootFolder, ".git/hooks/commit-msg").toPath()));
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hooksPath");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'core.hooksPath' set to");
+        verifier.resetStreams();
+        final File generated = new File(rootFolder, ".git/git-build-hook/hooks/pre-commit");
+        assertTrue(generated.canExecute());
+        assertTrue(verifier.loadFile(generated, false).stream().anyMatch(l -> l.contains(hookFile.toString())));
+        assertTrue(new File(rootFolder, ".git/git-build-hook/hooks/commit-msg").canExecute());
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 'core.hooksPath' unset");
+        verifier.resetStreams();
+        assertFalse(Files.isSymbolicLink(preCommit));
+        assertTrue(preCommit.toFile().canExecute());
+    }
+
+    /**
+     * Test that the hooksPath install strategy fails the build rather than overwriting a core.hooksPath set to another
+     * directory.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testHooksPathStrategyDoesNotOverwriteHooksPath() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+        final File rootFolder = getFolder().getRoot();
+
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        git(rootFolder, "config", "core.hooksPath", "custom-hooks/");
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hooksPath");
+        try {
+            verifier.executeGoal("install");
+            Assert.fail("The build should fail when core.hooksPath is already set to another directory.");
+        } catch (final VerificationException e) {
+            verifier.verifyTextInLog("Git config 'core.hooksPath' is set in");
+            verifier.verifyTextInLog("as 'custom-hooks/', which conflicts with the hooksPath install strategy");
+        } finally {
+            verifier.resetStreams();
+        }
+        final List<String> config = verifier.loadFile(new File(rootFolder, ".git/config"), false);
+        assertTrue(config.stream().anyMatch(l -> l.trim().equals("hooksPath = custom-hooks/")));
+    }
+
+    /**
+     * Test that the hardlink install strategy stores hook content once and links every hook with that content to it.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testHardlinkInstallStrategy() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        final File store = new File(rootFolder, "hook-store");
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hardlink");
+        verifier.addCliOption("-Dgitbuildhook.install.store=" + store);
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 10 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+
+        final Path preCommit = new File(rootFolder, ".git/hooks/pre-commit").toPath();
+        assertTrue(Files.isSameFile(preCommit, new File(rootFolder, ".git/hooks/pre-push").toPath()));
+        assertTrue(Files.isSameFile(new File(rootFolder, ".git/hooks/commit-msg").toPath(),
+            new File(rootFolder, ".git/hooks/update").toPath()));
+        assertTrue(preCommit.toFile().canExecute());
+        try (Stream<Path> stored = Files.walk(store.toPath())) {
+            assertEquals(2, stored.filter(Files::isRegularFile).count());
+        }
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hardlink");
+        verifier.addCliOption("-Dgitbuildhook.install.store=" + store);
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 0 hook(s), skipped 10 unchanged hook(s).");
+        verifier.resetStreams();
+    }
+
+    /**
+     * Test that switching from the hardlink install strategy to copying replaces every hook with a copy, rather than
+     * leaving it linked to the hook store.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testSwitchFromHardlinkToCopyInstallStrategy() throws Exception {
+        moveToTempTestDirectory("test-project-install-hooks", "pom.xml");
+        moveToTempTestDirectory("test-project-install-hooks", "hook-to-install.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        final File store = new File(rootFolder, "hook-store");
+        Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hardlink");
+        verifier.addCliOption("-Dgitbuildhook.install.store=" + store);
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        final Path preCommit = new File(rootFolder, ".git/hooks/pre-commit").toPath();
+        final Path prePush = new File(rootFolder, ".git/hooks/pre-push").toPath();
+        assertTrue(Files.isSameFile(preCommit, prePush));
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=copy");
+        verifier.addCliOption("-Dgitbuildhook.install.store=" + store);
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 10 hook(s), skipped 0 unchanged hook(s).");
+        verifier.resetStreams();
+        assertFalse(Files.isSameFile(preCommit, prePush));
+        assertTrue(preCommit.toFile().canExecute());
+
+        verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=copy");
+        verifier.addCliOption("-Dgitbuildhook.install.store=" + store);
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Installed 0 hook(s), skipped 10 unchanged hook(s).");
+        verifier.resetStreams();
+    }
+
+    /**
+     * Test that hook groups install their scripts and a dispatcher that runs them, buffering the output of each script,
+     * stopping after a failure when failing fast, and failing scripts that time out.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testHookGroups() throws Exception {
+        moveToTempTestDirectory("test-project-hook-groups", "pom.xml");
+        moveToTempTestDirectory("test-project-hook-groups", "first.sh");
+        moveToTempTestDirectory("test-project-hook-groups", "second.sh");
+        moveToTempTestDirectory("test-project-hook-groups", "failing.sh");
+        moveToTempTestDirectory("test-project-hook-groups", "slow.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        verifier.assertFilePresent(".git/hooks/pre-commit.d/01-first.sh");
+        verifier.assertFilePresent(".git/hooks/pre-commit.d/02-second.sh");
+        verifier.assertFilePresent(".git/hooks/pre-push.d/02-failing.sh");
+
+        final File hooks = new File(rootFolder, ".git/hooks");
+        String output = runHook(new File(hooks, "pre-commit"), "input", 0);
+        assertTrue(output, output.matches("(?s)==> 01-first.sh\\s+first arg\\s+input\\s+"
+            + "==> 02-second.sh\\s+second arg\\s*"));
+
+        output = runHook(new File(hooks, "pre-push"), "", 1);
+        assertTrue(output, output.contains("02-failing.sh failed with exit code 3"));
+        assertTrue(output, output.contains("1 script(s) not run."));
+        assertFalse(output, output.contains("second arg"));
+
+        output = runHook(new File(hooks, "commit-msg"), "", 1);
+        assertTrue(output, output.contains("01-slow.sh timed out after 1s"));
+    }
+
+    /**
+     * Runs an installed hook with a single argument and the provided standard input, from the top of the work tree as
+     * Git does.
+     *
+     * @param hook the hook to run.
+     * @param input the standard input of the hook.
+     * @param expectedExitCode the exit code the hook is expected to exit with.
+     * @return the combined output of the hook.
+     * @throws Exception if the hook could not be run.
+     */
+    private String runHook(final File hook, final String input, final int expectedExitCode) throws Exception {
+        final Process process = new ProcessBuilder(hook.getAbsolutePath(), "arg").directory(getFolder().getRoot())
+            .redirectErrorStream(true).start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(input.getBytes(StandardCharsets.UTF_8));
+        }
+        final String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+        assertEquals(output, expectedExitCode, process.waitFor());
+        return output;
+    }
+
+    /**
+     * Test that a runner hook runs its goals in the runner started by the runner goal, with the hook's output streamed
+     * back from the runner, and that the runner removes its runner file when stopped.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testRunnerHooks() throws Exception {
+        moveToTempTestDirectory("test-project-runner-hooks", "pom.xml");
+
+        final File rootFolder = getFolder().getRoot();
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        verifier.assertFilePresent(".git/hooks/pre-commit");
+
+        final String runnerGoal = "com.rudikershaw.gitbuildhook:git-build-hook-maven-plugin:3.6.0-SNAPSHOT:runner";
+        verifier.addCliOption("-o");
+        verifier.addCliOption("-Dgitbuildhook.runner.idleTimeout=120");
+        verifier.executeGoal(runnerGoal);
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Started the runner");
+        verifier.resetStreams();
+        verifier.assertFilePresent(".git/git-build-hook/runner.properties");
+
+        try {
+            final String output = runHook(new File(rootFolder, ".git/hooks/pre-commit"), "", 0);
+            assertTrue(output, output.contains("Running validate -Drunner.marker=warm for the pre-commit hook."));
+            assertTrue(output, output.contains("BUILD SUCCESS"));
+        } finally {
+            verifier.getCliOptions().clear();
+            verifier.addCliOption("-o");
+            verifier.addCliOption("-Dgitbuildhook.runner.stop=true");
+            verifier.executeGoal(runnerGoal);
+            verifier.resetStreams();
+        }
+        verifier.verifyTextInLog("Stopped the runner");
+        final File runnerFile = new File(rootFolder, ".git/git-build-hook/runner.properties");
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (runnerFile.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertFalse(runnerFile.exists());
+    }
+
+    /**
+     * Test that in a multi-module reactor sharing one repository, only the first module installs the hooks.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testReactorInstallsHooksOnce() throws Exception {
+        moveToTempTestDirectory("test-project-reactor", "pom.xml");
+        moveToTempTestDirectory("test-project-reactor", "hook-to-install.sh");
+        moveToTempTestDirectory("test-project-reactor", "module-a/pom.xml");
+        moveToTempTestDirectory("test-project-reactor", "module-b/pom.xml");
+        moveToTempTestDirectory("test-project-reactor", "module-c/pom.xml");
+
+        final File rootFolder = getFolder().getRoot();
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.assertFilePresent(".git/hooks/pre-commit");
+
+        final List<String> lines = verifier.loadFile(new File(rootFolder, verifier.getLogFileName()), false);
+        assertEquals(1, lines.stream().filter(l -> l.contains("Installed 1 hook(s)")).count());
+        assertEquals(3, lines.stream()
+            .filter(l -> l.contains("by module com.rudikershaw.gitbuildhook:test-parent"))
+            .count());
+        verifier.resetStreams();
+    }
+
     /**
      * Tests that the plugin fails when we specify installing an invalid named hook.
      *
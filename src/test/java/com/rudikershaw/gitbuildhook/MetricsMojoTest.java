@@ -0,0 +1,64 @@
+package com.rudikershaw.gitbuildhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.it.Verifier;
+import org.junit.Test;
+
+/** Unit and integration tests for the MetricsMojo. */
+public class MetricsMojoTest extends AbstractMojoTest {
+
+    /**
+     * Tests that hooks installed with metrics enabled record each run, and that the metrics goal summarises them.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testHookRunsAreSummarised() throws Exception {
+        moveToTempTestDirectory("test-project-metrics", "pom.xml");
+        moveToTempTestDirectory("test-project-metrics", "passing.sh");
+        moveToTempTestDirectory("test-project-metrics", "failing.sh");
+
+        final File rootFolder = getFolder().getRoot();
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        verifier.assertFilePresent(".git/hooks/pre-commit.wrapped");
+
+        final File hooks = new File(rootFolder, ".git/hooks");
+        assertEquals(0, runHook(new File(hooks, "pre-commit")));
+        assertEquals(0, runHook(new File(hooks, "pre-commit")));
+        assertEquals(3, runHook(new File(hooks, "commit-msg")));
+        final String recorded = new String(Files.readAllBytes(
+            new File(rootFolder, ".git/git-build-hook/metrics.log").toPath()), StandardCharsets.UTF_8);
+        assertTrue(recorded, recorded.matches("(?s)\\d+ pre-commit 0 \\d+\n\\d+ pre-commit 0 \\d+\n"
+            + "\\d+ commit-msg 3 \\d+\n"));
+
+        verifier.executeGoal("com.rudikershaw.gitbuildhook:git-build-hook-maven-plugin:3.6.0-SNAPSHOT:metrics");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        final String summary = new String(Files.readAllBytes(
+            new File(rootFolder, "target/git-build-hook/hook-metrics.prom").toPath()), StandardCharsets.UTF_8);
+        assertTrue(summary, summary.contains("git_build_hook_duration_seconds_count{hook=\"pre-commit\"} 2\n"));
+        assertTrue(summary, summary.contains("git_build_hook_failures_total{hook=\"commit-msg\"} 1\n"));
+    }
+
+    /**
+     * Runs an installed hook, appending its output to a file in the temporary directory.
+     *
+     * @param hook the hook to run.
+     * @return the exit code of the hook.
+     * @throws Exception if the hook could not be run.
+     */
+    private int runHook(final File hook) throws Exception {
+        final File output = new File(getFolder().getRoot(), "hook-output.txt");
+        return new ProcessBuilder(hook.getAbsolutePath()).redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(output)).start().waitFor();
+    }
+}
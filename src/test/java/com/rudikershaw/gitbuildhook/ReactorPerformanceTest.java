@@ -0,0 +1,198 @@
+package com.rudikershaw.gitbuildhook;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.it.Verifier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Performance regression tests building generated reactors of many modules, each inheriting the plugin from the
+ * parent POM, both sequentially and in parallel. The plugin's Flight Recorder events are recorded for each build to
+ * measure the total time spent in the plugin's goals and to count the git config and hook files written, each of
+ * which must stay within its budget as the number of modules grows.
+ * <p>
+ * These tests take much longer than the others, and so are only run with the performance profile,
+ * {@code mvn verify -Pperformance}.
+ */
+@RunWith(Parameterized.class)
+public class ReactorPerformanceTest extends AbstractMojoTest {
+
+    /** The number of hooks installed by the generated reactors. */
+    private static final int HOOKS = 2;
+
+    /** The time the plugin may spend regardless of the number of modules, such as to create the repository. */
+    private static final long FIXED_BUDGET_MILLIS = 3000;
+
+    /** The time the plugin may spend on each module. */
+    private static final long MODULE_BUDGET_MILLIS = 5;
+
+    /** The number of modules in the reactor. */
+    private final int modules;
+
+    /** The number of threads the reactor is built with. */
+    private final int threads;
+
+    /**
+     * Constructor.
+     *
+     * @param moduleCount the number of modules in the reactor.
+     * @param threadCount the number of threads the reactor is built with.
+     */
+    public ReactorPerformanceTest(final int moduleCount, final int threadCount) {
+        modules = moduleCount;
+        threads = threadCount;
+    }
+
+    /**
+     * Gets the sizes of reactor to build, each sequentially and with four threads.
+     *
+     * @return the number of modules and threads of each build.
+     */
+    @Parameters(name = "{0} modules, {1} thread(s)")
+    public static Collection<Object[]> parameters() {
+        return Arrays.asList(new Object[][] {
+            {50, 1}, {50, 4}, {200, 1}, {200, 4}, {1000, 1}, {1000, 4}
+        });
+    }
+
+    /**
+     * Builds the generated reactor and checks that the plugin stays within its budgets.
+     *
+     * @throws Exception if the reactor cannot be generated or built.
+     */
+    @Test
+    public void testReactorStaysWithinBudget() throws Exception {
+        final File rootFolder = getFolder().getRoot();
+        generateReactor(rootFolder.toPath());
+        final Path recording = rootFolder.toPath().resolve("recording.jfr");
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.setForkJvm(true);
+        final String mavenOpts = System.getenv("MAVEN_OPTS");
+        verifier.setEnvironmentVariable("MAVEN_OPTS", (mavenOpts == null ? "" : mavenOpts + " ")
+            + "-XX:StartFlightRecording=dumponexit=true,filename=" + recording);
+        verifier.addCliOption("-T" + threads);
+        verifier.executeGoal("process-sources");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        verifier.assertFilePresent(".git/hooks/pre-commit");
+        verifier.assertFilePresent(".git/hooks/commit-msg");
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recording);
+        final long pluginMillis = TimeUnit.NANOSECONDS.toMillis(events.stream()
+            .filter(e -> isEvent(e, "Goal"))
+            .mapToLong(e -> e.getDuration().toNanos())
+            .sum());
+        final long configWrites = events.stream().filter(e -> isEvent(e, "ConfigSave")).count();
+        final long hooksWritten = events.stream()
+            .filter(e -> isEvent(e, "HookInstall") && "WRITTEN".equals(e.getString("outcome")))
+            .count();
+
+        final long budgetMillis = FIXED_BUDGET_MILLIS + MODULE_BUDGET_MILLIS * modules;
+        final String measured = modules + " modules with " + threads + " thread(s): " + pluginMillis + "ms in the "
+            + "plugin, " + configWrites + " git config write(s), " + hooksWritten + " hook(s) written";
+        assertTrue(measured + ", more than the budget of " + budgetMillis + "ms", pluginMillis <= budgetMillis);
+        assertTrue(measured + ", more than one git config write", configWrites <= 1);
+        assertTrue(measured + ", more than one write of each hook", hooksWritten <= HOOKS);
+    }
+
+    /**
+     * Returns true if the event is the named event of the plugin.
+     *
+     * @param event the recorded event.
+     * @param name the name of the plugin's event, without its prefix.
+     * @return whether the event is the named event.
+     */
+    private static boolean isEvent(final RecordedEvent event, final String name) {
+        return event.getEventType().getName().equals("com.rudikershaw.gitbuildhook." + name);
+    }
+
+    /**
+     * Generates a reactor with the plugin configured in its parent POM to initialise the repository, set git config
+     * and install hooks, and with the configured number of modules inheriting it.
+     *
+     * @param root the directory to generate the reactor in.
+     * @throws IOException if the reactor could not be written.
+     */
+    private void generateReactor(final Path root) throws IOException {
+        final StringBuilder moduleList = new StringBuilder();
+        for (int i = 0; i < modules; i++) {
+            final String module = String.format("module-%04d", i);
+            moduleList.append("    <module>").append(module).append("</module>\n");
+            write(root.resolve(module).resolve("pom.xml"), "<project>\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <parent>\n"
+                + "    <groupId>com.rudikershaw.gitbuildhook</groupId>\n"
+                + "    <artifactId>test-parent</artifactId>\n"
+                + "    <version>1.0.0-SNAPSHOT</version>\n"
+                + "  </parent>\n"
+                + "  <artifactId>test-" + module + "</artifactId>\n"
+                + "  <packaging>pom</packaging>\n"
+                + "</project>\n");
+        }
+        write(root.resolve("hook-to-install.sh"), "#!/bin/sh\nexit 0\n");
+        write(root.resolve("pom.xml"), "<project>\n"
+            + "  <modelVersion>4.0.0</modelVersion>\n"
+            + "  <groupId>com.rudikershaw.gitbuildhook</groupId>\n"
+            + "  <artifactId>test-parent</artifactId>\n"
+            + "  <version>1.0.0-SNAPSHOT</version>\n"
+            + "  <packaging>pom</packaging>\n"
+            + "  <modules>\n" + moduleList + "  </modules>\n"
+            + "  <build>\n"
+            + "    <plugins>\n"
+            + "      <plugin>\n"
+            + "        <groupId>com.rudikershaw.gitbuildhook</groupId>\n"
+            + "        <artifactId>git-build-hook-maven-plugin</artifactId>\n"
+            + "        <version>3.6.0-SNAPSHOT</version>\n"
+            + "        <configuration>\n"
+            + "          <gitConfig>\n"
+            + "            <custom.config.name>custom</custom.config.name>\n"
+            + "          </gitConfig>\n"
+            + "          <installHooks>\n"
+            + "            <pre-commit>${maven.multiModuleProjectDirectory}/hook-to-install.sh</pre-commit>\n"
+            + "            <commit-msg>${maven.multiModuleProjectDirectory}/hook-to-install.sh</commit-msg>\n"
+            + "          </installHooks>\n"
+            + "        </configuration>\n"
+            + "        <executions>\n"
+            + "          <execution>\n"
+            + "            <goals>\n"
+            + "              <goal>initialize</goal>\n"
+            + "              <goal>configure</goal>\n"
+            + "              <goal>install</goal>\n"
+            + "            </goals>\n"
+            + "          </execution>\n"
+            + "        </executions>\n"
+            + "      </plugin>\n"
+            + "    </plugins>\n"
+            + "  </build>\n"
+            + "</project>\n");
+    }
+
+    /**
+     * Writes a file of the generated reactor.
+     *
+     * @param file the file to write.
+     * @param content the content of the file.
+     * @throws IOException if the file could not be written.
+     */
+    private static void write(final Path file, final String content) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,106 @@
+package com.rudikershaw.gitbuildhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.maven.it.VerificationException;
+import org.apache.maven.it.Verifier;
+import org.eclipse.jgit.api.Git;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Unit and integration tests for the SetupMojo. */
+public class SetupMojoTest extends AbstractMojoTest {
+
+    /**
+     * Tests that the setup goal initialises a repository, sets the git config and installs the hooks in one pass, with
+     * core.hooksPath saved along with the rest of the git config for the hooksPath install strategy.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testSetupInitialisesConfiguresAndInstalls() throws Exception {
+        moveToTempTestDirectory("test-project-setup", "pom.xml");
+        moveToTempTestDirectory("test-project-setup", "hook-to-install.sh");
+        final File rootFolder = getFolder().getRoot();
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hooksPath");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Git config 2 value(s) changed, 0 unchanged.");
+        verifier.resetStreams();
+
+        assertTrue(new File(rootFolder, ".git/git-build-hook/hooks/pre-commit").canExecute());
+        assertTrue(new File(rootFolder, ".git/git-build-hook/hooks/commit-msg").canExecute());
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertEquals("custom", git.getRepository().getConfig().getString("custom", "config", "name"));
+            assertTrue(git.getRepository().getConfig().getString("core", null, "hooksPath")
+                .endsWith(".git/git-build-hook/hooks"));
+        }
+    }
+
+    /**
+     * Tests that the setup goal fails, without changing the git config, when the configured git config sets
+     * core.hooksPath and the hooksPath install strategy would set it to another directory.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testConfiguredHooksPathConflictsWithHooksPathStrategy() throws Exception {
+        moveToTempTestDirectory("test-project-setup", "pom.xml");
+        moveToTempTestDirectory("test-project-setup", "hook-to-install.sh");
+        final File rootFolder = getFolder().getRoot();
+        final Path pom = new File(rootFolder, "pom.xml").toPath();
+        final String pomContent = new String(Files.readAllBytes(pom), StandardCharsets.UTF_8);
+        Files.write(pom, pomContent.replace("<gitConfig>", "<gitConfig><core.hooksPath>hooks-path/</core.hooksPath>")
+            .getBytes(StandardCharsets.UTF_8));
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.install.strategy=hooksPath");
+        try {
+            verifier.executeGoal("install");
+            Assert.fail("The build should fail when the git config sets core.hooksPath for the hooksPath strategy.");
+        } catch (final VerificationException e) {
+            verifier.verifyTextInLog("Git config 'core.hooksPath' is configured as 'hooks-path/', which conflicts "
+                + "with the hooksPath install strategy");
+        } finally {
+            verifier.resetStreams();
+        }
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertNull(git.getRepository().getConfig().getString("core", null, "hooksPath"));
+        }
+    }
+
+    /**
+     * Tests that the setup goal honours the properties skipping the configure and install goals.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testSetupHonoursSkipProperties() throws Exception {
+        moveToTempTestDirectory("test-project-setup", "pom.xml");
+        moveToTempTestDirectory("test-project-setup", "hook-to-install.sh");
+        final File rootFolder = getFolder().getRoot();
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.addCliOption("-Dgitbuildhook.gitconfig.skip=true");
+        verifier.addCliOption("-Dgitbuildhook.install.skip=true");
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+
+        verifier.assertFilePresent(".git");
+        assertFalse(new File(rootFolder, ".git/hooks/pre-commit").exists());
+        try (Git git = Git.open(new File(rootFolder, ".git"))) {
+            assertNull(git.getRepository().getConfig().getString("custom", "config", "name"));
+        }
+    }
+}
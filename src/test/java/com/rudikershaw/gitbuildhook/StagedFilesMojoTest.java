@@ -0,0 +1,157 @@
+package com.rudikershaw.gitbuildhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.it.Verifier;
+import org.eclipse.jgit.api.Git;
+import org.junit.Test;
+
+/** Unit and integration tests for the StagedFilesMojo. */
+public class StagedFilesMojoTest extends AbstractMojoTest {
+
+    /**
+     * Tests that only the files staged within the module are published, and that files whose deletion is staged are
+     * only published when asked for.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testStagedFilesWithinModule() throws Exception {
+        moveToTempTestDirectory("test-project-staged-files", "pom.xml", "module/pom.xml");
+
+        final File rootFolder = getFolder().getRoot();
+        final File module = new File(rootFolder, "module");
+        try (Git git = Git.init().setDirectory(rootFolder).call()) {
+            write(module, "changed.txt", "committed");
+            write(module, "deleted.txt", "committed");
+            write(module, "unchanged.txt", "committed");
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Initial commit").call();
+
+            write(module, "changed.txt", "staged");
+            write(module, "src/added.txt", "staged");
+            write(module, "untracked.txt", "not staged");
+            write(rootFolder, "outside.txt", "staged outside the module");
+            git.add().addFilepattern("module/changed.txt").addFilepattern("module/src/added.txt")
+                .addFilepattern("outside.txt").call();
+            git.rm().addFilepattern("module/deleted.txt").call();
+        }
+
+        final Verifier verifier = getVerifier(module.toString());
+        verifier.executeGoal("initialize");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("2 of 3 staged file(s) are in this module.");
+        verifier.resetStreams();
+        final File output = new File(module, "target/git-build-hook/staged-files.txt");
+        assertEquals(Arrays.asList(new File(module, "changed.txt").getAbsolutePath(),
+            new File(module, "src/added.txt").getAbsolutePath()), read(output));
+
+        verifier.addCliOption("-Dgitbuildhook.stagedFiles.includeDeleted=true");
+        verifier.executeGoal("initialize");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        assertEquals(3, read(output).size());
+    }
+
+    /**
+     * Tests that in a linked worktree, the files staged in its own index against its own HEAD are published, rather
+     * than those of the main working tree.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testStagedFilesInLinkedWorktree() throws Exception {
+        moveToTempTestDirectory("test-project-staged-files", "pom.xml", "main/module/pom.xml");
+
+        final File main = new File(getFolder().getRoot(), "main");
+        final File linked = new File(getFolder().getRoot(), "linked");
+        write(main, "module/changed.txt", "committed");
+        git(main, "init");
+        git(main, "add", ".");
+        git(main, "commit", "-m", "Initial commit");
+        git(main, "worktree", "add", "-b", "linked", linked.getAbsolutePath());
+
+        write(linked, "module/committed.txt", "committed in the linked worktree");
+        git(linked, "add", "module/committed.txt");
+        git(linked, "commit", "-m", "Linked commit");
+        write(linked, "module/changed.txt", "staged in the linked worktree");
+        git(linked, "add", "module/changed.txt");
+        write(main, "module/main.txt", "staged in the main working tree");
+        git(main, "add", "module/main.txt");
+
+        final File module = new File(linked, "module");
+        final Verifier verifier = getVerifier(module.toString());
+        verifier.executeGoal("initialize");
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("1 of 1 staged file(s) are in this module.");
+        verifier.resetStreams();
+        assertEquals(Arrays.asList(new File(module, "changed.txt").getAbsolutePath()),
+            read(new File(module, "target/git-build-hook/staged-files.txt")));
+    }
+
+    /**
+     * Tests that when run from the pre-commit hook of {@code git commit -a}, the files being committed are published,
+     * which are staged in the temporary index Git passes to the hook rather than in the repository's index.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testStagedFilesInHookOfCommitAll() throws Exception {
+        moveToTempTestDirectory("test-project-staged-files", "pom.xml", "module/pom.xml");
+
+        final File rootFolder = getFolder().getRoot();
+        final File module = new File(rootFolder, "module");
+        write(module, "changed.txt", "committed");
+        write(module, "unchanged.txt", "committed");
+        git(rootFolder, "init");
+        git(rootFolder, "add", ".");
+        git(rootFolder, "commit", "-m", "Initial commit");
+
+        final Verifier verifier = getVerifier(module.toString());
+        verifier.executeGoal("initialize");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+        final File output = new File(module, "target/git-build-hook/staged-files.txt");
+        assertEquals(0, read(output).size());
+
+        final File hook = new File(rootFolder, ".git/hooks/pre-commit");
+        write(hook.getParentFile(), hook.getName(), "#!/bin/sh\nsh ./mvnw -B -q -Dmaven.repo.local="
+            + new File(verifier.getLocalRepository()).getAbsolutePath() + " -f module/pom.xml initialize\n");
+        assertTrue(hook.setExecutable(true));
+        write(module, "changed.txt", "changed but not staged");
+        git(rootFolder, "commit", "-a", "-m", "Commit all");
+        assertEquals(Arrays.asList(new File(module, "changed.txt").getAbsolutePath()), read(output));
+    }
+
+    /**
+     * Writes a file, creating its directory if necessary.
+     *
+     * @param directory the directory to write the file in.
+     * @param name the name of the file.
+     * @param content the content of the file.
+     * @throws Exception if the file could not be written.
+     */
+    private static void write(final File directory, final String name, final String content) throws Exception {
+        final File file = new File(directory, name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the lines of a file.
+     *
+     * @param file the file to read.
+     * @return the lines of the file.
+     * @throws Exception if the file could not be read.
+     */
+    private static List<String> read(final File file) throws Exception {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
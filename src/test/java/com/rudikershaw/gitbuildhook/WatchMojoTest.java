@@ -0,0 +1,85 @@
+package com.rudikershaw.gitbuildhook;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.maven.it.Verifier;
+import org.junit.Test;
+
+/** Unit and integration tests for the WatchMojo. */
+public class WatchMojoTest extends AbstractMojoTest {
+
+    /** How long, in seconds, the watch goal runs for in tests. */
+    private static final int WATCH_SECONDS = 20;
+
+    /**
+     * Tests that the watch goal reinstalls only the hook whose source file changes while it is watching.
+     *
+     * @throws Exception if a temp project cannot be created for testing.
+     */
+    @Test
+    public void testWatchReinstallsChangedHook() throws Exception {
+        moveToTempTestDirectory("test-project-watch", "pom.xml");
+        moveToTempTestDirectory("test-project-watch", "pre-commit.sh");
+        moveToTempTestDirectory("test-project-watch", "commit-msg.sh");
+        final File rootFolder = getFolder().getRoot();
+
+        final Verifier verifier = getVerifier(rootFolder.toString());
+        verifier.executeGoal("install");
+        verifier.verifyErrorFreeLog();
+        verifier.resetStreams();
+
+        verifier.addCliOption("-Dgitbuildhook.watch.timeout=" + WATCH_SECONDS);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Thread watch = new Thread(() -> {
+            try {
+                verifier.executeGoal("com.rudikershaw.gitbuildhook:git-build-hook-maven-plugin:3.6.0-SNAPSHOT:watch");
+            } catch (final Exception e) {
+                failure.set(e);
+            }
+        });
+        watch.start();
+
+        final Path log = new File(rootFolder, "log.txt").toPath();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WATCH_SECONDS);
+        while (!contains(log, "for changes.") && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        Files.write(new File(rootFolder, "pre-commit.sh").toPath(),
+            "#!/bin/sh\necho changed\n".getBytes(StandardCharsets.UTF_8));
+        final Path preCommit = new File(rootFolder, ".git/hooks/pre-commit").toPath();
+        while (!contains(preCommit, "echo changed") && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        watch.join(TimeUnit.SECONDS.toMillis(WATCH_SECONDS * 2));
+        assertNull(failure.get());
+        verifier.verifyErrorFreeLog();
+        verifier.verifyTextInLog("Reinstalled 1 hook(s) in");
+        verifier.resetStreams();
+
+        assertTrue(contains(preCommit, "echo changed"));
+        assertEquals("#!/bin/sh\necho commit-msg\n", new String(Files.readAllBytes(
+            new File(rootFolder, ".git/hooks/commit-msg").toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns true if the file exists and contains the provided text.
+     *
+     * @param file the file.
+     * @param text the text to look for.
+     * @return whether the file contains the text.
+     * @throws Exception if the file could not be read.
+     */
+    private static boolean contains(final Path file, final String text) throws Exception {
+        return Files.isRegularFile(file)
+            && new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains(text);
+    }
+}
@@ -0,0 +1,97 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.rudikershaw.gitbuildhook.files.FileFingerprint;
+
+/** Unit tests for the ClasspathHookIndex. */
+public class ClasspathHookIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that hooks in a jar are found through the index, fingerprinted from the central directory, and that the
+     * index is rebuilt when the jar changes.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testHooksAreFoundInIndexedJar() throws Exception {
+        final File jar = new File(folder.getRoot(), "hooks.jar");
+        writeJar(jar, "#!/bin/sh\necho first\n");
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null)) {
+            final HookSource first = ClasspathHookIndex.find(loader, "hooks/pre-commit.sh");
+            assertTrue(first instanceof JarEntryHookSource);
+            assertTrue(first.getFingerprint().startsWith("crc32:"));
+            try (InputStream in = first.open()) {
+                assertEquals("#!/bin/sh\necho first\n", IOUtils.toString(in, StandardCharsets.UTF_8));
+            }
+            assertNull(ClasspathHookIndex.find(loader, "hooks/missing.sh"));
+
+            writeJar(jar, "#!/bin/sh\necho second\n");
+            Files.setLastModifiedTime(jar.toPath(), FileTime.fromMillis(jar.lastModified() + 2000));
+            final HookSource second = ClasspathHookIndex.find(loader, "hooks/pre-commit.sh");
+            assertNotEquals(first.getFingerprint(), second.getFingerprint());
+        }
+    }
+
+    /**
+     * Tests that hooks in a class path directory are read through their URL, and fingerprinted from the attributes of
+     * the file.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testHooksAreFoundInDirectory() throws Exception {
+        final File classes = folder.newFolder("classes");
+        final File hook = new File(classes, "hooks/pre-commit.sh");
+        assertTrue(hook.getParentFile().mkdirs());
+        Files.write(hook.toPath(), "#!/bin/sh\necho first\n".getBytes(StandardCharsets.UTF_8));
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {classes.toURI().toURL()}, null)) {
+            final HookSource source = ClasspathHookIndex.find(loader, "hooks/pre-commit.sh");
+            assertTrue(source instanceof UrlHookSource);
+            final String first = source.getFingerprint();
+            assertEquals(hook.toURI().toURL() + ":" + FileFingerprint.of(hook.toPath()), first);
+
+            Files.write(hook.toPath(), "#!/bin/sh\necho second\n".getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(hook.toPath(), FileTime.fromMillis(hook.lastModified() + 2000));
+            assertNotEquals(first, source.getFingerprint());
+        }
+    }
+
+    /**
+     * Writes a jar containing a single hook.
+     *
+     * @param jar the jar to write.
+     * @param content the content of the hook.
+     * @throws Exception if the jar could not be written.
+     */
+    private void writeJar(final File jar, final String content) throws Exception {
+        try (OutputStream out = Files.newOutputStream(jar.toPath());
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("hooks/pre-commit.sh"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+}
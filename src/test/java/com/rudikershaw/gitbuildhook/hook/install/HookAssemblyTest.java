@@ -0,0 +1,79 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Unit tests for the HookAssembly. */
+public class HookAssemblyTest {
+
+    /**
+     * Tests that the scripts of a hook group are numbered in the order they are run under the group's directory, with
+     * a dispatcher generated as the group's hook.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testGroupScriptsAreNumbered() throws Exception {
+        final HookAssembly assembly = new HookAssembly(new File(".git"),
+            Collections.singletonMap("pre-push", "hooks/pre-push.sh"));
+        assembly.addGroup("pre-commit", Arrays.asList("hooks/lint.sh", "checks\\format it.sh"), 1, 0, false);
+
+        final Map<String, String> expected = new TreeMap<>();
+        expected.put("pre-commit.d/01-lint.sh", "hooks/lint.sh");
+        expected.put("pre-commit.d/02-format_it.sh", "checks\\format it.sh");
+        expected.put("pre-push", "hooks/pre-push.sh");
+        assertEquals(expected, assembly.getHooks());
+        assertEquals(Collections.singleton("pre-commit"), assembly.getGroups());
+        assertTrue(assembly.getGenerated().get("pre-commit") instanceof DispatcherHookSource);
+    }
+
+    /**
+     * Tests that a hook configured both as a hook and as a hook group fails the build.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testHookConfiguredTwiceFails() throws Exception {
+        final HookAssembly assembly = new HookAssembly(new File(".git"),
+            Collections.singletonMap("pre-commit", "hooks/pre-commit.sh"));
+        try {
+            assembly.addGroup("pre-commit", Collections.singletonList("hooks/lint.sh"), 1, 0, false);
+            Assert.fail("Expected the pre-commit hook to be rejected as configured twice.");
+        } catch (final MojoFailureException e) {
+            assertEquals("The pre-commit hook is configured more than once.", e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that wrapping for metrics moves each hook Git runs, configured or generated, to its wrapped name and
+     * leaves the scripts of hook groups as they are.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testHooksAreWrappedForMetrics() throws Exception {
+        final HookAssembly assembly = new HookAssembly(new File(".git"),
+            Collections.singletonMap("pre-push", "hooks/pre-push.sh"));
+        assembly.addGroup("pre-commit", Collections.singletonList("hooks/lint.sh"), 1, 0, false);
+        assembly.wrapForMetrics();
+
+        final Map<String, String> expected = new TreeMap<>();
+        expected.put("pre-commit.d/01-lint.sh", "hooks/lint.sh");
+        expected.put("pre-push" + MetricsWrapperHookSource.WRAPPED_SUFFIX, "hooks/pre-push.sh");
+        assertEquals(expected, assembly.getHooks());
+        assertTrue(assembly.getGenerated().get("pre-commit" + MetricsWrapperHookSource.WRAPPED_SUFFIX)
+            instanceof DispatcherHookSource);
+        assertTrue(assembly.getGenerated().get("pre-commit") instanceof MetricsWrapperHookSource);
+        assertTrue(assembly.getGenerated().get("pre-push") instanceof MetricsWrapperHookSource);
+    }
+}
@@ -0,0 +1,77 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit tests for the HookSourceWatcher. */
+public class HookSourceWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that a burst of changes to a watched file is reported once, and that changes to other files in the same
+     * directory are not reported.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testChangesToWatchedFileAreReportedOnce() throws Exception {
+        final Path hook = write(folder.getRoot().toPath().resolve("pre-commit.sh"), "first");
+        final Path other = write(folder.getRoot().toPath().resolve("other.sh"), "first");
+        try (HookSourceWatcher watcher = new HookSourceWatcher(200)) {
+            watcher.watchFile(hook);
+
+            write(other, "second");
+            assertTrue(watcher.awaitChanges(500).isEmpty());
+
+            write(hook, "second");
+            write(hook, "third");
+            assertEquals(Collections.singleton(hook.toAbsolutePath()), watcher.awaitChanges(10000));
+            assertTrue(watcher.awaitChanges(500).isEmpty());
+        }
+    }
+
+    /**
+     * Tests that files created in a directory created within a watched tree are reported.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testFilesInNewDirectoriesOfWatchedTreeAreReported() throws Exception {
+        final Path bundle = folder.newFolder("hooks").toPath();
+        try (HookSourceWatcher watcher = new HookSourceWatcher(200)) {
+            watcher.watchTree(bundle);
+
+            Files.createDirectories(bundle.resolve("lib"));
+            Set<Path> changed = watcher.awaitChanges(10000);
+            assertTrue(changed.toString(), changed.contains(bundle.resolve("lib").toAbsolutePath()));
+
+            final Path helper = write(bundle.resolve("lib/common.sh"), "helper");
+            changed = watcher.awaitChanges(10000);
+            assertEquals(Collections.singleton(helper.toAbsolutePath()), changed);
+        }
+    }
+
+    /**
+     * Writes a file.
+     *
+     * @param file the file to write.
+     * @param content the content of the file.
+     * @return the file.
+     * @throws Exception if the file could not be written.
+     */
+    private static Path write(final Path file, final String content) throws Exception {
+        return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,130 @@
+package com.rudikershaw.gitbuildhook.hook.install;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit tests for the RunnerStubHookSource. */
+public class RunnerStubHookSourceTest {
+
+    /** The standard input Git passes to a pre-push hook, one line for each ref being pushed. */
+    private static final String PRE_PUSH_STDIN = "refs/heads/main 1111111111111111111111111111111111111111 "
+        + "refs/heads/main 2222222222222222222222222222222222222222\n"
+        + "refs/heads/topic 3333333333333333333333333333333333333333 "
+        + "refs/heads/topic 0000000000000000000000000000000000000000\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that when a runner is running, the runner client is given the hook's standard input unchanged, trailing
+     * newline included.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testStdinIsPassedUnchangedToRunnerClient() throws Exception {
+        final Path received = folder.getRoot().toPath().resolve("received");
+        final Path java = script("java", "cat > '" + received + "'\n");
+        final Path maven = script("mvn", "exit 1\n");
+        final Path stub = stub(folder.newFile("runner.properties").toPath(), java, maven);
+
+        assertEquals(0, run(stub, PRE_PUSH_STDIN, "origin", "git@example.com:repo.git"));
+        assertEquals(PRE_PUSH_STDIN, new String(Files.readAllBytes(received), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that when no runner is running, the new Maven process is given the hook's standard input unchanged, and
+     * each of the hook's arguments whole, even if it contains spaces.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testStdinAndArgumentsArePassedUnchangedToMaven() throws Exception {
+        final Path received = folder.getRoot().toPath().resolve("received");
+        final Path java = script("java", "exit 1\n");
+        final Path maven = script("mvn", "for arg in \"$@\"; do printf '%s\\n--\\n' \"$arg\"; done > '" + received
+            + "'\n");
+        final Path stub = stub(folder.getRoot().toPath().resolve("runner.properties"), java, maven);
+
+        assertEquals(0, run(stub, PRE_PUSH_STDIN, "origin", "/path with spaces/repo.git"));
+        final String arguments = new String(Files.readAllBytes(received), StandardCharsets.UTF_8);
+        assertTrue(arguments, arguments.contains("\n-Dgitbuildhook.hook.stdin=" + PRE_PUSH_STDIN + "\n--\n"));
+        assertTrue(arguments, arguments.contains("\n-Dgitbuildhook.hook.arg.1=origin\n--\n"));
+        assertTrue(arguments, arguments.contains("\n-Dgitbuildhook.hook.arg.2=/path with spaces/repo.git\n--\n"));
+        assertTrue(arguments, arguments.contains("\n-Dgitbuildhook.hook.args=origin /path with spaces/repo.git\n--\n"));
+    }
+
+    /**
+     * Writes a runner stub into the temporary folder.
+     *
+     * @param runnerFile the runner file the stub checks for.
+     * @param java the java executable the stub runs the runner client with.
+     * @param maven the Maven executable the stub runs when no runner is running.
+     * @return the stub.
+     * @throws Exception if the stub could not be written.
+     */
+    private Path stub(final Path runnerFile, final Path java, final Path maven) throws Exception {
+        final RunnerStubHookSource source = new RunnerStubHookSource("pre-push", Collections.singletonList("verify"),
+            Paths.get("pom.xml"), runnerFile, folder.newFile("client.jar").toPath(), java.toString(),
+            maven.toString());
+        final Path stub = folder.getRoot().toPath().resolve("pre-push");
+        try (InputStream in = source.open()) {
+            Files.copy(in, stub);
+        }
+        return stub;
+    }
+
+    /**
+     * Writes an executable shell script into the temporary folder.
+     *
+     * @param name the name of the script.
+     * @param body the body of the script.
+     * @return the script.
+     * @throws Exception if the script could not be written.
+     */
+    private Path script(final String name, final String body) throws Exception {
+        final Path script = folder.getRoot().toPath().resolve(name);
+        Files.write(script, ("#!/bin/sh\n" + body).getBytes(StandardCharsets.UTF_8));
+        assertTrue(script.toFile().setExecutable(true));
+        return script;
+    }
+
+    /**
+     * Runs a hook, as Git would, with the provided standard input and arguments.
+     *
+     * @param hook the hook to run.
+     * @param stdin the standard input of the hook.
+     * @param args the arguments of the hook.
+     * @return the exit code of the hook.
+     * @throws Exception if the hook could not be run.
+     */
+    private int run(final Path hook, final String stdin, final String... args) throws Exception {
+        final List<String> command = new ArrayList<>(Arrays.asList("sh", hook.toString()));
+        command.addAll(Arrays.asList(args));
+        final Process process = new ProcessBuilder(command).directory(folder.getRoot()).redirectErrorStream(true)
+            .start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(stdin.getBytes(StandardCharsets.UTF_8));
+        }
+        final String output = IOUtils.toString(process.getInputStream(), StandardCharsets.UTF_8);
+        final int exitCode = process.waitFor();
+        assertEquals(output, "", output);
+        return exitCode;
+    }
+}
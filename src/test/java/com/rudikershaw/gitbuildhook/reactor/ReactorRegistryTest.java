@@ -0,0 +1,139 @@
+package com.rudikershaw.gitbuildhook.reactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Test;
+
+/** Unit tests for the ReactorRegistry. */
+public class ReactorRegistryTest {
+
+    /** How long, in milliseconds, tests wait for a claim before failing. */
+    private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    /**
+     * Tests that a module waiting for claimed work carries on once the claimant completes it.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testWaiterCarriesOnOnceWorkIsCompleted() throws Exception {
+        final ReactorRegistry registry = newRegistry();
+        assertNull(registry.claim("work", "module-a"));
+        assertEquals("module-a", registry.claim("work", "module-b"));
+
+        final CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> await(registry));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        registry.complete("work", "module-a");
+        assertTrue(waiting.get(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("module-a", registry.claim("work", "module-b"));
+    }
+
+    /**
+     * Tests that a module waiting for claimed work may claim it once the claimant releases it.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testWaiterClaimsReleasedWork() throws Exception {
+        final ReactorRegistry registry = newRegistry();
+        assertNull(registry.claim("work", "module-a"));
+
+        final CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> await(registry));
+        registry.release("work", "module-a");
+        assertFalse(waiting.get(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertNull(registry.claim("work", "module-b"));
+    }
+
+    /**
+     * Tests that waiting for work that is neither completed nor released times out.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test(expected = TimeoutException.class)
+    public void testWaitingTimesOut() throws Exception {
+        final ReactorRegistry registry = newRegistry();
+        assertNull(registry.claim("work", "module-a"));
+        registry.await("work", 100);
+    }
+
+    /**
+     * Tests that actions added to run at the end of the session run once, before the end of the session is forwarded
+     * to the listener they replaced, which still receives every other event.
+     */
+    @Test
+    public void testSessionEndActionsRunBeforeReplacedListener() {
+        final MavenSession session = newSession();
+        final List<String> calls = new ArrayList<>();
+        session.getRequest().setExecutionListener(new AbstractExecutionListener() {
+            @Override
+            public void projectStarted(final ExecutionEvent event) {
+                calls.add("projectStarted");
+            }
+
+            @Override
+            public void sessionEnded(final ExecutionEvent event) {
+                calls.add("sessionEnded");
+            }
+        });
+        final ReactorRegistry registry = ReactorRegistry.of(session);
+        registry.atSessionEnd(session, "action", () -> calls.add("action"));
+        registry.atSessionEnd(session, "action", () -> calls.add("duplicate"));
+
+        final ExecutionListener listener = session.getRequest().getExecutionListener();
+        listener.projectStarted(null);
+        listener.sessionEnded(null);
+        assertEquals(Arrays.asList("projectStarted", "action", "sessionEnded"), calls);
+    }
+
+    /**
+     * Creates the registry of a new session.
+     *
+     * @return the registry.
+     */
+    private static ReactorRegistry newRegistry() {
+        return ReactorRegistry.of(newSession());
+    }
+
+    /**
+     * Creates a new session.
+     *
+     * @return the session.
+     */
+    @SuppressWarnings("deprecation")
+    private static MavenSession newSession() {
+        return new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(),
+            Collections.emptyList());
+    }
+
+    /**
+     * Waits for the work to be completed or released.
+     *
+     * @param registry the registry.
+     * @return whether the work was completed.
+     */
+    private static boolean await(final ReactorRegistry registry) {
+        try {
+            return registry.await("work", TIMEOUT);
+        } catch (final InterruptedException | TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
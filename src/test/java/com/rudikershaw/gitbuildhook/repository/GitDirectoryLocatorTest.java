@@ -0,0 +1,119 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit tests for the GitDirectoryLocator. */
+public class GitDirectoryLocatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that a repository is found from a nested directory by walking up to its .git directory.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testLocatesGitDirectoryFromNestedDirectory() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path gitDir = createGitDirectory(root.resolve(".git"));
+        final Path module = Files.createDirectories(root.resolve("parent/module"));
+
+        final GitRepository repository = GitDirectoryLocator.locate(module, null, null, root);
+        assertEquals(gitDir.toFile(), repository.getGitDir());
+        assertEquals(gitDir.toFile(), repository.getCommonDir());
+        assertFalse(repository.isWorktree());
+    }
+
+    /**
+     * Tests that a .git file is followed to the git directory of a linked worktree, and its common directory read.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testLocatesLinkedWorktreeFromGitFile() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path commonDir = createGitDirectory(root.resolve("main/.git"));
+        final Path worktreeGitDir = Files.createDirectories(commonDir.resolve("worktrees/feature"));
+        write(worktreeGitDir.resolve("HEAD"), "ref: refs/heads/feature\n");
+        write(worktreeGitDir.resolve("commondir"), "../..\n");
+        final Path worktree = Files.createDirectories(root.resolve("feature"));
+        write(worktree.resolve(".git"), "gitdir: ../main/.git/worktrees/feature\n");
+
+        final GitRepository repository = GitDirectoryLocator.locate(worktree, null, null, root);
+        assertEquals(worktreeGitDir.toFile(), repository.getGitDir());
+        assertEquals(commonDir.toFile(), repository.getCommonDir());
+        assertTrue(repository.isWorktree());
+    }
+
+    /**
+     * Tests that the GIT_DIR environment variable takes precedence over the directory, and that no repository is
+     * found when neither gives one.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testGitDirVariableOverridesDirectory() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path gitDir = createGitDirectory(root.resolve("elsewhere.git"));
+        final Path project = Files.createDirectories(root.resolve("project"));
+
+        assertNull(GitDirectoryLocator.locate(project, null, null, root));
+        final GitRepository repository = GitDirectoryLocator.locate(project, "elsewhere.git", null, root);
+        assertEquals(gitDir.toFile(), repository.getGitDir());
+        assertNull(GitDirectoryLocator.locate(project, "missing.git", null, root));
+    }
+
+    /**
+     * Tests that the GIT_INDEX_FILE environment variable, resolved against the working directory, takes precedence over
+     * the index in the git directory.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testIndexFileVariableOverridesIndex() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path gitDir = createGitDirectory(root.resolve(".git"));
+
+        assertEquals(gitDir.resolve("index").toFile(), GitDirectoryLocator.locateIndexFile(gitDir.toFile(), null, root));
+        assertEquals(gitDir.resolve("index.lock").toFile(),
+            GitDirectoryLocator.locateIndexFile(gitDir.toFile(), ".git/index.lock", root));
+    }
+
+    /**
+     * Creates the minimal layout Git recognises as a git directory.
+     *
+     * @param gitDir the git directory to create.
+     * @return the git directory.
+     * @throws IOException if the git directory could not be created.
+     */
+    private static Path createGitDirectory(final Path gitDir) throws IOException {
+        Files.createDirectories(gitDir.resolve("objects"));
+        Files.createDirectories(gitDir.resolve("refs"));
+        write(gitDir.resolve("HEAD"), "ref: refs/heads/master\n");
+        return gitDir;
+    }
+
+    /**
+     * Writes text to a file.
+     *
+     * @param file the file to write.
+     * @param content the text to write.
+     * @throws IOException if the file could not be written.
+     */
+    private static void write(final Path file, final String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,122 @@
+package com.rudikershaw.gitbuildhook.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit tests for the GitRepositoryCache. */
+public class GitRepositoryCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that resolving the same base directory again reuses the cached repository.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testRepositoryIsCached() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path gitDir = createGitDirectory(root.resolve(".git"));
+        final File module = Files.createDirectories(root.resolve("module")).toFile();
+
+        final GitRepository repository = GitRepositoryCache.resolve(module);
+        assertEquals(gitDir.toFile(), repository.getGitDir());
+        assertSame(repository, GitRepositoryCache.resolve(module));
+    }
+
+    /**
+     * Tests that a cached repository whose HEAD file has been removed is discarded, and the enclosing repository found.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testRepositoryWithoutHeadIsResolvedAgain() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path outer = createGitDirectory(root.resolve(".git"));
+        final Path inner = createGitDirectory(root.resolve("inner/.git"));
+        final File module = Files.createDirectories(root.resolve("inner/module")).toFile();
+
+        assertEquals(inner.toFile(), GitRepositoryCache.resolve(module).getGitDir());
+        Files.delete(inner.resolve("HEAD"));
+        assertEquals(outer.toFile(), GitRepositoryCache.resolve(module).getGitDir());
+    }
+
+    /**
+     * Tests that a cached repository is discarded when a .git entry is created in, or removed from, the base directory.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testGitEntryInBaseDirectoryInvalidatesCache() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+        final Path outer = createGitDirectory(root.resolve(".git"));
+        final Path module = Files.createDirectories(root.resolve("module"));
+
+        final GitRepository cached = GitRepositoryCache.resolve(module.toFile());
+        assertEquals(outer.toFile(), cached.getGitDir());
+
+        final Path nested = createGitDirectory(module.resolve(".git"));
+        final GitRepository created = GitRepositoryCache.resolve(module.toFile());
+        assertEquals(nested.toFile(), created.getGitDir());
+
+        delete(nested);
+        final GitRepository removed = GitRepositoryCache.resolve(module.toFile());
+        assertEquals(outer.toFile(), removed.getGitDir());
+        assertNotSame(cached, removed);
+    }
+
+    /**
+     * Tests that a base directory not managed by any repository is not cached, so a repository initialised later is
+     * found.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testUnmanagedDirectoryIsNotCached() throws Exception {
+        final Path root = folder.getRoot().toPath().toRealPath();
+
+        assertNull(GitRepositoryCache.resolve(root.toFile()));
+        final Path gitDir = createGitDirectory(root.resolve(".git"));
+        assertEquals(gitDir.toFile(), GitRepositoryCache.resolve(root.toFile()).getGitDir());
+    }
+
+    /**
+     * Creates the minimal layout Git recognises as a git directory.
+     *
+     * @param gitDir the git directory to create.
+     * @return the git directory.
+     * @throws IOException if the git directory could not be created.
+     */
+    private static Path createGitDirectory(final Path gitDir) throws IOException {
+        Files.createDirectories(gitDir.resolve("objects"));
+        Files.createDirectories(gitDir.resolve("refs"));
+        Files.write(gitDir.resolve("HEAD"), "ref: refs/heads/master\n".getBytes(StandardCharsets.UTF_8));
+        return gitDir;
+    }
+
+    /**
+     * Deletes a git directory created by {@link #createGitDirectory(Path)}.
+     *
+     * @param gitDir the git directory to delete.
+     * @throws IOException if the git directory could not be deleted.
+     */
+    private static void delete(final Path gitDir) throws IOException {
+        Files.delete(gitDir.resolve("objects"));
+        Files.delete(gitDir.resolve("refs"));
+        Files.delete(gitDir.resolve("HEAD"));
+        Files.delete(gitDir);
+    }
+}
@@ -0,0 +1,84 @@
+package com.rudikershaw.gitbuildhook.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit tests for the RunnerServer and RunnerClient. */
+public class RunnerServerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that a hook's request reaches the runner, that output written while the build runs is streamed back along
+     * with the exit code, and that the runner removes its runner file when asked to stop.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testHookBuildIsRunByRunner() throws Exception {
+        final Path runnerFile = folder.getRoot().toPath().resolve("git-build-hook").resolve(RunnerFile.FILE_NAME);
+        final Path output = folder.newFile("runner.log").toPath();
+        Files.write(output, "Output from before the hook ran\n".getBytes(StandardCharsets.UTF_8));
+        final RunnerServer server = RunnerServer.start(runnerFile, output, request -> {
+            try {
+                final String line = request.getHookName() + " " + request.getGoals() + " " + request.getArgs() + " "
+                    + new String(request.getStdin(), StandardCharsets.UTF_8) + "\n";
+                Files.write(output, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return 3;
+        }, new SystemStreamLog());
+        final CompletableFuture<Void> serving = CompletableFuture.runAsync(() -> {
+            try (RunnerServer runner = server) {
+                runner.serve(TimeUnit.MINUTES.toMillis(1));
+            } catch (final IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertTrue(RunnerClient.ping(runnerFile));
+        final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        final String[] args = {runnerFile.toString(), "pre-push", "pom.xml", "verify -DskipTests", "origin", "url"};
+        final int exitCode = RunnerClient.run(args,
+            new ByteArrayInputStream("refs".getBytes(StandardCharsets.UTF_8)), stdout);
+        assertEquals(3, exitCode);
+        assertEquals("pre-push [verify, -DskipTests] [origin, url] refs\n",
+            new String(stdout.toByteArray(), StandardCharsets.UTF_8));
+
+        assertTrue(RunnerClient.stop(runnerFile));
+        serving.get(1, TimeUnit.MINUTES);
+        assertFalse(Files.exists(runnerFile));
+        assertFalse(RunnerClient.ping(runnerFile));
+    }
+
+    /**
+     * Tests that the client reports the runner as unavailable when no runner is running, so hooks fall back to running
+     * a new Maven process.
+     */
+    @Test
+    public void testClientReportsMissingRunner() {
+        final String[] args = {folder.getRoot().toPath().resolve(RunnerFile.FILE_NAME).toString(), "pre-commit",
+            "pom.xml", "verify"};
+        final int exitCode = RunnerClient.run(args, new ByteArrayInputStream(new byte[0]),
+            new ByteArrayOutputStream());
+        assertEquals(RunnerClient.UNAVAILABLE, exitCode);
+    }
+}
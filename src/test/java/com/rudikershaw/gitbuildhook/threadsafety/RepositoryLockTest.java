@@ -0,0 +1,78 @@
+package com.rudikershaw.gitbuildhook.threadsafety;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Unit tests for the RepositoryLock. */
+public class RepositoryLockTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the lock is reentrant and creates its lock file within the git directory.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testLockIsReentrant() throws Exception {
+        final File gitDir = folder.newFolder(".git");
+        try (RepositoryLock outer = RepositoryLock.acquire(gitDir, 1000, new SystemStreamLog());
+             RepositoryLock inner = RepositoryLock.acquire(gitDir, 1000, new SystemStreamLog())) {
+            assertTrue(new File(gitDir, "git-build-hook/lock").isFile());
+        }
+    }
+
+    /**
+     * Tests that a lock held by another thread times out, while a lock on another repository can still be taken.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testLockHeldElsewhereTimesOut() throws Exception {
+        final File gitDir = folder.newFolder("first", ".git");
+        final File otherGitDir = folder.newFolder("second", ".git");
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> holder = executor.submit(() -> {
+                try (RepositoryLock lock = RepositoryLock.acquire(gitDir, 1000, new SystemStreamLog())) {
+                    locked.countDown();
+                    release.await();
+                }
+                return null;
+            });
+            locked.await();
+
+            try (RepositoryLock lock = RepositoryLock.acquire(otherGitDir, 1000, new SystemStreamLog())) {
+                assertTrue(new File(otherGitDir, "git-build-hook/lock").isFile());
+            }
+            try (RepositoryLock lock = RepositoryLock.acquire(gitDir, 100, new SystemStreamLog())) {
+                fail("The lock should not be acquired while held by another thread.");
+            } catch (final MojoFailureException e) {
+                assertTrue(e.getMessage().startsWith("Timed out"));
+            }
+
+            release.countDown();
+            holder.get();
+            try (RepositoryLock lock = RepositoryLock.acquire(gitDir, 1000, new SystemStreamLog())) {
+                assertTrue(new File(gitDir, "git-build-hook/lock").isFile());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
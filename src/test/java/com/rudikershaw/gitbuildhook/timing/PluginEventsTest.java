@@ -0,0 +1,77 @@
+package com.rudikershaw.gitbuildhook.timing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/** Unit tests for the plugin's Flight Recorder events and timing summary. */
+public class PluginEventsTest {
+
+    /** The name of the hook install event. */
+    private static final String HOOK_INSTALL_EVENT = "com.rudikershaw.gitbuildhook.HookInstall";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that a span is not recorded while no recording is running, and that it is committed as an event with its
+     * detail, outcome and bytes written while one is.
+     *
+     * @throws Exception if the test fails.
+     */
+    @Test
+    public void testHookInstallEventIsRecorded() throws Exception {
+        try (Span span = PluginEvents.begin(EventKind.HOOK_INSTALL, "pre-commit")) {
+            assertFalse(span.isRecording());
+        }
+
+        final Path dump = folder.getRoot().toPath().resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(HOOK_INSTALL_EVENT).withThreshold(Duration.ZERO);
+            recording.start();
+            try (Span span = PluginEvents.begin(EventKind.HOOK_INSTALL, "pre-commit")) {
+                assertTrue(span.isRecording());
+                span.setOutcome("WRITTEN");
+                span.setBytes(42);
+            }
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+            .filter(e -> HOOK_INSTALL_EVENT.equals(e.getEventType().getName()))
+            .collect(Collectors.toList());
+        assertEquals(1, events.size());
+        assertEquals("pre-commit", events.get(0).getString("detail"));
+        assertEquals("WRITTEN", events.get(0).getString("outcome"));
+        assertEquals(42, events.get(0).getLong("bytes"));
+    }
+
+    /** Tests that the timing summary totals the time spent by goal and by module. */
+    @Test
+    public void testSessionTimingsSummary() {
+        final SessionTimings timings = new SessionTimings();
+        timings.add("install", "g:a", 2_000_000);
+        timings.add("install", "g:b", 1_000_000);
+        timings.add("configure", "g:a", 500_000);
+
+        final String json = timings.toJson();
+        assertTrue(json, json.contains("\"install\": {\"executions\": 2, \"millis\": 3.000}"));
+        assertTrue(json, json.contains("\"g:a\": {\"millis\": 2.500, \"goals\": {\"configure\": 0.500, "
+            + "\"install\": 2.000}}"));
+        assertTrue(json, json.contains("\"totalMillis\": 3.500"));
+    }
+}
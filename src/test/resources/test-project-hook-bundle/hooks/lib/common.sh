@@ -0,0 +1 @@
+echo "A helper was sourced"
@@ -0,0 +1,3 @@
+#!/bin/sh
+echo "first $1"
+cat